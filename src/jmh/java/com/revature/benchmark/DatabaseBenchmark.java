@@ -0,0 +1,98 @@
+package com.revature.benchmark;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.dao.ChefDAO;
+import com.revature.dao.IngredientDAO;
+import com.revature.dao.RecipeDAO;
+import com.revature.model.Chef;
+import com.revature.model.Recipe;
+import com.revature.service.AuthenticationService;
+import com.revature.service.ChefService;
+import com.revature.util.ConnectionUtil;
+import com.revature.util.Page;
+import com.revature.util.PageOptions;
+
+/**
+ * Measures the database-bound hot paths against a file-backed H2 database seeded by {@link DatasetSeeder}, at
+ * each dataset size in "rows". Every size runs in its own fork, so each trial starts with a cold connection
+ * pool and Chef cache.
+ *
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="DatabaseBenchmark -p rows=1000"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    /** The number of generated recipes in the dataset. */
+    @Param({ "1000", "100000", "1000000" })
+    public int rows;
+
+    private RecipeDAO recipeDao;
+    private ChefDAO chefDao;
+    private AuthenticationService authService;
+    private int pageCount;
+    private int chefCount;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        DatasetSeeder.open(rows);
+        ConnectionUtil connectionUtil = new ConnectionUtil();
+        chefDao = new ChefDAO(connectionUtil);
+        recipeDao = new RecipeDAO(chefDao, new IngredientDAO(connectionUtil), connectionUtil);
+        authService = new AuthenticationService(new ChefService(chefDao));
+        pageCount = (DatasetSeeder.SCRIPT_RECIPES + rows + PAGE_SIZE - 1) / PAGE_SIZE;
+        chefCount = DatasetSeeder.SCRIPT_CHEFS + DatasetSeeder.chefCount(rows);
+    }
+
+    /** One OFFSET page, chosen uniformly, so deep pages weigh as much as shallow ones. */
+    @Benchmark
+    public Page<Recipe> getAllRecipesPage() {
+        int page = ThreadLocalRandom.current().nextInt(pageCount) + 1;
+        return recipeDao.getAllRecipes(new PageOptions(page, PAGE_SIZE, "id", "ASC"));
+    }
+
+    /** A term matching one recipe in twenty. */
+    @Benchmark
+    public List<Recipe> searchRecipesByTerm() {
+        return recipeDao.searchRecipesByTerm("carrot");
+    }
+
+    /** A chef chosen uniformly, so the hit rate of the Chef cache falls as the dataset grows. */
+    @Benchmark
+    public Chef getChefById() {
+        return chefDao.getChefById(ThreadLocalRandom.current().nextInt(chefCount) + 1);
+    }
+
+    /** A successful login, followed by a logout to keep the session store from filling up. */
+    @Benchmark
+    public String login() {
+        String token = authService.login(new Chef("ChefTrevin", "trevature"));
+        authService.logout(token);
+        return token;
+    }
+}
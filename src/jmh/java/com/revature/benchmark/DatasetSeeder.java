@@ -0,0 +1,142 @@
+package com.revature.benchmark;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.revature.util.ConnectionUtil;
+import com.revature.util.DBUtil;
+
+/**
+ * Builds file-backed H2 databases of a given size for the benchmarks. Each size gets its own database under
+ * bench.dataDir (default target/jmh-data), which is reused by later runs as long as it still holds the
+ * expected number of recipes, so the one-off cost of seeding a million rows is not paid on every fork.
+ *
+ * A dataset holds the rows of sqlScript.sql plus, for a size of n, n generated recipes spread over n / 100
+ * generated chefs (at least 10), each recipe using two of the script's ingredients. One recipe in twenty has
+ * "carrot" in its name.
+ *
+ * Datasets can be built ahead of a run:
+ *
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.main=com.revature.benchmark.DatasetSeeder -Djmh.args="1000 100000 1000000"
+ * </pre>
+ */
+public class DatasetSeeder {
+
+    /** The number of recipes in sqlScript.sql. */
+    static final int SCRIPT_RECIPES = 5;
+
+    /** The number of chefs in sqlScript.sql; generated chefs follow them. */
+    static final int SCRIPT_CHEFS = 4;
+
+    /** The number of ingredients in sqlScript.sql. */
+    static final int SCRIPT_INGREDIENTS = 6;
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private static final String[] VEGETABLES = { "carrot", "potato", "tomato", "lemon", "rice", "onion", "leek",
+            "pea", "bean", "corn", "kale", "beet", "squash", "celery", "garlic", "pepper", "radish", "turnip",
+            "fennel", "spinach" };
+    private static final String[] STYLES = { "hearty", "spicy", "creamy", "smoky", "light", "rustic", "golden" };
+
+    private DatasetSeeder() {
+    }
+
+    public static void main(String[] args) throws SQLException {
+        for (String rows : args) {
+            open(Integer.parseInt(rows));
+        }
+    }
+
+    /**
+     * Points the application at the dataset of the given size, seeding it first if needed. This must run
+     * before ConnectionUtil is first loaded in the JVM, because the database URL is read once, when the
+     * class is initialized; JMH's forks guarantee that for each benchmark trial.
+     *
+     * @param recipes the number of generated recipes
+     */
+    public static void open(int recipes) throws SQLException {
+        File dataDir = new File(System.getProperty("bench.dataDir", "target/jmh-data")).getAbsoluteFile();
+        System.setProperty("recipe.db.url", "jdbc:h2:file:" + new File(dataDir, "recipes-" + recipes).getPath());
+
+        if (recipeCount() == SCRIPT_RECIPES + recipes) {
+            return;
+        }
+        long began = System.nanoTime();
+        DBUtil.RUN_SQL();
+        seed(recipes);
+        System.out.printf("Seeded %d recipes in %.1f s%n", recipes, (System.nanoTime() - began) / 1e9);
+    }
+
+    /** @return the number of chefs generated for a dataset of the given size */
+    static int chefCount(int recipes) {
+        return Math.max(10, recipes / 100);
+    }
+
+    private static int recipeCount() {
+        try (Connection con = new ConnectionUtil().getConnection()) {
+            ResultSet rs = con.prepareStatement("SELECT COUNT(*) FROM RECIPE").executeQuery();
+            return rs.next() ? rs.getInt(1) : -1;
+        } catch (SQLException e) {
+            // No schema yet.
+            return -1;
+        }
+    }
+
+    private static void seed(int recipes) throws SQLException {
+        int chefs = chefCount(recipes);
+        try (Connection con = new ConnectionUtil().getConnection()) {
+            con.setAutoCommit(false);
+
+            PreparedStatement chefPs = con.prepareStatement(
+                    "INSERT INTO CHEF (username, email, password, is_admin) VALUES (?, ?, ?, false)");
+            for (int i = 1; i <= chefs; i++) {
+                chefPs.setString(1, "benchchef" + i);
+                chefPs.setString(2, "benchchef" + i + "@bench.test");
+                chefPs.setString(3, "password" + i);
+                chefPs.addBatch();
+                if (i % BATCH_SIZE == 0) {
+                    chefPs.executeBatch();
+                }
+            }
+            chefPs.executeBatch();
+            con.commit();
+
+            PreparedStatement recipePs = con.prepareStatement(
+                    "INSERT INTO RECIPE (id, name, instructions, chef_id) VALUES (?, ?, ?, ?)");
+            PreparedStatement ingredientPs = con.prepareStatement(
+                    "INSERT INTO RECIPE_INGREDIENT (recipe_id, ingredient_id, vol, unit) VALUES (?, ?, ?, 'cups')");
+            for (int i = 1; i <= recipes; i++) {
+                int id = SCRIPT_RECIPES + i;
+                String vegetable = VEGETABLES[i % VEGETABLES.length];
+                recipePs.setInt(1, id);
+                recipePs.setString(2, STYLES[i % STYLES.length] + " " + vegetable + " soup " + i);
+                recipePs.setString(3, "Put " + vegetable + " in water.  Boil.  Maybe salt.");
+                recipePs.setInt(4, SCRIPT_CHEFS + 1 + i % chefs);
+                recipePs.addBatch();
+                for (int j = 0; j < 2; j++) {
+                    ingredientPs.setInt(1, id);
+                    ingredientPs.setInt(2, 1 + (i + j) % SCRIPT_INGREDIENTS);
+                    ingredientPs.setInt(3, 1 + j);
+                    ingredientPs.addBatch();
+                }
+                if (i % BATCH_SIZE == 0) {
+                    recipePs.executeBatch();
+                    ingredientPs.executeBatch();
+                    con.commit();
+                }
+            }
+            recipePs.executeBatch();
+            ingredientPs.executeBatch();
+            con.commit();
+
+            // Later inserts through the application continue after the generated ids.
+            con.prepareStatement("ALTER TABLE RECIPE ALTER COLUMN id RESTART WITH " + (SCRIPT_RECIPES + recipes + 1))
+                    .executeUpdate();
+            con.commit();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.revature.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.revature.model.Chef;
+import com.revature.model.Recipe;
+import com.revature.model.RecipeIngredient;
+import com.revature.util.JsonUtil;
+import com.revature.util.Page;
+
+/**
+ * Measures JSON serialization and deserialization of a Recipe, with its author and ingredients, and of a
+ * twenty-recipe Page, through the shared mapper in JsonUtil that the controllers use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    private static final ObjectReader PAGE_READER = JsonUtil.MAPPER.readerFor(new TypeReference<Page<Recipe>>() {
+    });
+
+    private Recipe recipe;
+    private Page<Recipe> page;
+    private byte[] recipeJson;
+    private byte[] pageJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            Recipe item = new Recipe(i, "hearty carrot soup " + i, "Put carrot in water.  Boil.  Maybe salt.",
+                    new Chef(i, "chef" + i, "chef" + i + "@bench.test", "password" + i, false));
+            List<RecipeIngredient> ingredients = new ArrayList<>();
+            for (int j = 1; j <= 5; j++) {
+                ingredients.add(new RecipeIngredient(j, "ingredient" + j, j, "cups", j % 2 == 0));
+            }
+            item.setIngredients(ingredients);
+            recipes.add(item);
+        }
+        recipe = recipes.get(0);
+        page = new Page<>(1, 20, 50, 1000, recipes);
+        recipeJson = JsonUtil.RECIPE_WRITER.writeValueAsBytes(recipe);
+        pageJson = JsonUtil.PAGE_WRITER.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeRecipe() throws IOException {
+        return JsonUtil.RECIPE_WRITER.writeValueAsBytes(recipe);
+    }
+
+    @Benchmark
+    public Recipe deserializeRecipe() throws IOException {
+        return JsonUtil.RECIPE_READER.readValue(recipeJson);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws IOException {
+        return JsonUtil.PAGE_WRITER.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public Page<Recipe> deserializePage() throws IOException {
+        return PAGE_READER.readValue(pageJson);
+    }
+}
@@ -1,6 +1,8 @@
 package com.revature;
 
+import com.revature.controller.AdminController;
 import com.revature.controller.AuthenticationController;
+import com.revature.controller.ImportController;
 import com.revature.controller.IngredientController;
 import com.revature.controller.RecipeController;
 import com.revature.dao.ChefDAO;
@@ -8,12 +10,17 @@ import com.revature.dao.IngredientDAO;
 import com.revature.dao.RecipeDAO;
 import com.revature.service.AuthenticationService;
 import com.revature.service.ChefService;
+import com.revature.service.ImportService;
+import com.revature.service.IngredientIndex;
 import com.revature.service.IngredientService;
 import com.revature.service.RecipeService;
 import com.revature.util.AdminMiddleware;
+import com.revature.util.ConfigUtil;
 import com.revature.util.ConnectionUtil;
 import com.revature.util.DBUtil;
 import com.revature.util.JavalinAppUtil;
+import com.revature.util.JdbcExecutor;
+import com.revature.util.MetricsRegistry;
 
 import io.javalin.Javalin;
 
@@ -34,8 +41,13 @@ public class Main {
     private static AuthenticationService AUTH_SERVICE;
     private static AuthenticationController AUTH_CONTROLLER;
     private static IngredientDAO INGREDIENT_DAO;
+    private static IngredientIndex INGREDIENT_INDEX;
     private static IngredientService INGREDIENT_SERVICE;
     private static IngredientController INGREDIENT_CONTROLLER;
+    private static ImportService IMPORT_SERVICE;
+    private static ImportController IMPORT_CONTROLLER;
+    private static AdminController ADMIN_CONTROLLER;
+    private static JdbcExecutor JDBC_EXECUTOR;
     @SuppressWarnings("unused")
     private static AdminMiddleware ADMIN_MIDDLEWARE;
 
@@ -44,6 +56,14 @@ public class Main {
     }
 
     public static Javalin startServer(int preferredPort, boolean allowFallback) {
+        return startServer(preferredPort, allowFallback,
+                ConfigUtil.getBoolean("recipe.server.virtualThreads", false));
+    }
+
+    /**
+     * Starts the server, choosing whether requests run on virtual threads (JDK 21+) or on Jetty's platform thread pool.
+     */
+    public static Javalin startServer(int preferredPort, boolean allowFallback, boolean useVirtualThreads) {
 
         // === Initialize dependencies ===
         INGREDIENT_DAO = new IngredientDAO(CONNECTION_UTIL);
@@ -51,17 +71,26 @@ public class Main {
         RECIPE_DAO = new RecipeDAO(CHEF_DAO, INGREDIENT_DAO, CONNECTION_UTIL);
         CHEF_SERVICE = new ChefService(CHEF_DAO);
         AUTH_SERVICE = new AuthenticationService(CHEF_SERVICE);
-        RECIPE_SERVICE = new RecipeService(RECIPE_DAO);
-        RECIPE_CONTROLLER = new RecipeController(RECIPE_SERVICE, AUTH_SERVICE);
-        INGREDIENT_SERVICE = new IngredientService(INGREDIENT_DAO);
+        INGREDIENT_INDEX = new IngredientIndex(RECIPE_DAO);
+        RECIPE_SERVICE = new RecipeService(RECIPE_DAO, INGREDIENT_INDEX);
+        // Recipe listings run on a bounded executor when recipe.recipes.async is set
+        if (ConfigUtil.getBoolean("recipe.recipes.async", false) && JDBC_EXECUTOR == null) {
+            JDBC_EXECUTOR = new JdbcExecutor();
+        }
+        RECIPE_CONTROLLER = new RecipeController(RECIPE_SERVICE, AUTH_SERVICE, JDBC_EXECUTOR);
+        INGREDIENT_SERVICE = new IngredientService(INGREDIENT_DAO, INGREDIENT_INDEX);
         INGREDIENT_CONTROLLER = new IngredientController(INGREDIENT_SERVICE);
         AUTH_CONTROLLER = new AuthenticationController(CHEF_SERVICE, AUTH_SERVICE);
-        JAVALIN_APP_UTIL = new JavalinAppUtil(RECIPE_CONTROLLER, AUTH_CONTROLLER, INGREDIENT_CONTROLLER);
+        IMPORT_SERVICE = new ImportService(RECIPE_DAO, INGREDIENT_DAO, RECIPE_SERVICE, INGREDIENT_SERVICE);
+        IMPORT_CONTROLLER = new ImportController(IMPORT_SERVICE);
+        ADMIN_CONTROLLER = new AdminController(CONNECTION_UTIL.getSlowQueryLog());
+        JAVALIN_APP_UTIL = new JavalinAppUtil(RECIPE_CONTROLLER, AUTH_CONTROLLER, INGREDIENT_CONTROLLER, IMPORT_CONTROLLER, ADMIN_CONTROLLER);
+        registerMetrics(MetricsRegistry.getDefault());
 
         // Run any DB init scripts
         DBUtil.RUN_SQL();
 
-        Javalin app = JAVALIN_APP_UTIL.getApp();
+        Javalin app = JAVALIN_APP_UTIL.getApp(useVirtualThreads);
 
         int port = preferredPort;
         while (true) {
@@ -81,4 +110,21 @@ public class Main {
 
         return app;
     }
+
+    /**
+     * Exposes the session store, chef cache and JDBC executor statistics alongside the request and database metrics.
+     */
+    private static void registerMetrics(MetricsRegistry metrics) {
+        metrics.registerGauge("sessions_active", "Logged in sessions.", AuthenticationService.loggedInUsers::size);
+        metrics.registerCounter("sessions_expired_total", "Sessions removed after going unused.", AuthenticationService.loggedInUsers::getExpiredCount);
+        metrics.registerCounter("sessions_evicted_total", "Sessions evicted to make room for new logins.", AuthenticationService.loggedInUsers::getEvictedCount);
+        metrics.registerGauge("chef_cache_size", "Chefs held in the chef cache.", CHEF_DAO.getChefCache()::size);
+        metrics.registerCounter("chef_cache_hits_total", "Chef lookups answered from the cache.", CHEF_DAO.getChefCache()::getHitCount);
+        metrics.registerCounter("chef_cache_misses_total", "Chef lookups that went to the database.", CHEF_DAO.getChefCache()::getMissCount);
+        if (JDBC_EXECUTOR != null) {
+            metrics.registerGauge("jdbc_executor_active_threads", "JDBC executor threads running a task.", JDBC_EXECUTOR::getActiveCount);
+            metrics.registerGauge("jdbc_executor_queued_tasks", "Tasks waiting for a JDBC executor thread.", JDBC_EXECUTOR::getQueuedCount);
+            metrics.registerCounter("jdbc_executor_rejected_total", "Tasks turned away by the saturated JDBC executor.", JDBC_EXECUTOR::getRejectedCount);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.revature.controller;
+
+import io.javalin.Javalin;
+import io.javalin.http.Context;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.revature.util.SlowQueryLog;
+
+/**
+ * The AdminController class provides diagnostic endpoints for administrators. Its routes live under /admin
+ * and are protected by the admin middleware.
+ */
+
+public class AdminController 
+{
+
+    /**
+     * The log of statements that took longer than the slow query threshold.
+     */
+
+    private SlowQueryLog slowQueryLog;
+
+    /**
+     * Constructs an AdminController with the specified SlowQueryLog.
+     *
+     * @param slowQueryLog the log served by the slow query endpoint
+     */
+
+    public AdminController(SlowQueryLog slowQueryLog) 
+    {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    /**
+     * Responds with the slow query threshold, the number of slow statements seen and the slow statements
+     * themselves, slowest first, or newest first when the "order" query parameter is "recent". Each
+     * statement is listed with its bound parameters and, when plan capture is enabled, its plan.
+     *
+     * @param ctx the Javalin context
+     */
+
+    public void getSlowQueries(Context ctx) 
+    {
+        boolean recent = "recent".equalsIgnoreCase(ctx.queryParam("order"));
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("thresholdMillis", slowQueryLog.getThresholdMillis());
+        body.put("slowCount", slowQueryLog.getSlowCount());
+        body.put("queries", recent ? slowQueryLog.getRecent() : slowQueryLog.getSlowest());
+        ctx.json(body);
+    }
+
+    /**
+     * Forgets the slow statements kept so far and responds with 204 No Content.
+     *
+     * @param ctx the Javalin context
+     */
+
+    public void clearSlowQueries(Context ctx) 
+    {
+        slowQueryLog.clear();
+        ctx.status(204);
+    }
+
+    /**
+     * Configure the routes for admin operations.
+     *
+     * @param app the Javalin application
+     */
+    public void configureRoutes(Javalin app) {
+        app.get("/admin/slow-queries", this::getSlowQueries);
+        app.delete("/admin/slow-queries", this::clearSlowQueries);
+    }
+}
@@ -3,16 +3,15 @@ package com.revature.controller;
 import io.javalin.Javalin;
 import io.javalin.http.Context;
 
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.revature.model.Chef;
 import com.revature.service.AuthenticationService;
 import com.revature.service.ChefService;
+import com.revature.util.JsonUtil;
 
 
 
@@ -50,6 +49,8 @@ public class AuthenticationController
      * TODO: Registers a new chef in the system.
      * 
      * If the username already exists, responds with a 409 Conflict status and a result of "Username already exists".
+     * The check is a single lookup by username; an insert that still loses a race on the unique username
+     * constraint is reported the same way.
      * 
      * Otherwise, registers the chef and responds with a 201 Created status and the registered chef details.
      *
@@ -59,24 +60,35 @@ public class AuthenticationController
     {
         String json=ctx.body();
 
-        ObjectMapper om=new ObjectMapper();
-
         try 
         {
-            Chef chf=om.readValue(json,Chef.class);
+            Chef chf=JsonUtil.CHEF_READER.readValue(json);
 
-            List<Chef> dbchefs=chefService.searchChefs(null);
+            if(chefService.findChefByUsername(chf.getUsername()).isPresent())
+            {
+                ctx.status(409);
+                ctx.result("Username already exists");
+                return;
+            }
+
+            chefService.saveChef(chf);
 
-            for(Chef x:dbchefs)
+            if(chf.getId()==0)
             {
-                if(x.getUsername().equals(chf.getUsername()))
+                // The insert failed; a concurrent registration may have claimed the username first.
+                if(chefService.findChefByUsername(chf.getUsername()).isPresent())
                 {
                     ctx.status(409);
                     ctx.result("Username already exists");
                 }
+                else
+                {
+                    ctx.status(500);
+                    ctx.result("Registration failed");
+                }
+                return;
             }
 
-            chefService.saveChef(chf);
             ctx.status(201);
             ctx.json(chf);    
             
@@ -105,11 +117,9 @@ public class AuthenticationController
     {
         String json=ctx.body();
         
-        ObjectMapper om=new ObjectMapper();
-
         try 
         {
-            Chef chf=om.readValue(json,Chef.class);
+            Chef chf=JsonUtil.CHEF_READER.readValue(json);
 
             String token=authService.login(chf);
 
@@ -0,0 +1,98 @@
+package com.revature.controller;
+
+import io.javalin.Javalin;
+import io.javalin.http.Context;
+
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+import com.revature.service.ImportService;
+import com.revature.util.ImportReport;
+
+/**
+ * The ImportController class provides the bulk import endpoint, which loads many recipes in one request
+ * through the ImportService instead of one POST /recipes call per recipe.
+ */
+
+public class ImportController 
+{
+
+    /**
+     * The service that parses the input and writes the recipes in batches.
+     */
+
+    private ImportService importService;
+
+    /**
+     * Constructs an ImportController with the specified ImportService.
+     *
+     * @param importService the service used to import recipes
+     */
+
+    public ImportController(ImportService importService) 
+    {
+        this.importService = importService;
+    }
+
+    /**
+     * Imports the recipes in the request body. The body is read as a stream, so it may be far larger than
+     * memory.
+     * 
+     * The format is "csv" when the Content-Type is text/csv and "ndjson" otherwise, and may be chosen with
+     * the "format" query parameter instead. The "batchSize" query parameter sets the number of recipes per
+     * chunk and transaction.
+     * 
+     * Responds with 200 OK and an ImportReport, or 400 Bad Request with the report when the input is
+     * malformed; chunks committed before the malformed input remain. An unknown format or a batch size out
+     * of range responds with 400 Bad Request and a message, and a failure to read the existing ingredients
+     * with 500 Internal Server Error before anything is imported.
+     *
+     * @param ctx the Javalin context containing the recipes to import
+     */
+
+    public void importRecipes(Context ctx) throws Exception 
+    {
+        String format = ctx.queryParam("format");
+        if (format == null) 
+        {
+            String contentType = ctx.contentType();
+            format = contentType != null && contentType.startsWith("text/csv") ? "csv" : "ndjson";
+        }
+
+        int batchSize = importService.getDefaultBatchSize();
+        if (ctx.queryParam("batchSize") != null) 
+        {
+            batchSize = ctx.queryParamAsClass("batchSize", Integer.class).get();
+        }
+
+        ImportReport report;
+        try 
+        {
+            report = importService.importRecipes(new InputStreamReader(ctx.bodyInputStream(), StandardCharsets.UTF_8), format, batchSize);
+        } 
+        catch (IllegalArgumentException e) 
+        {
+            ctx.status(400);
+            ctx.result(e.getMessage());
+            return;
+        }
+
+        if (report == null) 
+        {
+            ctx.status(500);
+            ctx.result("Existing ingredients could not be read");
+            return;
+        }
+        ctx.status(report.getError() == null ? 200 : 400);
+        ctx.json(report);
+    }
+
+    /**
+     * Configure the routes for import operations.
+     *
+     * @param app the Javalin application
+     */
+    public void configureRoutes(Javalin app) {
+        app.post("/import", this::importRecipes);
+    }
+}
@@ -2,16 +2,20 @@ package com.revature.controller;
 
 import io.javalin.Javalin;
 import io.javalin.http.Context;
+import io.javalin.http.InternalServerErrorResponse;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.revature.model.Chef;
 import com.revature.model.Ingredient;
 import com.revature.service.IngredientService;
 import com.revature.util.Page;
+import com.revature.util.JsonArrayStream;
+import com.revature.util.JsonUtil;
 
 
 /**
@@ -30,6 +34,12 @@ public class IngredientController
     @SuppressWarnings("unused")
     private IngredientService ingredientService;
 
+    /**
+     * The largest number of suggestions a typeahead request may ask for.
+     */
+
+    private static final int MAX_SUGGESTIONS = 50;
+
     /**
      * Constructs an IngredientController with the specified IngredientService.
      *
@@ -70,6 +80,25 @@ public class IngredientController
        }
     }
 
+    /**
+     * Suggests ingredients for a partially typed name, for typeahead. Reads the "prefix" query parameter and an
+     * optional "limit" (default 10, at most 50), and is answered from memory without querying the database.
+     * 
+     * Responds with a 200 OK status and the matching ingredients, which is an empty list when nothing matches.
+     *
+     * @param ctx the Javalin context containing the prefix and limit query parameters
+     */
+    public void suggestIngredients(Context ctx) 
+    {
+        String prefix = getParamAsClassOrElse(ctx, "prefix", String.class, "");
+        int limit = Math.min(getParamAsClassOrElse(ctx, "limit", Integer.class, 10), MAX_SUGGESTIONS);
+
+        List<Ingredient> suggestions = ingredientService.suggestIngredients(prefix, limit);
+
+        ctx.status(200);
+        ctx.json(suggestions);
+    }
+
     /**
      * TODO: Deletes an ingredient by its ID.
      * 
@@ -97,11 +126,9 @@ public class IngredientController
     {
         String json=ctx.body();
 
-        ObjectMapper om=new ObjectMapper();
-
         try 
         {
-            Ingredient ing=om.readValue(json,Ingredient.class);
+            Ingredient ing=JsonUtil.INGREDIENT_READER.readValue(json);
 
             int id = Integer.parseInt(ctx.pathParam("id"));
 
@@ -143,11 +170,9 @@ public class IngredientController
     {
         String json=ctx.body();
 
-        ObjectMapper om=new ObjectMapper();
-
         try 
         {
-            Ingredient ing=om.readValue(json,Ingredient.class);
+            Ingredient ing=JsonUtil.INGREDIENT_READER.readValue(json);
 
             ingredientService.saveIngredient(ing);
 
@@ -170,6 +195,10 @@ public class IngredientController
      * TODO: Retrieves a paginated list of ingredients, or all ingredients if no pagination parameters are provided.
      * 
      * If pagination parameters are included, returns ingredients based on page, page size, sorting, and filter term.
+     * If an "after" cursor is included (empty for the first page), pages by keyset instead and responds with
+     * 400 Bad Request when the cursor is malformed.
+     * If "stream=true" is included without pagination parameters, all matching ingredients are streamed as they
+     * are read from the database rather than collected first.
      *
      * @param ctx the Javalin context containing query parameters for pagination, sorting, and filtering
      */
@@ -178,8 +207,32 @@ public class IngredientController
 
         String term = ctx.queryParam("term");
 
+        if (ctx.queryParam("after") != null) 
+        {
+            int pageSize = getParamAsClassOrElse(ctx, "pageSize", Integer.class, 10);
+            String sortBy = getParamAsClassOrElse(ctx, "sortBy", String.class, "id");
+            String sortDirection = getParamAsClassOrElse(ctx, "sortDirection", String.class, "ASC");
+
+            try 
+            {
+                ctx.json(ingredientService.searchIngredientsAfter(term, ctx.queryParam("after"), pageSize, sortBy, sortDirection));
+                ctx.status(200);
+            } 
+            catch (IllegalArgumentException e) 
+            {
+                ctx.status(400);
+                ctx.result("Invalid cursor");
+            }
+            return;
+        }
+
         if (ctx.queryParam("page") == null && ctx.queryParam("pageSize") == null && ctx.queryParam("sortBy") == null && ctx.queryParam("sortDirection") == null) 
         {
+            if ("true".equalsIgnoreCase(ctx.queryParam("stream"))) 
+            {
+                streamIngredients(ctx, term);
+                return;
+            }
             
             ctx.json(ingredientService.searchIngredients(term));
             ctx.status(200);
@@ -197,6 +250,45 @@ public class IngredientController
         ctx.status(200);
     }
 
+    /**
+     * Writes the unpaged ingredient listing as a JSON array while the rows are still being read, a batch at a
+     * time, instead of building the whole list first. An empty listing is written as an empty array. A listing
+     * that fails before its first batch answers 500 Internal Server Error; one that fails part way is aborted
+     * without its closing bracket, so the client cannot mistake it for a complete one.
+     *
+     * @param ctx the Javalin context to write to
+     * @param term the search term to filter ingredients by, or null for all ingredients
+     */
+    private void streamIngredients(Context ctx, String term) 
+    {
+        try (JsonArrayStream array = new JsonArrayStream(() ->
+        {
+            ctx.status(200);
+            ctx.contentType("application/json");
+            return ctx.outputStream();
+        })) 
+        {
+            int count = ingredientService.streamIngredients(term, array::write);
+            if (count < 0 && array.isStarted())
+            {
+                array.abort();
+                throw new InternalServerErrorResponse("Ingredient listing failed after " + array.getCount() + " ingredients");
+            }
+            if (count < 0)
+            {
+                ctx.status(500);
+                ctx.result("Ingredients could not be read");
+                return;
+            }
+            array.start();
+        } 
+        catch (IOException e) 
+        {
+            // The client went away mid-response; there is nobody left to answer.
+            e.printStackTrace();
+        }
+    }
+
     /**
      * A helper method to retrieve a query parameter from the context as a specific class type, or return a default value if the query parameter is not present.
      *
@@ -221,6 +313,7 @@ public class IngredientController
      */
     public void configureRoutes(Javalin app) {
         app.get("/ingredients", this::getIngredients);
+        app.get("/ingredients/suggest", this::suggestIngredients);
         app.get("/ingredients/{id}", this::getIngredient);
         app.post("/ingredients", this::createIngredient);
         app.put("/ingredients/{id}", this::updateIngredient);
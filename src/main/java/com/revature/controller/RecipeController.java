@@ -3,19 +3,27 @@ package com.revature.controller;
 import io.javalin.http.Handler;
 import io.javalin.Javalin;
 import io.javalin.http.Context;
+import io.javalin.http.InternalServerErrorResponse;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.revature.model.Ingredient;
 import com.revature.model.Recipe;
 import com.revature.service.AuthenticationService;
 import com.revature.service.RecipeService;
 import com.revature.util.Page;
 import com.revature.model.Chef;
+import com.revature.util.JdbcExecutor;
+import com.revature.util.JsonArrayStream;
+import com.revature.util.NdjsonStream;
+import com.revature.util.JsonUtil;
 
 /**
  * The RecipeController class provides RESTful endpoints for managing recipes.
@@ -34,6 +42,9 @@ public class RecipeController
     @SuppressWarnings("unused")
     private AuthenticationService authService;
 
+    /** The executor that recipe listings run on, or null to run them on the request thread. */
+    private JdbcExecutor jdbcExecutor;
+
     /**
      * TODO: Constructor that initializes the RecipeController with the parameters.
      * 
@@ -47,16 +58,169 @@ public class RecipeController
             
     }
 
+    /**
+     * Constructs a RecipeController that lists recipes asynchronously on the given executor, so that slow
+     * listings wait there rather than occupying request threads.
+     * 
+     * @param recipeService The service that handles the business logic for managing recipes.
+     * @param authService the service used to manage authentication-related operations
+     * @param jdbcExecutor the bounded executor recipe listings run on, or null to run them on the request thread
+     */
+    public RecipeController(RecipeService recipeService, AuthenticationService authService, JdbcExecutor jdbcExecutor)
+    {
+        this(recipeService, authService);
+        this.jdbcExecutor=jdbcExecutor;
+    }
+
     /**
      * TODO: Handler for fetching all recipes. Supports pagination, sorting, and filtering by recipe name or ingredient.
      * 
+     * Passing "expand=ingredients" also loads each returned recipe's ingredients, with one extra query per page.
+     * 
+     * Passing "q" runs a full-text search over recipe names and instructions instead: every word must appear, exactly
+     * or as the start of a longer word, and results are ordered by relevance and may be paged with "page" and
+     * "pageSize".
+     * 
+     * Filtering by ingredient is answered from the in-memory ingredient index: "ingredient" lists ingredients every
+     * recipe must use, "anyIngredient" ingredients each recipe must use at least one of, and "excludeIngredient"
+     * ingredients no recipe may use, each as comma-separated names. These results are ordered by id and may be
+     * paged with "page" and "pageSize"; sorting and cursors do not apply to them.
+     * 
+     * Passing an "after" query parameter selects keyset pagination: an empty value requests the first page and
+     * each response's nextCursor requests the page after it. A malformed cursor responds with 400 Bad Request.
+     * 
+     * Passing "stream=true" without paging parameters streams the full listing as it is read from the database,
+     * so large listings start arriving at once and are never held in memory as a whole.
+     * 
+     * When the controller has a JdbcExecutor, the query and serialization run there and the response completes
+     * asynchronously; if the executor is saturated the request is refused with 503 Service Unavailable.
+     * 
      * Responds with a 200 OK status and the list of recipes, or 404 Not Found with a result of "No recipes found".
      */
    public Handler fetchAllRecipes = ctx ->
    {
+        if (jdbcExecutor == null)
+        {
+            listRecipes(ctx);
+            return;
+        }
+
+        CompletableFuture<Void> future;
+        try
+        {
+            future = jdbcExecutor.submit(() ->
+            {
+                try
+                {
+                    listRecipes(ctx);
+                }
+                catch (Exception e)
+                {
+                    throw new CompletionException(e);
+                }
+            });
+        }
+        catch (RejectedExecutionException e)
+        {
+            ctx.status(503);
+            ctx.header("Retry-After", "1");
+            ctx.result("Server busy, try again shortly");
+            return;
+        }
+        ctx.future(() -> future);
+    };
+
+    /**
+     * Handler for exporting the whole recipe catalog as newline-delimited JSON (application/x-ndjson): one
+     * recipe per line, each with its author and ingredients, ordered by author and then id. Rows are written
+     * as they are read, so the export starts at once and its size is not limited by memory.
+     * 
+     * Passing "gzip=true" sends the export as a gzip file (application/gzip) instead.
+     * 
+     * Responds with a 200 OK status. The response is only committed once the first batch arrives, so an export
+     * that fails before its first batch answers 500 Internal Server Error. One that fails part way is aborted
+     * without being finished off - unflushed, and without its gzip trailer - so the client cannot mistake it
+     * for the whole catalog.
+     */
+    public Handler exportRecipes = ctx ->
+    {
+        boolean gzip = "true".equalsIgnoreCase(ctx.queryParam("gzip"));
+
+        try (NdjsonStream lines = new NdjsonStream(() ->
+        {
+            ctx.status(200);
+            if (gzip)
+            {
+                ctx.contentType("application/gzip");
+                ctx.header("Content-Disposition", "attachment; filename=\"recipes.ndjson.gz\"");
+            }
+            else
+            {
+                ctx.contentType("application/x-ndjson");
+            }
+            return ctx.outputStream();
+        }, gzip))
+        {
+            int count = recipeService.exportRecipes(lines::write);
+            if (count < 0 && lines.isStarted())
+            {
+                lines.abort();
+                throw new InternalServerErrorResponse("Recipe export failed after " + lines.getCount() + " recipes");
+            }
+            if (count < 0)
+            {
+                lines.abort();
+                ctx.status(500);
+                ctx.result("Recipes could not be exported");
+            }
+        }
+    };
+
+    /**
+     * Writes the unpaged recipe listing as a JSON array while the rows are still being read, a batch at a time,
+     * instead of building the whole list first. The response is only committed once the first batch arrives, so
+     * an empty listing still answers 404 Not Found and one that fails before its first batch 500 Internal Server
+     * Error. A listing that fails part way is aborted without its closing bracket, so the client cannot mistake
+     * it for a complete one.
+     */
+    private void streamRecipes(Context ctx, String term) throws Exception
+    {
+        try (JsonArrayStream array = new JsonArrayStream(() ->
+        {
+            ctx.status(200);
+            ctx.contentType("application/json");
+            return ctx.outputStream();
+        }))
+        {
+            int count = recipeService.streamRecipes(term, expandsIngredients(ctx), array::write);
+            if (count < 0 && array.isStarted())
+            {
+                array.abort();
+                throw new InternalServerErrorResponse("Recipe listing failed after " + array.getCount() + " recipes");
+            }
+            if (count < 0)
+            {
+                ctx.status(500);
+                ctx.result("Recipes could not be read");
+            }
+            else if (!array.isStarted())
+            {
+                ctx.status(404);
+                ctx.result("No recipes found");
+            }
+        }
+    }
+
+    /**
+     * Fetches the recipes requested by fetchAllRecipes and writes the response.
+     */
+    private void listRecipes(Context ctx) throws Exception
+    {
         String termParam = ctx.queryParam("term");
         String name = ctx.queryParam("name");
-        String ingredient = ctx.queryParam("ingredient");
+        List<String> allIngredients = listParam(ctx, "ingredient");
+        List<String> anyIngredients = listParam(ctx, "anyIngredient");
+        List<String> excludedIngredients = listParam(ctx, "excludeIngredient");
 
         String term = null;
         if(termParam != null && !termParam.isBlank()) 
@@ -67,12 +231,131 @@ public class RecipeController
         {
             term = name;
         } 
-        else if(ingredient != null && !ingredient.isBlank()) 
+
+        String query = ctx.queryParam("q");
+
+        if(query != null && !query.isBlank()) 
+        {
+            if(ctx.queryParam("page") != null && ctx.queryParam("pageSize") != null) 
+            {
+                int page = getParamAsClassOrElse(ctx, "page", Integer.class, 1);
+                int pageSize = getParamAsClassOrElse(ctx, "pageSize", Integer.class, 10);
+
+                Page<Recipe> pageResult = recipeService.searchRecipesFullText(query, page, pageSize);
+
+                if (pageResult == null)
+                {
+                    ctx.status(404);
+                    ctx.result("No recipes found");
+                } 
+                else 
+                {
+                    if (expandsIngredients(ctx))
+                    {
+                        recipeService.loadIngredients(pageResult.getItems());
+                    }
+                    ctx.status(200);
+                    ctx.json(pageResult);
+                }
+            }
+            else 
+            {
+                List<Recipe> recipes = recipeService.searchRecipesFullText(query);
+
+                if(recipes == null || recipes.isEmpty()) 
+                {
+                    ctx.status(404);
+                    ctx.result("No recipes found");
+                } 
+                else 
+                {
+                    if (expandsIngredients(ctx))
+                    {
+                        recipeService.loadIngredients(recipes);
+                    }
+                    ctx.status(200);
+                    ctx.json(recipes);
+                }
+            }
+        }
+        else if(!allIngredients.isEmpty() || !anyIngredients.isEmpty() || !excludedIngredients.isEmpty()) 
         {
-            term = ingredient;
+            if(ctx.queryParam("page") != null && ctx.queryParam("pageSize") != null) 
+            {
+                int page = getParamAsClassOrElse(ctx, "page", Integer.class, 1);
+                int pageSize = getParamAsClassOrElse(ctx, "pageSize", Integer.class, 10);
+
+                Page<Recipe> pageResult = recipeService.searchRecipesByIngredients(term, allIngredients, anyIngredients, excludedIngredients, page, pageSize);
+
+                if (pageResult == null)
+                {
+                    ctx.status(404);
+                    ctx.result("No recipes found");
+                } 
+                else 
+                {
+                    if (expandsIngredients(ctx))
+                    {
+                        recipeService.loadIngredients(pageResult.getItems());
+                    }
+                    ctx.status(200);
+                    ctx.json(pageResult);
+                }
+            }
+            else 
+            {
+                List<Recipe> recipes = recipeService.searchRecipesByIngredients(term, allIngredients, anyIngredients, excludedIngredients);
+
+                if(recipes == null || recipes.isEmpty()) 
+                {
+                    ctx.status(404);
+                    ctx.result("No recipes found");
+                } 
+                else 
+                {
+                    if (expandsIngredients(ctx))
+                    {
+                        recipeService.loadIngredients(recipes);
+                    }
+                    ctx.status(200);
+                    ctx.json(recipes);
+                }
+            }
         }
+        else if(ctx.queryParam("after") != null) 
+        {
+            int pageSize = getParamAsClassOrElse(ctx, "pageSize", Integer.class, 10);
+            String sortBy = getParamAsClassOrElse(ctx, "sortBy", String.class, "id");
+            String sortDirection = getParamAsClassOrElse(ctx, "sortDirection", String.class, "ASC");
+
+            Page<Recipe> pageResult;
+            try 
+            {
+                pageResult = recipeService.searchRecipesAfter(term, ctx.queryParam("after"), pageSize, sortBy, sortDirection);
+            } 
+            catch (IllegalArgumentException e) 
+            {
+                ctx.status(400);
+                ctx.result("Invalid cursor");
+                return;
+            }
 
-        if(ctx.queryParam("page") != null && ctx.queryParam("pageSize") != null && ctx.queryParam("sortBy") != null && ctx.queryParam("sortDirection") != null) 
+            if (pageResult == null)
+            {
+                ctx.status(404);
+                ctx.result("No recipes found");
+            } 
+            else 
+            {
+                if (expandsIngredients(ctx))
+                {
+                    recipeService.loadIngredients(pageResult.getItems());
+                }
+                ctx.status(200);
+                ctx.json(pageResult);
+            }
+        }
+        else if(ctx.queryParam("page") != null && ctx.queryParam("pageSize") != null && ctx.queryParam("sortBy") != null && ctx.queryParam("sortDirection") != null) 
         {
 
             int page = getParamAsClassOrElse(ctx, "page", Integer.class, 1);
@@ -89,10 +372,18 @@ public class RecipeController
             } 
             else 
             {
+                if (expandsIngredients(ctx))
+                {
+                    recipeService.loadIngredients(pageResult.getItems());
+                }
                 ctx.status(200);
                 ctx.json(pageResult);
             }
         } 
+        else if("true".equalsIgnoreCase(ctx.queryParam("stream"))) 
+        {
+            streamRecipes(ctx, term);
+        }
         else 
         {
         
@@ -105,17 +396,21 @@ public class RecipeController
             } 
             else 
             {
+            if (expandsIngredients(ctx))
+            {
+                recipeService.loadIngredients(recipes);
+            }
             ctx.status(200);
             ctx.json(recipes);
             }
         }
-    };
+    }
 
 
 
 
     /**
-     * TODO: Handler for fetching a recipe by its ID.
+     * TODO: Handler for fetching a recipe by its ID. Passing "expand=ingredients" also loads the recipe's ingredients.
      * 
      * If successful, responds with a 200 status code and the recipe as the response body.
      * 
@@ -132,6 +427,10 @@ public class RecipeController
 
         if(dbrep!=null)
         {
+            if (expandsIngredients(ctx))
+            {
+                recipeService.loadIngredients(List.of(dbrep));
+            }
             ctx.status(200);
             ctx.json(dbrep);
         }
@@ -219,11 +518,9 @@ public class RecipeController
     {
         String json=ctx.body();
 
-        ObjectMapper om=new ObjectMapper();
-
         try 
         {
-            Recipe rep=om.readValue(json,Recipe.class);
+            Recipe rep=JsonUtil.RECIPE_READER.readValue(json);
 
             int id = Integer.parseInt(ctx.pathParam("id"));
 
@@ -256,6 +553,45 @@ public class RecipeController
         }
     };
 
+    /**
+     * A helper method to read a query parameter holding comma-separated values.
+     * 
+     * @param ctx The context of the request.
+     * @param queryParam The query parameter name.
+     * @return The trimmed, non-blank values, or an empty list if the query parameter is not present.
+     */
+    private List<String> listParam(Context ctx, String queryParam) {
+        String value = ctx.queryParam(queryParam);
+        List<String> values = new ArrayList<>();
+        if (value != null) {
+            for (String item : value.split(",")) {
+                if (!item.isBlank()) {
+                    values.add(item.trim());
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * A helper method to check whether the request asks for recipe ingredients to be included, through an
+     * "expand" query parameter whose comma-separated values include "ingredients".
+     * 
+     * @param ctx The context of the request.
+     * @return true if ingredients should be loaded into the returned recipes.
+     */
+    private boolean expandsIngredients(Context ctx) {
+        String expand = ctx.queryParam("expand");
+        if (expand != null) {
+            for (String field : expand.split(",")) {
+                if (field.trim().equalsIgnoreCase("ingredients")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * A helper method to retrieve a query parameter from the context as a specific class type, or return a default value if the query parameter is not present.
      * 
@@ -291,6 +627,7 @@ public class RecipeController
         app.post("/recipes", createRecipe);
         app.put("/recipes/{id}", updateRecipe);
         app.delete("/recipes/{id}", deleteRecipe);
+        app.get("/export/recipes", exportRecipes);
     }
 }
 
@@ -1,12 +1,19 @@
 package com.revature.dao;
+import com.revature.util.ConfigUtil;
 import com.revature.util.ConnectionUtil;
+import com.revature.util.LruCache;
 import com.revature.util.Page;
 import com.revature.util.PageOptions;
 import com.revature.model.Chef;
 import com.revature.model.Ingredient;
 
 import java.util.List;
+import java.util.Map;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -25,21 +32,64 @@ import java.sql.Statement;
 public class ChefDAO 
 {
 
+    /** The largest number of ids bound into a single IN-list by {@link #getChefsByIds(Collection)}. */
+    private static final int IN_LIST_CHUNK_SIZE = 500;
+
     /** A utility class for establishing connections to the database. */
     @SuppressWarnings("unused")
     private ConnectionUtil connectionUtil;
+
+    /**
+     * A read-through cache of Chefs by id. Chefs are looked up for every recipe mapped and every
+     * findChef but change rarely, so most lookups can skip the database. Entries are evicted through
+     * {@link #evictChef(int)} when a Chef is saved or deleted, and expire after a time-to-live.
+     */
+    private final LruCache<Integer, Chef> chefCache;
    
 
     /** 
      * Constructs a ChefDAO with the specified ConnectionUtil for database connectivity.
+     * The Chef cache is sized by the "recipe.cache.chef.maxSize" and "recipe.cache.chef.ttlMillis" settings.
      * 
      * TODO: Finish the implementation so that this class's instance variables are initialized accordingly.
      * 
      * @param connectionUtil the utility used to connect to the database
      */
     public ChefDAO(ConnectionUtil connectionUtil)
+    {
+        this(connectionUtil, new LruCache<>(ConfigUtil.getInt("recipe.cache.chef.maxSize", 1000),
+                ConfigUtil.getLong("recipe.cache.chef.ttlMillis", 60_000)));
+    }
+
+    /** 
+     * Constructs a ChefDAO with the specified ConnectionUtil and Chef cache.
+     * 
+     * @param connectionUtil the utility used to connect to the database
+     * @param chefCache the cache used in front of lookups by id
+     */
+    public ChefDAO(ConnectionUtil connectionUtil, LruCache<Integer, Chef> chefCache)
     {
         this.connectionUtil=connectionUtil;
+        this.chefCache=chefCache;
+    }
+
+    /**
+     * @return the cache used in front of Chef lookups by id
+     */
+    public LruCache<Integer, Chef> getChefCache()
+    {
+        return chefCache;
+    }
+
+    /**
+     * Removes a Chef from the lookup cache so that the next lookup reads it from the database.
+     * Must be called whenever a Chef record is changed or deleted.
+     *
+     * @param id the unique identifier of the Chef to evict.
+     */
+    public void evictChef(int id)
+    {
+        chefCache.invalidate(id);
     }
 
     /**
@@ -84,10 +134,9 @@ public class ChefDAO
         try (Connection con = connectionUtil.getConnection()) 
         {
             String sql = "SELECT * FROM CHEF ORDER BY id";
-            Statement stmt = con.createStatement();
-            ResultSet rs = stmt.executeQuery(sql);
+            String countSql = "SELECT COUNT(*) FROM CHEF";
 
-            return pageResults(rs, pageOptions);
+            return pageResults(con, sql, countSql, pageOptions);
         } 
         catch (SQLException e) 
         {
@@ -97,24 +146,79 @@ public class ChefDAO
     }
 
     /**
-     * TODO: Retrieves a Chef record by its unique identifier.
+     * TODO: Retrieves a Chef record by its unique identifier, consulting the Chef cache first.
      *
      * @param id the unique identifier of the Chef to retrieve.
      * @return the Chef object, if found.
      */
     public Chef getChefById(int id) 
     {
-        
+        Chef cached = chefCache.get(id);
+        if(cached!=null)
+            return cached;
+
+        try(Connection con=connectionUtil.getConnection())
+        {
+            return getChefById(con, id);
+        } 
+        catch (SQLException e) 
+        {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves a Chef record by its unique identifier on a connection the caller already holds,
+     * consulting the Chef cache first. Other DAOs use this to resolve authors while they are still
+     * reading their own rows, rather than borrowing a second connection from the pool.
+     *
+     * @param con the open connection to query on.
+     * @param id the unique identifier of the Chef to retrieve.
+     * @return the Chef object, or null if no Chef has that id.
+     * @throws SQLException if an error occurs while running the query.
+     */
+    public Chef getChefById(Connection con, int id) throws SQLException
+    {
+        Chef cached = chefCache.get(id);
+        if(cached!=null)
+            return cached;
+
+        String sql="select * from CHEF where id=?";
+        PreparedStatement ps=con.prepareStatement(sql);
+
+        ps.setInt(1, id);
+
+        ResultSet rs=ps.executeQuery();
+
+        if(rs.next())
+        {
+            Chef chef = mapSingleRow(rs);
+            chefCache.put(id, chef);
+            return chef;
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves a Chef record by its username. The lookup is served by the unique index on
+     * CHEF.username, so it reads at most one row regardless of how many chefs exist.
+     * Results are not cached, since they are used to check credentials.
+     *
+     * @param username the username of the Chef to retrieve.
+     * @return the Chef object, or null if no Chef has that username.
+     */
+    public Chef getChefByUsername(String username) 
+    {
         try(Connection con=connectionUtil.getConnection())
         {
-            String sql="select * from CHEF where id=?";
+            String sql="select * from CHEF where username=?";
             PreparedStatement ps=con.prepareStatement(sql);
 
-            ps.setInt(1, id);
+            ps.setString(1, username);
 
             ResultSet rs=ps.executeQuery();
 
-
             if(rs.next())
             {
                 return new Chef(rs.getInt("id"),rs.getString("username"),rs.getString("email"),rs.getString("password"),rs.getBoolean("is_admin"));
@@ -128,6 +232,55 @@ public class ChefDAO
         return null;
     }
 
+    /**
+     * Retrieves the Chef records for a collection of identifiers using one IN-list query per
+     * chunk of ids, so resolving the authors of a recipe listing costs a constant number of
+     * queries rather than one query per row. Chefs already in the Chef cache are not queried.
+     * Each IN-list is padded to the next power of two, repeating the last id, so that only a few
+     * distinct statements reach the connection pool's statement cache.
+     *
+     * @param ids the unique identifiers of the Chefs to retrieve; duplicates are ignored.
+     * @return a map from id to Chef containing every id that was found.
+     */
+    public Map<Integer, Chef> getChefsByIds(Collection<Integer> ids)
+    {
+        Map<Integer, Chef> chefs = new HashMap<>();
+        List<Integer> distinctIds = takeCached(ids, chefs);
+
+        if(distinctIds.isEmpty())
+            return chefs;
+
+        try(Connection con=connectionUtil.getConnection())
+        {
+            queryChefs(con, distinctIds, chefs);
+        }
+        catch (SQLException e)
+        {
+            e.printStackTrace();
+        }
+        return chefs;
+    }
+
+    /**
+     * Retrieves the Chef records for a collection of identifiers as above, on a connection the
+     * caller already holds, so that other DAOs can resolve the authors of the rows they are
+     * reading without borrowing a second connection from the pool.
+     *
+     * @param con the open connection to query on.
+     * @param ids the unique identifiers of the Chefs to retrieve; duplicates are ignored.
+     * @return a map from id to Chef containing every id that was found.
+     * @throws SQLException if an error occurs while running the queries.
+     */
+    public Map<Integer, Chef> getChefsByIds(Connection con, Collection<Integer> ids) throws SQLException
+    {
+        Map<Integer, Chef> chefs = new HashMap<>();
+        List<Integer> distinctIds = takeCached(ids, chefs);
+
+        if(!distinctIds.isEmpty())
+            queryChefs(con, distinctIds, chefs);
+        return chefs;
+    }
+
     /**
      * TODO: Creates a new Chef record in the database.
      *
@@ -139,7 +292,7 @@ public class ChefDAO
         try(Connection con=connectionUtil.getConnection())
         {
             String sql="insert into CHEF(username, email, password, is_admin) values(?,?,?,?)";
-            PreparedStatement ps=con.prepareStatement(sql);
+            PreparedStatement ps=con.prepareStatement(sql,Statement.RETURN_GENERATED_KEYS);
 
 
             ps.setString(1, chef.getUsername());
@@ -226,6 +379,9 @@ public class ChefDAO
     /**
      * TODO: Searches for Chef records by a search term in the username.
      *
+     * The term may appear anywhere in the username, so this scans every chef. Prefer
+     * {@link #searchChefsByPrefix(String, PageOptions)} when matching the start of the username is enough.
+     *
      * @param term the search term to filter Chef usernames.
      * @return a list of Chef objects that match the search term.
      */
@@ -233,8 +389,6 @@ public class ChefDAO
     {
         try(Connection con=connectionUtil.getConnection()) 
         {
-            List<Chef> chf=new ArrayList<>();
-
             String sql="Select * from CHEF where username like ? order by id";
 
             PreparedStatement ps=con.prepareStatement(sql);
@@ -243,14 +397,7 @@ public class ChefDAO
 
             ResultSet rs=ps.executeQuery();
 
-            while(rs.next())
-            {
-                
-                Chef obj=new Chef(rs.getString("username"),rs.getString("email"),rs.getString("password"),rs.getBoolean("is_admin"));
-                chf.add(obj);
-                
-            }
-            return chf;
+            return mapRows(rs);
         } 
         catch (SQLException e) 
         {
@@ -271,11 +418,35 @@ public class ChefDAO
        try (Connection con = connectionUtil.getConnection()) 
        {
             String sql = "SELECT * FROM CHEF WHERE username LIKE ? ORDER BY id";
-            PreparedStatement ps = con.prepareStatement(sql);
-            ps.setString(1, "%" + term + "%");
+            String countSql = "SELECT COUNT(*) FROM CHEF WHERE username LIKE ?";
 
-            ResultSet rs = ps.executeQuery();
-            return pageResults(rs, pageOptions);
+            return pageResults(con, sql, countSql, pageOptions, "%" + term + "%");
+        } 
+        catch (SQLException e) 
+        {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Searches for chefs whose username starts with a prefix and returns a paginated result ordered by
+     * username. Because the pattern has no leading wildcard, the database can answer it with a range scan
+     * of the unique username index instead of reading every chef. Wildcard characters in the prefix are
+     * matched literally.
+     *
+     * @param prefix the start of the usernames to find
+     * @param pageOptions options for pagination, including page size and page number
+     * @return a paginated list of Chef objects whose username starts with the prefix
+     */
+    public Page<Chef> searchChefsByPrefix(String prefix, PageOptions pageOptions) 
+    {
+       try (Connection con = connectionUtil.getConnection()) 
+       {
+            String sql = "SELECT * FROM CHEF WHERE username LIKE ? ESCAPE '\\' ORDER BY username";
+            String countSql = "SELECT COUNT(*) FROM CHEF WHERE username LIKE ? ESCAPE '\\'";
+
+            return pageResults(con, sql, countSql, pageOptions, escapeLike(prefix) + "%");
         } 
         catch (SQLException e) 
         {
@@ -287,6 +458,73 @@ public class ChefDAO
     
     // below are helper methods that are included for your convenience
 
+    /**
+     * Escapes the LIKE wildcards in a value so that it matches only itself, using backslash as the escape character.
+     *
+     * @param value the value to escape.
+     * @return the escaped value.
+     */
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Puts the cached Chefs among the given ids into a map.
+     *
+     * @param ids the unique identifiers to look up; duplicates are ignored.
+     * @param chefs receives each cached Chef by id.
+     * @return the distinct ids that were not cached, in their original order.
+     */
+    private List<Integer> takeCached(Collection<Integer> ids, Map<Integer, Chef> chefs) {
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            Chef cached = chefCache.get(id);
+            if (cached != null)
+                chefs.put(id, cached);
+            else
+                missing.add(id);
+        }
+        return missing;
+    }
+
+    /**
+     * Queries the Chefs with the given ids, one padded IN-list per chunk, and caches each one found.
+     *
+     * @param con the connection to run the queries on.
+     * @param ids the distinct ids to query.
+     * @param chefs receives each Chef found by id.
+     * @throws SQLException if an error occurs while running a query.
+     */
+    private void queryChefs(Connection con, List<Integer> ids, Map<Integer, Chef> chefs) throws SQLException {
+        for (int start = 0; start < ids.size(); start += IN_LIST_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(start, Math.min(start + IN_LIST_CHUNK_SIZE, ids.size()));
+
+            int placeholders = paddedSize(chunk.size());
+
+            String sql = "select * from CHEF where id in (" + String.join(",", Collections.nCopies(placeholders, "?")) + ")";
+            PreparedStatement ps = con.prepareStatement(sql);
+
+            for (int i = 0; i < placeholders; i++) {
+                ps.setInt(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+            }
+
+            for (Chef chef : mapRows(ps.executeQuery())) {
+                chefs.put(chef.getId(), chef);
+                chefCache.put(chef.getId(), chef);
+            }
+        }
+    }
+
+    /**
+     * Rounds an IN-list length up to the next power of two, capped at {@link #IN_LIST_CHUNK_SIZE}.
+     *
+     * @param size the number of ids in the list, at least 1.
+     * @return the number of placeholders to prepare.
+     */
+    private static int paddedSize(int size) {
+        return size <= 1 ? 1 : Math.min(IN_LIST_CHUNK_SIZE, Integer.highestOneBit(size - 1) << 1);
+    }
+
     /**
      * Maps a single row from the ResultSet to a Chef object.
      *
@@ -319,37 +557,65 @@ public class ChefDAO
     }
 
     /**
-     * Paginates the results of a ResultSet into a Page of Chef objects.
+     * Fetches one page of Chef objects by running the given query with a LIMIT/OFFSET window.
+     * The total number of matching rows comes from the count query, which is skipped when a
+     * partially filled page already reveals it.
      *
-     * @param set the ResultSet containing Chef data.
+     * @param con the connection to run both queries on.
+     * @param sql the ordered query selecting Chef rows, without a LIMIT clause.
+     * @param countSql the query counting every row that sql can return.
      * @param pageOptions options for pagination and sorting.
+     * @param params the string parameters bound, in order, to both queries.
      * @return a Page of Chef objects containing the paginated results.
-     * @throws SQLException if an error occurs while accessing the ResultSet.
+     * @throws SQLException if an error occurs while running either query.
+     */
+    private Page<Chef> pageResults(Connection con, String sql, String countSql, PageOptions pageOptions, String... params) throws SQLException {
+        int pageSize = pageOptions.getPageSize();
+        int offset = Math.max(0, (pageOptions.getPageNumber() - 1) * pageSize);
+
+        PreparedStatement ps = con.prepareStatement(sql + " LIMIT ? OFFSET ?");
+        int index = bindParameters(ps, params);
+        ps.setInt(index, pageSize);
+        ps.setInt(index + 1, offset);
+        List<Chef> chefs = mapRows(ps.executeQuery());
+
+        int totalElements = chefs.size() < pageSize && (offset == 0 || !chefs.isEmpty())
+                ? offset + chefs.size()
+                : countRows(con, countSql, params);
+        return new Page<>(pageOptions.getPageNumber(), pageSize,
+                totalElements / pageSize, totalElements, chefs);
+    }
+
+    /**
+     * Runs a COUNT query and returns its single value.
+     *
+     * @param con the connection to run the query on.
+     * @param countSql the query to run.
+     * @param params the string parameters bound, in order, to the query.
+     * @return the count, or 0 if the query returned no row.
+     * @throws SQLException if an error occurs while running the query.
      */
-    private Page<Chef> pageResults(ResultSet set, PageOptions pageOptions) throws SQLException {
-        List<Chef> chefs = mapRows(set);
-        int offset = (pageOptions.getPageNumber() - 1) * pageOptions.getPageSize();
-        int limit = offset + pageOptions.getPageSize();
-        List<Chef> slicedList = sliceList(chefs, offset, limit);
-        return new Page<>(pageOptions.getPageNumber(), pageOptions.getPageSize(),
-                chefs.size() / pageOptions.getPageSize(), chefs.size(), slicedList);
+    private int countRows(Connection con, String countSql, String... params) throws SQLException {
+        PreparedStatement ps = con.prepareStatement(countSql);
+        bindParameters(ps, params);
+        ResultSet rs = ps.executeQuery();
+        return rs.next() ? rs.getInt(1) : 0;
     }
 
     /**
-     * Slices a list of Chef objects from a starting index to an ending index.
+     * Binds string parameters to a statement starting at the first placeholder.
      *
-     * @param list the list of Chef objects to slice.
-     * @param start the starting index.
-     * @param end the ending index.
-     * @return a sliced list of Chef objects.
+     * @param ps the statement to bind to.
+     * @param params the values to bind, in order.
+     * @return the index of the next unbound placeholder.
+     * @throws SQLException if a parameter cannot be bound.
      */
-    private List<Chef> sliceList(List<Chef> list, int start, int end) {
-        List<Chef> sliced = new ArrayList<>();
-        for (int i = start; i < end; i++) {
-            sliced.add(list.get(i));
+    private int bindParameters(PreparedStatement ps, String... params) throws SQLException {
+        int index = 1;
+        for (String param : params) {
+            ps.setString(index++, param);
         }
-        return sliced;
+        return index;
     }
 }
 
-
@@ -1,15 +1,20 @@
 package com.revature.dao;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import com.revature.util.BatchConsumer;
 import com.revature.util.ConnectionUtil;
 import com.revature.util.Page;
+import com.revature.util.PageCursor;
 import com.revature.util.PageOptions;
 import com.revature.model.Chef;
 import com.revature.model.Ingredient;
@@ -26,6 +31,9 @@ import com.revature.model.Ingredient;
 public class IngredientDAO 
 {
 
+    /** The number of rows fetched and handed on at a time when streaming Ingredients. */
+    private static final int STREAM_BATCH_SIZE = 100;
+
     /** A utility class used for establishing connections to the database. */
     @SuppressWarnings("unused")
     private ConnectionUtil connectionUtil;
@@ -117,6 +125,59 @@ public class IngredientDAO
         }
     }
 
+    /**
+     * Creates many Ingredient records at once, as a single JDBC batch in one transaction: either every name is
+     * inserted or none is.
+     *
+     * @param names the names of the Ingredients to create, none of which may exist yet.
+     * @return each name mapped to the id generated for it, or null if the batch failed and was rolled back.
+     */
+    public Map<String, Integer> createIngredients(List<String> names) 
+    {
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        if (names.isEmpty()) 
+        {
+            return ids;
+        }
+
+        try (Connection con = connectionUtil.getConnection()) 
+        {
+            con.setAutoCommit(false);
+            try 
+            {
+                PreparedStatement ps = con.prepareStatement("insert into INGREDIENT(name) values(?)", Statement.RETURN_GENERATED_KEYS);
+                for (String name : names) 
+                {
+                    ps.setString(1, name);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                ResultSet rs = ps.getGeneratedKeys();
+                while (rs.next() && ids.size() < names.size()) 
+                {
+                    ids.put(names.get(ids.size()), rs.getInt(1));
+                }
+                if (ids.size() != names.size()) 
+                {
+                    throw new SQLException("Expected " + names.size() + " generated keys but got " + ids.size());
+                }
+                con.commit();
+                return ids;
+            } 
+            catch (SQLException e) 
+            {
+                con.rollback();
+                throw e;
+            }
+        } 
+        catch (SQLException e) 
+        {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
     /**
      * TODO: Deletes an ingredient record from the database, including references in related tables.
      *
@@ -218,9 +279,9 @@ public class IngredientDAO
 
         
             String sql = "SELECT id, name FROM INGREDIENT ORDER BY "+sortBy+" "+dir;
-            PreparedStatement ps = con.prepareStatement(sql);
-            ResultSet rs = ps.executeQuery();
-            return pageResults(rs, pageOptions);
+            String countSql = "SELECT COUNT(*) FROM INGREDIENT";
+
+            return pageResults(con, sql, countSql, pageOptions);
         } 
         catch (SQLException e) 
         {
@@ -280,16 +341,66 @@ public class IngredientDAO
             String dir = pageOptions.getSortDirection();
 
             String sql = "SELECT id, name FROM INGREDIENT WHERE name LIKE ? ORDER BY "+sortBy+" "+dir;
-            
+            String countSql = "SELECT COUNT(*) FROM INGREDIENT WHERE name LIKE ?";
+
+            return pageResults(con, sql, countSql, pageOptions, "%" + term + "%");
+        } 
+        catch (SQLException e) 
+        {
+            e.printStackTrace();
+            return new Page<>(pageOptions.getPageNumber(), pageOptions.getPageSize(), 0, 0, new ArrayList<>());
+        }
+    }
+
+    /**
+     * Streams every Ingredient, or every Ingredient whose name contains a term, to a consumer in batches, in id
+     * order. Rows are read from the open result set with a fetch size of one batch, so memory use stays constant
+     * however many Ingredients there are. The connection is held until the last batch has been consumed.
+     *
+     * @param term the search term to filter Ingredient names by, or null for all Ingredients.
+     * @param consumer receives the Ingredients a batch at a time.
+     * @return the number of Ingredients streamed, or -1 if the query failed.
+     * @throws IOException if the consumer fails to write a batch.
+     */
+    public int streamIngredients(String term, BatchConsumer<Ingredient> consumer) throws IOException 
+    {
+        try (Connection con = connectionUtil.getConnection()) 
+        {
+            String sql = term == null
+                    ? "SELECT id, name FROM INGREDIENT ORDER BY id"
+                    : "SELECT id, name FROM INGREDIENT WHERE name LIKE ? ORDER BY id";
             PreparedStatement ps = con.prepareStatement(sql);
-            ps.setString(1, "%" + term + "%");
+            ps.setFetchSize(STREAM_BATCH_SIZE);
+            if (term != null) 
+            {
+                ps.setString(1, "%" + term + "%");
+            }
+
             ResultSet rs = ps.executeQuery();
-            return pageResults(rs, pageOptions);
+
+            int count = 0;
+            List<Ingredient> batch = new ArrayList<>(STREAM_BATCH_SIZE);
+            while (rs.next()) 
+            {
+                batch.add(mapSingleRow(rs));
+                if (batch.size() == STREAM_BATCH_SIZE) 
+                {
+                    consumer.accept(batch);
+                    count += batch.size();
+                    batch = new ArrayList<>(STREAM_BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) 
+            {
+                consumer.accept(batch);
+                count += batch.size();
+            }
+            return count;
         } 
         catch (SQLException e) 
         {
             e.printStackTrace();
-            return new Page<>(pageOptions.getPageNumber(), pageOptions.getPageSize(), 0, 0, new ArrayList<>());
+            return -1;
         }
     }
 
@@ -324,22 +435,129 @@ public class IngredientDAO
     }
 
     /**
-     * Paginates the results of a ResultSet into a Page of Ingredient objects.
+     * Retrieves one page of Ingredients by keyset pagination, optionally filtered by a search term. Rather
+     * than skipping rows with OFFSET, the query seeks past the cursor in PageOptions, so deep pages cost the
+     * same as the first one. The total count is not computed in this mode and is reported as -1.
      *
-     * @param resultSet the ResultSet containing Ingredient data.
+     * @param term the search term to filter Ingredient names by, or null for all Ingredients.
+     * @param pageOptions the page size, sort column ("id" or "name"), direction and cursor to continue from.
+     * @return a page of Ingredient objects whose nextCursor is set if more Ingredients follow.
+     */
+    public Page<Ingredient> searchIngredientsAfter(String term, PageOptions pageOptions) 
+    {
+        try (Connection con = connectionUtil.getConnection()) 
+        {
+            String column = PageCursor.sortColumn(pageOptions.getSortBy());
+            boolean descending = "DESC".equalsIgnoreCase(pageOptions.getSortDirection());
+            String dir = descending ? "DESC" : "ASC";
+            PageCursor cursor = pageOptions.getCursor();
+
+            List<String> conditions = new ArrayList<>();
+            if (term != null) 
+            {
+                conditions.add("name LIKE ?");
+            }
+            if (cursor != null) 
+            {
+                conditions.add(cursor.seekPredicate(descending));
+            }
+            String sql = "SELECT id, name FROM INGREDIENT"
+                    + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                    + " ORDER BY " + column + " " + dir + ("id".equals(column) ? "" : ", id " + dir)
+                    + " LIMIT ?";
+
+            PreparedStatement ps = con.prepareStatement(sql);
+            int index = term == null ? 1 : bindParameters(ps, "%" + term + "%");
+            if (cursor != null) 
+            {
+                index = cursor.bind(ps, index);
+            }
+            ps.setInt(index, pageOptions.getPageSize() + 1);
+            List<Ingredient> ingredients = mapRows(ps.executeQuery());
+
+            String nextCursor = null;
+            if (ingredients.size() > pageOptions.getPageSize()) 
+            {
+                ingredients.remove(ingredients.size() - 1);
+                Ingredient last = ingredients.get(ingredients.size() - 1);
+                String value = "id".equals(column) ? String.valueOf(last.getId()) : last.getName();
+                nextCursor = new PageCursor(column, value, last.getId()).encode();
+            }
+            Page<Ingredient> page = new Page<>(0, pageOptions.getPageSize(), -1, -1, ingredients);
+            page.setNextCursor(nextCursor);
+            return page;
+        } 
+        catch (SQLException e) 
+        {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Fetches one page of Ingredient objects by running the given query with a LIMIT/OFFSET window.
+     * The total number of matching rows comes from the count query, which is skipped when a
+     * partially filled page already reveals it.
+     *
+     * @param con the connection to run both queries on.
+     * @param sql the ordered query selecting Ingredient rows, without a LIMIT clause.
+     * @param countSql the query counting every row that sql can return.
      * @param pageOptions options for pagination and sorting.
+     * @param params the string parameters bound, in order, to both queries.
      * @return a Page of Ingredient objects containing the paginated results.
-     * @throws SQLException if an error occurs while accessing the ResultSet.
+     * @throws SQLException if an error occurs while running either query.
      */
-    private Page<Ingredient> pageResults(ResultSet resultSet, PageOptions pageOptions) throws SQLException 
+    private Page<Ingredient> pageResults(Connection con, String sql, String countSql, PageOptions pageOptions, String... params) throws SQLException 
     {
-        List<Ingredient> ingredients = mapRows(resultSet);
-        int offset = (pageOptions.getPageNumber() - 1) * pageOptions.getPageSize();
-        int limit = offset + pageOptions.getPageSize();
-        List<Ingredient> subList = ingredients.subList(offset, limit);
-        return new Page<>(pageOptions.getPageNumber(), pageOptions.getPageSize(),
-                (int) Math.ceil(ingredients.size() / ((float) pageOptions.getPageSize())), ingredients.size(), subList);
+        int pageSize = pageOptions.getPageSize();
+        int offset = Math.max(0, (pageOptions.getPageNumber() - 1) * pageSize);
+
+        PreparedStatement ps = con.prepareStatement(sql + " LIMIT ? OFFSET ?");
+        int index = bindParameters(ps, params);
+        ps.setInt(index, pageSize);
+        ps.setInt(index + 1, offset);
+        List<Ingredient> ingredients = mapRows(ps.executeQuery());
+
+        int totalElements = ingredients.size() < pageSize && (offset == 0 || !ingredients.isEmpty())
+                ? offset + ingredients.size()
+                : countRows(con, countSql, params);
+        return new Page<>(pageOptions.getPageNumber(), pageSize,
+                (int) Math.ceil(totalElements / ((float) pageSize)), totalElements, ingredients);
     }
-}
 
+    /**
+     * Runs a COUNT query and returns its single value.
+     *
+     * @param con the connection to run the query on.
+     * @param countSql the query to run.
+     * @param params the string parameters bound, in order, to the query.
+     * @return the count, or 0 if the query returned no row.
+     * @throws SQLException if an error occurs while running the query.
+     */
+    private int countRows(Connection con, String countSql, String... params) throws SQLException 
+    {
+        PreparedStatement ps = con.prepareStatement(countSql);
+        bindParameters(ps, params);
+        ResultSet rs = ps.executeQuery();
+        return rs.next() ? rs.getInt(1) : 0;
+    }
+
+    /**
+     * Binds string parameters to a statement starting at the first placeholder.
+     *
+     * @param ps the statement to bind to.
+     * @param params the values to bind, in order.
+     * @return the index of the next unbound placeholder.
+     * @throws SQLException if a parameter cannot be bound.
+     */
+    private int bindParameters(PreparedStatement ps, String... params) throws SQLException 
+    {
+        int index = 1;
+        for (String param : params) 
+        {
+            ps.setString(index++, param);
+        }
+        return index;
+    }
+}
 
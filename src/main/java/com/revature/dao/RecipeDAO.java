@@ -1,18 +1,27 @@
 package com.revature.dao;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import com.revature.util.BatchConsumer;
 import com.revature.util.ConnectionUtil;
 import com.revature.util.Page;
+import com.revature.util.PageCursor;
 import com.revature.util.PageOptions;
 import com.revature.model.Chef;
 import com.revature.model.Ingredient;
 import com.revature.model.Recipe;
+import com.revature.model.RecipeIngredient;
 import java.sql.Statement;
 
 
@@ -27,6 +36,14 @@ import java.sql.Statement;
 public class RecipeDAO 
 {
 
+    /** The largest number of recipe ids bound into a single IN-list by {@link #loadIngredients(List)}. */
+    private static final int IN_LIST_CHUNK_SIZE = 500;
+
+    /**
+     * The number of rows fetched and handed on at a time when streaming recipes.
+     */
+    private static final int STREAM_BATCH_SIZE = 100;
+
     /**
 	 * DAO for managing Chef entities, used for retrieving chef details associated with recipes.
 	 */
@@ -75,16 +92,7 @@ public class RecipeDAO
 
             ResultSet rs=ps.executeQuery(sql);
 
-            List<Recipe> rep=new ArrayList<>();
-
-            while(rs.next())
-            {
-                int chefid=rs.getInt("chef_id");
-				Chef chef=chefDAO.getChefById(chefid);
-				Recipe obj=new Recipe(rs.getInt("id"),rs.getString("name"),rs.getString("instructions"),chef);
-                rep.add(obj);
-            }
-            return rep;    
+            return mapRows(con, rs);
         } 
         catch (SQLException e) 
         {
@@ -93,6 +101,195 @@ public class RecipeDAO
         return null;
     }
 
+    /**
+     * Streams every recipe, or every recipe whose name contains a term, to a consumer in batches, in id order,
+     * without their ingredients.
+     *
+     * @param term the search term to filter recipes by, or null for all recipes
+     * @param consumer receives the recipes a batch at a time
+     * @return the number of recipes streamed, or -1 if the query failed
+     * @throws IOException if the consumer fails to write a batch
+     * @see #streamRecipes(String, boolean, BatchConsumer)
+     */
+
+    public int streamRecipes(String term, BatchConsumer<Recipe> consumer) throws IOException
+    {
+        return streamRecipes(term, false, consumer);
+    }
+
+    /**
+     * Streams every recipe, or every recipe whose name contains a term, to a consumer in batches, in id order.
+     * Rows are read from the open result set with a fetch size of one batch, and each batch's authors, and
+     * optionally its ingredients, are resolved with a single lookup each, so memory use stays constant however
+     * many recipes there are. The connection is held until the last batch has been consumed, and every lookup
+     * runs on it, so a stream occupies exactly one pooled connection however slowly its consumer writes.
+     *
+     * @param term the search term to filter recipes by, or null for all recipes
+     * @param withIngredients whether to load each batch's ingredients before handing it on
+     * @param consumer receives the recipes a batch at a time
+     * @return the number of recipes streamed, or -1 if the query failed
+     * @throws IOException if the consumer fails to write a batch
+     */
+
+    public int streamRecipes(String term, boolean withIngredients, BatchConsumer<Recipe> consumer) throws IOException
+    {
+        try (Connection con = connectionUtil.getConnection())
+        {
+            String sql = term == null
+                    ? "SELECT * FROM RECIPE ORDER BY id"
+                    : "SELECT * FROM RECIPE WHERE name LIKE ? ORDER BY id";
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(STREAM_BATCH_SIZE);
+            if (term != null)
+            {
+                ps.setString(1, "%" + term + "%");
+            }
+
+            ResultSet rs = ps.executeQuery();
+
+            int count = 0;
+            List<Recipe> batch = new ArrayList<>(STREAM_BATCH_SIZE);
+            List<Integer> chefIds = new ArrayList<>(STREAM_BATCH_SIZE);
+            while (rs.next())
+            {
+                batch.add(new Recipe(rs.getInt("id"), rs.getString("name"), rs.getString("instructions"), null));
+                chefIds.add(rs.getInt("chef_id"));
+                if (batch.size() == STREAM_BATCH_SIZE)
+                {
+                    setAuthors(con, batch, chefIds);
+                    if (withIngredients)
+                    {
+                        loadIngredients(con, batch);
+                    }
+                    consumer.accept(batch);
+                    count += batch.size();
+                    batch = new ArrayList<>(STREAM_BATCH_SIZE);
+                    chefIds.clear();
+                }
+            }
+            if (!batch.isEmpty())
+            {
+                setAuthors(con, batch, chefIds);
+                if (withIngredients)
+                {
+                    loadIngredients(con, batch);
+                }
+                consumer.accept(batch);
+                count += batch.size();
+            }
+            return count;
+        }
+        catch (SQLException e)
+        {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * Streams every recipe with its author and ingredients to a consumer in batches, for bulk export. Rather
+     * than looking authors and ingredients up per batch, three cursors are opened at once - recipes, chefs and
+     * recipe ingredients - each sorted by author and then recipe id, and merged in a single forward pass.
+     * Recipes are therefore handed on ordered by author id (recipes without an author first) and then by id.
+     * Memory use is bounded by one batch whatever the size of the catalog. Authors are exported without their
+     * passwords.
+     *
+     * @param consumer receives the fully populated recipes a batch at a time
+     * @return the number of recipes exported, or -1 if the query failed
+     * @throws IOException if the consumer fails to write a batch
+     */
+
+    public int exportRecipes(BatchConsumer<Recipe> consumer) throws IOException
+    {
+        try (Connection con = connectionUtil.getConnection())
+        {
+            // A missing author sorts as chef 0, before every real chef id.
+            PreparedStatement recipePs = con.prepareStatement("SELECT id, name, instructions, COALESCE(chef_id, 0) AS chef_key"
+                    + " FROM RECIPE ORDER BY chef_key, id");
+            PreparedStatement chefPs = con.prepareStatement("SELECT id, username, email, is_admin FROM CHEF ORDER BY id");
+            PreparedStatement ingredientPs = con.prepareStatement("SELECT COALESCE(r.chef_id, 0) AS chef_key, ri.recipe_id,"
+                    + " i.id, i.name, ri.vol, ri.unit, ri.is_metric FROM RECIPE_INGREDIENT ri"
+                    + " JOIN RECIPE r ON r.id = ri.recipe_id"
+                    + " JOIN INGREDIENT i ON i.id = ri.ingredient_id"
+                    + " ORDER BY chef_key, ri.recipe_id, ri.id");
+            recipePs.setFetchSize(STREAM_BATCH_SIZE);
+            chefPs.setFetchSize(STREAM_BATCH_SIZE);
+            ingredientPs.setFetchSize(STREAM_BATCH_SIZE);
+
+            ResultSet recipes = recipePs.executeQuery();
+            ResultSet chefs = chefPs.executeQuery();
+            ResultSet ingredients = ingredientPs.executeQuery();
+
+            boolean moreChefs = chefs.next();
+            boolean moreIngredients = ingredients.next();
+            Chef author = null;
+
+            int count = 0;
+            List<Recipe> batch = new ArrayList<>(STREAM_BATCH_SIZE);
+            while (recipes.next())
+            {
+                int chefKey = recipes.getInt("chef_key");
+                int recipeId = recipes.getInt("id");
+
+                while (moreChefs && chefs.getInt("id") < chefKey)
+                {
+                    moreChefs = chefs.next();
+                }
+                if (chefKey == 0 || !moreChefs || chefs.getInt("id") != chefKey)
+                {
+                    author = null;
+                }
+                else if (author == null || author.getId() != chefKey)
+                {
+                    author = new Chef(chefKey, chefs.getString("username"), chefs.getString("email"), null,
+                            chefs.getBoolean("is_admin"));
+                }
+
+                List<RecipeIngredient> recipeIngredients = new ArrayList<>();
+                while (moreIngredients && compareKeys(ingredients.getInt("chef_key"), ingredients.getInt("recipe_id"), chefKey, recipeId) < 0)
+                {
+                    moreIngredients = ingredients.next();
+                }
+                while (moreIngredients && ingredients.getInt("chef_key") == chefKey && ingredients.getInt("recipe_id") == recipeId)
+                {
+                    recipeIngredients.add(new RecipeIngredient(ingredients.getInt("id"), ingredients.getString("name"),
+                            ingredients.getDouble("vol"), ingredients.getString("unit"), ingredients.getBoolean("is_metric")));
+                    moreIngredients = ingredients.next();
+                }
+
+                Recipe recipe = new Recipe(recipeId, recipes.getString("name"), recipes.getString("instructions"), author);
+                recipe.setIngredients(recipeIngredients);
+                batch.add(recipe);
+                if (batch.size() == STREAM_BATCH_SIZE)
+                {
+                    consumer.accept(batch);
+                    count += batch.size();
+                    batch = new ArrayList<>(STREAM_BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty())
+            {
+                consumer.accept(batch);
+                count += batch.size();
+            }
+            return count;
+        }
+        catch (SQLException e)
+        {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * Orders (chef, recipe) keys the way the export cursors are sorted.
+     */
+    private static int compareKeys(int chefKey, int recipeId, int otherChefKey, int otherRecipeId)
+    {
+        int byChef = Integer.compare(chefKey, otherChefKey);
+        return byChef != 0 ? byChef : Integer.compare(recipeId, otherRecipeId);
+    }
+
     /**
      * TODO: Retrieves a paginated list of all recipes from the database.
      * 
@@ -105,10 +302,9 @@ public class RecipeDAO
         try (Connection con = connectionUtil.getConnection()) 
         {
             String sql = "SELECT * FROM RECIPE ORDER BY id";
-            PreparedStatement ps=con.prepareStatement(sql);
-            ResultSet rs = ps.executeQuery();
+            String countSql = "SELECT COUNT(*) FROM RECIPE";
 
-            return pageResults(rs, pageOptions);
+            return pageResults(con, sql, countSql, pageOptions);
         } 
         catch (SQLException e) 
         {
@@ -128,8 +324,6 @@ public class RecipeDAO
     {
         try(Connection con=connectionUtil.getConnection()) 
         {
-            List<Recipe> rep=new ArrayList<>();
-
             String sql="Select * from RECIPE where name like ? order by id";
 
             PreparedStatement ps=con.prepareStatement(sql);
@@ -138,16 +332,7 @@ public class RecipeDAO
 
             ResultSet rs=ps.executeQuery();
 
-            while(rs.next())
-            {
-                
-                int chefid=rs.getInt("chef_id");
-				Chef chef=chefDAO.getChefById(chefid);
-				Recipe obj=new Recipe(rs.getInt("id"),rs.getString("name"),rs.getString("instructions"),chef);
-                rep.add(obj);
-                
-            }
-            return rep;
+            return mapRows(con, rs);
         } 
         catch (SQLException e) 
         {
@@ -172,11 +357,9 @@ public class RecipeDAO
             String dir = pageOptions.getSortDirection();
 
             String sql = "select id, name, instructions, chef_id from RECIPE where name LIKE ? order by "+sortBy+" "+dir;
-                   
-            PreparedStatement ps = con.prepareStatement(sql);
-            ps.setString(1, "%" + term + "%");
-            ResultSet rs = ps.executeQuery();
-            return pageResults(rs, pageOptions);
+            String countSql = "select count(*) from RECIPE where name LIKE ?";
+
+            return pageResults(con, sql, countSql, pageOptions, "%" + term + "%");
         } 
         catch (SQLException e) 
         {
@@ -185,6 +368,67 @@ public class RecipeDAO
         }
     }
 
+    /**
+     * Retrieves one page of recipes by keyset pagination, optionally filtered by a search term. Rather than
+     * skipping rows with OFFSET, the query seeks past the cursor in PageOptions, so deep pages cost the same
+     * as the first one. The total count is not computed in this mode and is reported as -1.
+     *
+     * @param term the search term to filter recipes by, or null for all recipes
+     * @param pageOptions the page size, sort column ("id" or "name"), direction and cursor to continue from
+     * @return a page of Recipe objects whose nextCursor is set if more recipes follow
+     */
+
+    public Page<Recipe> searchRecipesAfter(String term, PageOptions pageOptions)
+    {
+        try (Connection con = connectionUtil.getConnection())
+        {
+            String column = PageCursor.sortColumn(pageOptions.getSortBy());
+            boolean descending = "DESC".equalsIgnoreCase(pageOptions.getSortDirection());
+            String dir = descending ? "DESC" : "ASC";
+            PageCursor cursor = pageOptions.getCursor();
+
+            List<String> conditions = new ArrayList<>();
+            if (term != null)
+            {
+                conditions.add("name LIKE ?");
+            }
+            if (cursor != null)
+            {
+                conditions.add(cursor.seekPredicate(descending));
+            }
+            String sql = "select id, name, instructions, chef_id from RECIPE"
+                    + (conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions))
+                    + " order by " + column + " " + dir + ("id".equals(column) ? "" : ", id " + dir)
+                    + " LIMIT ?";
+
+            PreparedStatement ps = con.prepareStatement(sql);
+            int index = term == null ? 1 : bindParameters(ps, "%" + term + "%");
+            if (cursor != null)
+            {
+                index = cursor.bind(ps, index);
+            }
+            ps.setInt(index, pageOptions.getPageSize() + 1);
+            List<Recipe> recipes = mapRows(con, ps.executeQuery());
+
+            String nextCursor = null;
+            if (recipes.size() > pageOptions.getPageSize())
+            {
+                recipes.remove(recipes.size() - 1);
+                Recipe last = recipes.get(recipes.size() - 1);
+                String value = "id".equals(column) ? String.valueOf(last.getId()) : last.getName();
+                nextCursor = new PageCursor(column, value, last.getId()).encode();
+            }
+            Page<Recipe> page = new Page<>(0, pageOptions.getPageSize(), -1, -1, recipes);
+            page.setNextCursor(nextCursor);
+            return page;
+        }
+        catch (SQLException e)
+        {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
     /**
      * TODO: Retrieves a specific recipe by its ID.
      * 
@@ -206,10 +450,7 @@ public class RecipeDAO
 
             if(rs.next())
             {
-                int chefid=rs.getInt("chef_id");
-				Chef chef=chefDAO.getChefById(chefid);
-				Recipe obj=new Recipe(rs.getInt("id"),rs.getString("name"),rs.getString("instructions"),chef);
-                return obj;
+                return mapSingleRow(con, rs);
             }
         } 
         catch(SQLException e) 
@@ -220,6 +461,162 @@ public class RecipeDAO
     }
         
 
+    /**
+     * Populates the ingredients of every given recipe from RECIPE_INGREDIENT, joined with INGREDIENT for the
+     * ingredient names. All recipes are loaded with one IN-list query per chunk of recipe ids, so expanding a
+     * page of recipes costs a constant number of queries rather than one query per recipe. Recipes without
+     * ingredients receive an empty list.
+     *
+     * @param recipes the recipes to populate; each one's ingredients are replaced
+     */
+
+    public void loadIngredients(List<Recipe> recipes)
+    {
+        if (recipes == null || recipes.isEmpty())
+            return;
+
+        try (Connection con = connectionUtil.getConnection())
+        {
+            loadIngredients(con, recipes);
+        }
+        catch (SQLException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Populates the ingredients of every given recipe as above, on a connection the caller already holds.
+     * Recipes are only changed once every query has succeeded.
+     *
+     * @param con the connection to run the queries on
+     * @param recipes the recipes to populate; each one's ingredients are replaced
+     * @throws SQLException if an error occurs while running a query
+     */
+
+    private void loadIngredients(Connection con, List<Recipe> recipes) throws SQLException
+    {
+        Map<Integer, List<RecipeIngredient>> ingredientsByRecipe = new HashMap<>();
+        for (Recipe recipe : recipes)
+        {
+            ingredientsByRecipe.put(recipe.getId(), new ArrayList<>());
+        }
+        List<Integer> recipeIds = new ArrayList<>(ingredientsByRecipe.keySet());
+
+        for (int start = 0; start < recipeIds.size(); start += IN_LIST_CHUNK_SIZE)
+        {
+            List<Integer> chunk = recipeIds.subList(start, Math.min(start + IN_LIST_CHUNK_SIZE, recipeIds.size()));
+
+            String sql = "select ri.recipe_id, i.id, i.name, ri.vol, ri.unit, ri.is_metric from RECIPE_INGREDIENT ri"
+                    + " join INGREDIENT i on i.id = ri.ingredient_id"
+                    + " where ri.recipe_id in (" + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")"
+                    + " order by ri.recipe_id, ri.id";
+            PreparedStatement ps = con.prepareStatement(sql);
+
+            for (int i = 0; i < chunk.size(); i++)
+            {
+                ps.setInt(i + 1, chunk.get(i));
+            }
+
+            ResultSet rs = ps.executeQuery();
+
+            while (rs.next())
+            {
+                ingredientsByRecipe.get(rs.getInt("recipe_id")).add(new RecipeIngredient(rs.getInt("id"),
+                        rs.getString("name"), rs.getDouble("vol"), rs.getString("unit"), rs.getBoolean("is_metric")));
+            }
+        }
+
+        for (Recipe recipe : recipes)
+        {
+            recipe.setIngredients(ingredientsByRecipe.get(recipe.getId()));
+        }
+    }
+
+    /**
+     * Retrieves the recipes with the given ids, using one IN-list query per chunk of ids. Ids with no
+     * matching recipe are skipped.
+     *
+     * @param ids the ids of the recipes to retrieve
+     * @return the matching recipes, ordered by id
+     */
+
+    public List<Recipe> getRecipesByIds(int[] ids)
+    {
+        List<Recipe> recipes = new ArrayList<>();
+        if (ids == null || ids.length == 0)
+            return recipes;
+
+        try (Connection con = connectionUtil.getConnection())
+        {
+            for (int start = 0; start < ids.length; start += IN_LIST_CHUNK_SIZE)
+            {
+                int end = Math.min(start + IN_LIST_CHUNK_SIZE, ids.length);
+
+                String sql = "select * from RECIPE where id in ("
+                        + String.join(",", Collections.nCopies(end - start, "?")) + ") order by id";
+                PreparedStatement ps = con.prepareStatement(sql);
+
+                for (int i = start; i < end; i++)
+                {
+                    ps.setInt(i - start + 1, ids[i]);
+                }
+
+                recipes.addAll(mapRows(con, ps.executeQuery()));
+            }
+        }
+        catch (SQLException e)
+        {
+            e.printStackTrace();
+            return null;
+        }
+        recipes.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+        return recipes;
+    }
+
+    /**
+     * Reads all of RECIPE_INGREDIENT in one query, grouped by ingredient. This is what the in-memory
+     * ingredient index is built from.
+     *
+     * @return each ingredient that some recipe uses, mapped to the ids of those recipes in ascending order,
+     *         or null if the query fails
+     */
+
+    public Map<Ingredient, List<Integer>> getRecipeIdsByIngredient()
+    {
+        Map<Ingredient, List<Integer>> recipeIds = new LinkedHashMap<>();
+
+        try (Connection con = connectionUtil.getConnection())
+        {
+            String sql = "select ri.ingredient_id, i.name, ri.recipe_id from RECIPE_INGREDIENT ri"
+                    + " join INGREDIENT i on i.id = ri.ingredient_id"
+                    + " order by ri.ingredient_id, ri.recipe_id";
+            PreparedStatement ps = con.prepareStatement(sql);
+
+            ResultSet rs = ps.executeQuery();
+
+            Ingredient current = null;
+            List<Integer> ids = null;
+            while (rs.next())
+            {
+                int ingredientId = rs.getInt("ingredient_id");
+                if (current == null || current.getId() != ingredientId)
+                {
+                    current = new Ingredient(ingredientId, rs.getString("name"));
+                    ids = new ArrayList<>();
+                    recipeIds.put(current, ids);
+                }
+                ids.add(rs.getInt("recipe_id"));
+            }
+        }
+        catch (SQLException e)
+        {
+            e.printStackTrace();
+            return null;
+        }
+        return recipeIds;
+    }
+
     /**
      * TODO: Creates a new recipe in the database.
      * 
@@ -261,6 +658,106 @@ public class RecipeDAO
         return 0;
     }
 
+    /**
+     * Creates many recipes, with their ingredients, in one transaction: the recipes are inserted as one JDBC
+     * batch and their RECIPE_INGREDIENT rows as a second, so the cost per recipe is a fraction of a round trip
+     * rather than a connection and statement each. Either every recipe is created or none is.
+     *
+     * Each recipe's ingredients must already carry the ids of existing ingredients. A recipe without an author,
+     * or whose author has id 0, is stored without one.
+     *
+     * @param recipes the recipes to create; on success each one's id is set to its generated id
+     * @return the number of recipes created, or -1 if the batch failed and was rolled back
+     */
+
+    public int createRecipes(List<Recipe> recipes)
+    {
+        if (recipes.isEmpty())
+        {
+            return 0;
+        }
+
+        try (Connection con = connectionUtil.getConnection())
+        {
+            con.setAutoCommit(false);
+            try
+            {
+                PreparedStatement recipePs = con.prepareStatement("insert into RECIPE(name, instructions, chef_id) values(?,?,?)",
+                        Statement.RETURN_GENERATED_KEYS);
+                for (Recipe recipe : recipes)
+                {
+                    recipePs.setString(1, recipe.getName());
+                    recipePs.setString(2, recipe.getInstructions());
+                    if (recipe.getAuthor() == null || recipe.getAuthor().getId() == 0)
+                    {
+                        recipePs.setNull(3, Types.INTEGER);
+                    }
+                    else
+                    {
+                        recipePs.setInt(3, recipe.getAuthor().getId());
+                    }
+                    recipePs.addBatch();
+                }
+                recipePs.executeBatch();
+
+                int[] ids = new int[recipes.size()];
+                int generated = 0;
+                ResultSet keys = recipePs.getGeneratedKeys();
+                while (keys.next() && generated < ids.length)
+                {
+                    ids[generated++] = keys.getInt(1);
+                }
+                if (generated != ids.length)
+                {
+                    throw new SQLException("Expected " + ids.length + " generated keys but got " + generated);
+                }
+
+                PreparedStatement ingredientPs = con.prepareStatement(
+                        "insert into RECIPE_INGREDIENT(recipe_id, ingredient_id, vol, unit, is_metric) values(?,?,?,?,?)");
+                int ingredientRows = 0;
+                for (int i = 0; i < ids.length; i++)
+                {
+                    List<RecipeIngredient> ingredients = recipes.get(i).getIngredients();
+                    if (ingredients == null)
+                    {
+                        continue;
+                    }
+                    for (RecipeIngredient ingredient : ingredients)
+                    {
+                        ingredientPs.setInt(1, ids[i]);
+                        ingredientPs.setInt(2, ingredient.getId());
+                        ingredientPs.setDouble(3, ingredient.getVolume());
+                        ingredientPs.setString(4, ingredient.getUnit());
+                        ingredientPs.setBoolean(5, ingredient.isMetric());
+                        ingredientPs.addBatch();
+                        ingredientRows++;
+                    }
+                }
+                if (ingredientRows > 0)
+                {
+                    ingredientPs.executeBatch();
+                }
+                con.commit();
+
+                for (int i = 0; i < ids.length; i++)
+                {
+                    recipes.get(i).setId(ids[i]);
+                }
+                return ids.length;
+            }
+            catch (SQLException e)
+            {
+                con.rollback();
+                throw e;
+            }
+        }
+        catch (SQLException e)
+        {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
     /**
      * TODO: Updates an existing recipe's instructions and chef_id in the database.
      * 
@@ -324,79 +821,123 @@ public class RecipeDAO
 	 * Maps a single row from the ResultSet to a Recipe object.
 	 * This method extracts the recipe details such as ID, name, instructions,
 	 * and associated chef from the ResultSet and constructs a Recipe instance.
+	 * The chef is looked up on the connection the row was read from, so mapping
+	 * never waits on the pool for a second connection.
 	 *
+	 * @param con the connection the ResultSet was read from
 	 * @param set the ResultSet containing the recipe data
 	 * @return a Recipe object representing the mapped row
 	 * @throws SQLException if there is an error accessing the ResultSet
 	 */
-	private Recipe mapSingleRow(ResultSet set) throws SQLException 
+	private Recipe mapSingleRow(Connection con, ResultSet set) throws SQLException 
     {
 		int id = set.getInt("id");
 		String name = set.getString("name");
 		String instructions = set.getString("instructions");
-		Chef author = chefDAO.getChefById(set.getInt("chef_id"));
+		Chef author = chefDAO.getChefById(con, set.getInt("chef_id"));
 		return new Recipe(id, name, instructions, author);
 	}
 
 	/**
 	 * Maps multiple rows from a ResultSet to a list of Recipe objects.
-	 * This method iterates through the ResultSet and calls mapSingleRow
-	 * for each row, adding the resulting Recipe objects to a list.
+	 * This method iterates through the ResultSet collecting each recipe and its
+	 * chef id, then resolves every author with a single batched ChefDAO lookup,
+	 * so the number of queries does not grow with the number of rows.
 	 *
+	 * @param con the connection the ResultSet was read from, reused for the author lookup
 	 * @param set the ResultSet containing multiple recipe rows
 	 * @return a list of Recipe objects representing the mapped rows
 	 * @throws SQLException if there is an error accessing the ResultSet
 	 */
-	private List<Recipe> mapRows(ResultSet set) throws SQLException 
+	private List<Recipe> mapRows(Connection con, ResultSet set) throws SQLException 
     {
 		List<Recipe> recipes = new ArrayList<>();
+		List<Integer> chefIds = new ArrayList<>();
 		while (set.next()) 
         {
-			recipes.add(mapSingleRow(set));
+			recipes.add(new Recipe(set.getInt("id"), set.getString("name"), set.getString("instructions"), null));
+			chefIds.add(set.getInt("chef_id"));
 		}
+		setAuthors(con, recipes, chefIds);
 		return recipes;
 	}
 
 	/**
-	 * Pages the results from a ResultSet into a Page object for the Recipe entity.
-	 * This method processes the ResultSet to retrieve recipes, then slices the list
-	 * based on the provided pagination options, and returns a Page object
-	 * containing
-	 * the paginated results.
+	 * Sets each recipe's author from the chef id at the same position, looking all of them up at once
+	 * on the caller's connection rather than borrowing another one from the pool.
+	 */
+	private void setAuthors(Connection con, List<Recipe> recipes, List<Integer> chefIds) throws SQLException
+    {
+		Map<Integer, Chef> authors = chefDAO.getChefsByIds(con, chefIds);
+		for (int i = 0; i < recipes.size(); i++) 
+        {
+			recipes.get(i).setAuthor(authors.get(chefIds.get(i)));
+		}
+	}
+
+	/**
+	 * Fetches one page of Recipe objects by running the given query with a LIMIT/OFFSET window,
+	 * so only the requested rows are read and mapped. The total number of matching rows comes
+	 * from the count query, which is skipped when a partially filled page already reveals it.
 	 *
-	 * @param set the ResultSet containing recipe data
+	 * @param con the connection to run both queries on
+	 * @param sql the ordered query selecting recipe rows, without a LIMIT clause
+	 * @param countSql the query counting every row that sql can return
 	 * @param pageOptions the PageOptions object containing pagination details
+	 * @param params the string parameters bound, in order, to both queries
 	 * @return a Page object containing the paginated list of Recipe objects
-	 * @throws SQLException if there is an error accessing the ResultSet
+	 * @throws SQLException if there is an error running either query
 	 */
-	private Page<Recipe> pageResults(ResultSet set, PageOptions pageOptions) throws SQLException
+	private Page<Recipe> pageResults(Connection con, String sql, String countSql, PageOptions pageOptions, String... params) throws SQLException
     {
-		List<Recipe> recipes = mapRows(set);
-		int offset = (pageOptions.getPageNumber() - 1) * pageOptions.getPageSize();
-		int limit = offset + pageOptions.getPageSize();
-		List<Recipe> slicedList = sliceList(recipes, offset, limit);
-		return new Page<>(pageOptions.getPageNumber(), pageOptions.getPageSize(),
-				recipes.size() / pageOptions.getPageSize(), recipes.size(), slicedList);
+		int pageSize = pageOptions.getPageSize();
+		int offset = Math.max(0, (pageOptions.getPageNumber() - 1) * pageSize);
+
+		PreparedStatement ps = con.prepareStatement(sql + " LIMIT ? OFFSET ?");
+		int index = bindParameters(ps, params);
+		ps.setInt(index, pageSize);
+		ps.setInt(index + 1, offset);
+		List<Recipe> recipes = mapRows(con, ps.executeQuery());
+
+		int totalElements = recipes.size() < pageSize && (offset == 0 || !recipes.isEmpty())
+				? offset + recipes.size()
+				: countRows(con, countSql, params);
+		return new Page<>(pageOptions.getPageNumber(), pageSize,
+				totalElements / pageSize, totalElements, recipes);
 	}
 
 	/**
-	 * Slices a list of Recipe objects from a specified start index to an end index.
-	 * This method creates a sublist of the provided list, which can be used for
-	 * pagination.
+	 * Runs a COUNT query and returns its single value.
 	 *
-	 * @param list  the original list of Recipe objects
-	 * @param start the starting index (inclusive) for the slice
-	 * @param end   the ending index (exclusive) for the slice
-	 * @return a list of Recipe objects representing the sliced portion
+	 * @param con the connection to run the query on
+	 * @param countSql the query to run
+	 * @param params the string parameters bound, in order, to the query
+	 * @return the count, or 0 if the query returned no row
+	 * @throws SQLException if there is an error running the query
 	 */
-	private List<Recipe> sliceList(List<Recipe> list, int start, int end) 
+	private int countRows(Connection con, String countSql, String... params) throws SQLException
     {
-		List<Recipe> sliced = new ArrayList<>();
-		for (int i = start; i < end; i++) 
+		PreparedStatement ps = con.prepareStatement(countSql);
+		bindParameters(ps, params);
+		ResultSet rs = ps.executeQuery();
+		return rs.next() ? rs.getInt(1) : 0;
+	}
+
+	/**
+	 * Binds string parameters to a statement starting at the first placeholder.
+	 *
+	 * @param ps the statement to bind to
+	 * @param params the values to bind, in order
+	 * @return the index of the next unbound placeholder
+	 * @throws SQLException if a parameter cannot be bound
+	 */
+	private int bindParameters(PreparedStatement ps, String... params) throws SQLException
+    {
+		int index = 1;
+		for (String param : params) 
         {
-			sliced.add(list.get(i));
+			ps.setString(index++, param);
 		}
-		return sliced;
+		return index;
 	}
 }
-
@@ -1,7 +1,7 @@
 package com.revature.model;
 
 /**
- The RecipeIngredient class represents the relationships between ingredients and associated recipes. It stores the id and name of the relationship, as well as the volume and unit. This class provides getter and setter methods to access and modify the fields.
+ The RecipeIngredient class represents the relationships between ingredients and associated recipes. It stores the id and name of the relationship, as well as the volume, unit and whether the unit is metric. This class provides getter and setter methods to access and modify the fields.
 
 You do not need to edit this class.
 
@@ -18,6 +18,8 @@ public class RecipeIngredient {
 	private double volume;
 	/** The measuring unit used for recipe-ingredient. */
 	private String unit;
+	/** Whether the measuring unit is metric. */
+	private boolean metric;
 
 	// constructors
 	public RecipeIngredient() {
@@ -39,6 +41,11 @@ public class RecipeIngredient {
 		this.volume = volume;
 		this.unit = unit;
 	}
+
+	public RecipeIngredient(int id, String name, double volume, String unit, boolean metric) {
+		this(id, name, volume, unit);
+		this.metric = metric;
+	}
 	
 	// getters and setters
 	public int getId() {
@@ -73,6 +80,14 @@ public class RecipeIngredient {
 		this.unit = unit;
 	}
 
+	public boolean isMetric() {
+		return metric;
+	}
+
+	public void setMetric(boolean metric) {
+		this.metric = metric;
+	}
+
 	
 	
 }
\ No newline at end of file
@@ -1,11 +1,10 @@
 package com.revature.service;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import com.revature.model.Chef;
+import com.revature.util.ConfigUtil;
+import com.revature.util.SessionStore;
 
 
 /**
@@ -23,21 +22,26 @@ public class AuthenticationService
      * The service used for managing Chef objects and their operations.
      */
 
-    @SuppressWarnings("unused")
     private ChefService chefService;
 
-    /** A map that keeps track of currently logged in users, indexed by session token. */
-    public static Map<String, Chef> loggedInUsers = new HashMap<>();
+    /**
+     * A thread-safe store that keeps track of currently logged in users, indexed by session token. Sessions expire
+     * after "recipe.session.ttlMillis" without use, and at most "recipe.session.maxSessions" are held at once.
+     * The store is shared by every AuthenticationService in the process, so creating one logs nobody out.
+     */
+    public static final SessionStore loggedInUsers = new SessionStore(
+            ConfigUtil.getLong("recipe.session.ttlMillis", 30 * 60 * 1000),
+            ConfigUtil.getInt("recipe.session.maxSessions", 100_000),
+            ConfigUtil.getLong("recipe.session.sweepIntervalMillis", 60 * 1000));
 
     /**
-     * Constructs an AuthenticationService with the specified ChefService and a newly created HashMap for the LoggedInUsers.
+     * Constructs an AuthenticationService with the specified ChefService, sharing the existing loggedInUsers.
      *
      * @param chefService the ChefService to be used by this authentication service
      */
     public AuthenticationService(ChefService chefService) 
     {
         this.chefService = chefService;
-        loggedInUsers = new HashMap<>();
     }
 
     /**
@@ -53,16 +57,13 @@ public class AuthenticationService
         
         else
         {
-            List<Chef> dbchefs=chefService.searchChefs(null);
+            Chef x=chefService.findChefByUsername(chef.getUsername()).orElse(null);
 
-            for(Chef x:dbchefs)
+            if(x!=null && x.getPassword().equals(chef.getPassword()))
             {
-                if(x.getUsername().equals(chef.getUsername()) && x.getPassword().equals(chef.getPassword()))
-                {
-                    String token = UUID.randomUUID().toString();
-                    loggedInUsers.put(token,x);
-                    return token;
-                }
+                String token = UUID.randomUUID().toString();
+                loggedInUsers.put(token,x);
+                return token;
             }
             return null;
         }
@@ -47,10 +47,25 @@ public class ChefService
         return Optional.ofNullable(chef);
     }
 
+    /**
+     * Finds a Chef by their username.
+     *
+     * @param username the username of the chef to be found
+     * @return an Optional containing the found Chef if present; 
+     *         an empty Optional if not found
+     */
+    public Optional<Chef> findChefByUsername(String username)
+    {
+        if(username==null)
+            return Optional.empty();
+
+        return Optional.ofNullable(chefDAO.getChefByUsername(username));
+    }
+
     /**
      * TODO: Saves a Chef entity. If the Chef's ID is zero, a new Chef is created and the `chef` parameter's ID is updated.
 	* 
-     * Otherwise, updates the existing Chef.
+     * Otherwise, updates the existing Chef and evicts it from the Chef cache.
      *
      * @param chef the Chef entity to be saved or updated
      */
@@ -66,6 +81,7 @@ public class ChefService
         else
         {
             chefDAO.updateChef(chef);
+            chefDAO.evictChef(id);
         }
         
     }
@@ -91,7 +107,7 @@ public class ChefService
     }
 
     /**
-     * TODO: Deletes a Chef based on their unique identifier, if they exist.
+     * TODO: Deletes a Chef based on their unique identifier, if they exist, and evicts them from the Chef cache.
      *
      * @param id the unique identifier of the Chef to be deleted
      */
@@ -102,6 +118,7 @@ public class ChefService
         if(chf!=null)
         {
             chefDAO.deleteChef(chf);
+            chefDAO.evictChef(id);
         }
     }
 
@@ -129,5 +146,20 @@ public class ChefService
             return chefDAO.searchChefsByTerm(term, pageOptions);
         }
     }
+
+    /**
+     * Searches for chefs whose username starts with a prefix, one page at a time, ordered by username.
+     * This uses the username index, unlike {@link #searchChefs(String, int, int, String, String)}, which
+     * matches the term anywhere in the username.
+     *
+     * @param prefix the start of the usernames to find
+     * @param page the page number to retrieve
+     * @param pageSize the number of chefs per page
+     * @return a Page containing the matching chefs
+     */
+    public Page<Chef> searchChefsByPrefix(String prefix, int page, int pageSize) 
+    {
+        return chefDAO.searchChefsByPrefix(prefix, new PageOptions(page, pageSize, "username", "asc"));
+    }
 }
 
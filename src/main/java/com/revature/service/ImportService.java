@@ -0,0 +1,338 @@
+package com.revature.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.revature.dao.IngredientDAO;
+import com.revature.dao.RecipeDAO;
+import com.revature.model.Chef;
+import com.revature.model.Ingredient;
+import com.revature.model.Recipe;
+import com.revature.model.RecipeIngredient;
+import com.revature.util.ConfigUtil;
+import com.revature.util.CsvFormatException;
+import com.revature.util.CsvReader;
+import com.revature.util.ImportReport;
+import com.revature.util.JsonUtil;
+
+/**
+ * The ImportService class loads recipes in bulk, far faster than creating them one request at a time. The
+ * input is read as a stream and cut into chunks of a configurable size; each chunk is written with batched
+ * inserts in its own transaction, so memory use is bounded by one chunk and a bad chunk does not undo the
+ * ones before it.
+ *
+ * Ingredients are named in the input. Names are resolved to ids through a map of every existing ingredient,
+ * read once per import; names not in the map are created in one batch per chunk and added to it.
+ *
+ * Two formats are accepted:
+ * <ul>
+ * <li>"ndjson": one recipe per line as JSON, in the shape GET /export/recipes writes. Ids are ignored; the
+ * author is taken from its id and each ingredient from its name, or its id when it has no name.</li>
+ * <li>"csv": a header row naming the columns "name", "instructions", "chef_id" and "ingredients", in any
+ * order, followed by one recipe per row. The ingredients column holds "name:volume:unit" entries separated
+ * by semicolons, with an optional ":metric" suffix on each.</li>
+ * </ul>
+ */
+public class ImportService {
+
+    /** The largest number of recipes allowed in one chunk. */
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    /** Reads the next recipe from the input. */
+    private interface RecipeSource {
+        /** @return the next recipe, or null at the end of the input */
+        Recipe next() throws IOException;
+    }
+
+    private final RecipeDAO recipeDAO;
+    private final IngredientDAO ingredientDAO;
+    private final RecipeService recipeService;
+    private final IngredientService ingredientService;
+    private final int defaultBatchSize;
+
+    /**
+     * Creates a service whose chunk size defaults to the "recipe.import.batchSize" setting (default 1000).
+     *
+     * @param recipeDAO the DAO recipes are written with
+     * @param ingredientDAO the DAO ingredients are read and created with
+     * @param recipeService the service whose indexes are refreshed after an import
+     * @param ingredientService the service whose indexes are refreshed after an import
+     */
+    public ImportService(RecipeDAO recipeDAO, IngredientDAO ingredientDAO, RecipeService recipeService,
+            IngredientService ingredientService) {
+        this(recipeDAO, ingredientDAO, recipeService, ingredientService,
+                ConfigUtil.getInt("recipe.import.batchSize", 1000));
+    }
+
+    /**
+     * @param defaultBatchSize the number of recipes per chunk when the caller does not choose one
+     */
+    public ImportService(RecipeDAO recipeDAO, IngredientDAO ingredientDAO, RecipeService recipeService,
+            IngredientService ingredientService, int defaultBatchSize) {
+        this.recipeDAO = recipeDAO;
+        this.ingredientDAO = ingredientDAO;
+        this.recipeService = recipeService;
+        this.ingredientService = ingredientService;
+        this.defaultBatchSize = defaultBatchSize;
+    }
+
+    /** @return the number of recipes per chunk when the caller does not choose one */
+    public int getDefaultBatchSize() {
+        return defaultBatchSize;
+    }
+
+    /**
+     * Imports recipes in chunks of the default size.
+     *
+     * @see #importRecipes(Reader, String, int)
+     */
+    public ImportReport importRecipes(Reader input, String format) throws IOException {
+        return importRecipes(input, format, defaultBatchSize);
+    }
+
+    /**
+     * Imports every recipe in the input. Malformed input stops the import with an error in the report;
+     * chunks committed before it remain, and the recipes read since the last chunk are discarded.
+     *
+     * @param input the recipes to import
+     * @param format "ndjson" or "csv"
+     * @param batchSize the number of recipes per chunk and transaction
+     * @return the outcome and throughput of the import, or null if the existing ingredients could not be read
+     *         and nothing was imported
+     * @throws IllegalArgumentException if the format is unknown, the batch size is out of range or a CSV header
+     *         is malformed or has no "name" column
+     * @throws IOException if the input cannot be read
+     */
+    public ImportReport importRecipes(Reader input, String format, int batchSize) throws IOException {
+        if (batchSize < 1 || batchSize > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("batchSize must be between 1 and " + MAX_BATCH_SIZE);
+        }
+        BufferedReader reader = new BufferedReader(input, 64 * 1024);
+        RecipeSource source;
+        if ("ndjson".equals(format)) {
+            source = ndjsonSource(reader);
+        } else if ("csv".equals(format)) {
+            source = csvSource(new CsvReader(reader));
+        } else {
+            throw new IllegalArgumentException("Unknown import format: " + format);
+        }
+
+        Map<String, Integer> ingredientIds = loadIngredientIds();
+        if (ingredientIds == null) {
+            return null;
+        }
+
+        ImportReport report = new ImportReport(format, batchSize);
+        long began = System.nanoTime();
+        try {
+
+            List<Recipe> chunk = new ArrayList<>(batchSize);
+            try {
+                for (Recipe recipe = source.next(); recipe != null; recipe = source.next()) {
+                    chunk.add(recipe);
+                    if (chunk.size() == batchSize) {
+                        writeChunk(chunk, ingredientIds, report);
+                        chunk = new ArrayList<>(batchSize);
+                    }
+                }
+                writeChunk(chunk, ingredientIds, report);
+            } catch (IllegalArgumentException e) {
+                report.setError(e.getMessage());
+            }
+            return report;
+        } finally {
+            report.setTotalNanos(System.nanoTime() - began);
+            if (report.getRecipesImported() > 0 || report.getIngredientsCreated() > 0) {
+                recipeService.invalidateIndexes();
+                ingredientService.invalidateIndexes();
+            }
+        }
+    }
+
+    /**
+     * Creates a chunk's unknown ingredients, then the chunk's recipes, and records the outcome.
+     */
+    private void writeChunk(List<Recipe> chunk, Map<String, Integer> ingredientIds, ImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        long began = System.nanoTime();
+
+        Set<String> missing = new LinkedHashSet<>();
+        int ingredientRows = 0;
+        for (Recipe recipe : chunk) {
+            for (RecipeIngredient ingredient : recipe.getIngredients()) {
+                ingredientRows++;
+                if (ingredient.getName() != null && !ingredientIds.containsKey(ingredient.getName())) {
+                    missing.add(ingredient.getName());
+                }
+            }
+        }
+
+        String error = null;
+        if (!missing.isEmpty()) {
+            Map<String, Integer> created = ingredientDAO.createIngredients(new ArrayList<>(missing));
+            if (created == null) {
+                error = "Ingredients could not be created";
+            } else {
+                ingredientIds.putAll(created);
+                report.addIngredientsCreated(created.size());
+            }
+        }
+        if (error == null) {
+            for (Recipe recipe : chunk) {
+                for (RecipeIngredient ingredient : recipe.getIngredients()) {
+                    if (ingredient.getName() != null) {
+                        ingredient.setId(ingredientIds.get(ingredient.getName()));
+                    }
+                }
+            }
+            if (recipeDAO.createRecipes(chunk) < 0) {
+                error = "Recipes could not be created; the chunk was rolled back";
+            }
+        }
+
+        report.addChunk(new ImportReport.Chunk(report.getChunks().size() + 1, chunk.size(), ingredientRows,
+                System.nanoTime() - began, error));
+    }
+
+    /**
+     * @return every existing ingredient's name mapped to its id, or null if they cannot be read
+     */
+    private Map<String, Integer> loadIngredientIds() {
+        List<Ingredient> ingredients = ingredientDAO.getAllIngredients();
+        if (ingredients == null) {
+            return null;
+        }
+        Map<String, Integer> ids = new HashMap<>(ingredients.size() * 2);
+        for (Ingredient ingredient : ingredients) {
+            ids.put(ingredient.getName(), ingredient.getId());
+        }
+        return ids;
+    }
+
+    private static RecipeSource ndjsonSource(BufferedReader reader) {
+        int[] lineNumber = { 0 };
+        return () -> {
+            String line;
+            do {
+                line = reader.readLine();
+                lineNumber[0]++;
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+
+            Recipe recipe;
+            try {
+                recipe = JsonUtil.RECIPE_READER.readValue(line);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Line " + lineNumber[0] + ": " + e.getOriginalMessage());
+            }
+            if (recipe.getIngredients() == null) {
+                recipe.setIngredients(new ArrayList<>());
+            }
+            for (RecipeIngredient ingredient : recipe.getIngredients()) {
+                if (ingredient.getName() != null) {
+                    ingredient.setName(ingredient.getName().trim());
+                } else if (ingredient.getId() == 0) {
+                    throw new IllegalArgumentException("Line " + lineNumber[0] + ": an ingredient has neither a name nor an id");
+                }
+            }
+            return validated(recipe, lineNumber[0]);
+        };
+    }
+
+    private static RecipeSource csvSource(CsvReader reader) throws IOException {
+        List<String> header = readRecord(reader);
+        if (header == null) {
+            return () -> null;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("name")) {
+            throw new IllegalArgumentException("The CSV header must include a \"name\" column");
+        }
+
+        return () -> {
+            List<String> record;
+            do {
+                record = readRecord(reader);
+                if (record == null) {
+                    return null;
+                }
+            } while (record.size() == 1 && record.get(0).isBlank());
+
+            int line = reader.getRecordLine();
+            Recipe recipe = new Recipe(column(record, columns, "name"), column(record, columns, "instructions"));
+            String chefId = column(record, columns, "chef_id");
+            String ingredients = column(record, columns, "ingredients");
+            try {
+                if (chefId != null && !chefId.isBlank()) {
+                    recipe.setAuthor(new Chef(Integer.parseInt(chefId.trim()), null, null, null, false));
+                }
+                recipe.setIngredients(parseIngredients(ingredients));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Line " + line + ": " + e.getMessage());
+            }
+            return validated(recipe, line);
+        };
+    }
+
+    /**
+     * Reads the next CSV record, reporting a malformed one as an input error rather than a failure to read.
+     */
+    private static List<String> readRecord(CsvReader reader) throws IOException {
+        try {
+            return reader.readRecord();
+        } catch (CsvFormatException e) {
+            throw new IllegalArgumentException("Line " + e.getLine() + ": unclosed quoted field");
+        }
+    }
+
+    /**
+     * Parses "name:volume:unit[:metric]" entries separated by semicolons.
+     */
+    private static List<RecipeIngredient> parseIngredients(String value) {
+        List<RecipeIngredient> ingredients = new ArrayList<>();
+        if (value == null || value.isBlank()) {
+            return ingredients;
+        }
+        for (String entry : value.split(";")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split(":");
+            if (parts.length < 3 || parts.length > 4) {
+                throw new NumberFormatException("Ingredient \"" + entry + "\" is not name:volume:unit[:metric]");
+            }
+            boolean metric = parts.length == 4 && "metric".equalsIgnoreCase(parts[3].trim());
+            ingredients.add(new RecipeIngredient(0, parts[0].trim(), Double.parseDouble(parts[1].trim()),
+                    parts[2].trim(), metric));
+        }
+        return ingredients;
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index == null || index >= record.size() ? null : record.get(index);
+    }
+
+    private static Recipe validated(Recipe recipe, int line) {
+        if (recipe.getName() == null || recipe.getName().isBlank()) {
+            throw new IllegalArgumentException("Line " + line + ": a recipe has no name");
+        }
+        return recipe;
+    }
+}
@@ -0,0 +1,345 @@
+package com.revature.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.revature.dao.RecipeDAO;
+import com.revature.model.Ingredient;
+
+/**
+ * The IngredientIndex class is an in-memory inverted index from each ingredient to the recipes that use it.
+ * Every ingredient id maps to a posting list: the sorted ids of the recipes listing that ingredient in
+ * RECIPE_INGREDIENT. "Recipes containing X and Y but not Z" then becomes an intersection and a difference of
+ * sorted int arrays instead of a SQL join.
+ *
+ * The index is loaded from the database on first use. The recipe and ingredient services keep it current as
+ * recipes and ingredients are deleted or renamed. Recipes only gain ingredients through a bulk import, after
+ * which {@link #invalidate()} forces a full reload. Lookups read concurrent maps holding immutable arrays and never block once the index is loaded;
+ * changes are serialized on the index and replace posting lists rather than modifying them.
+ *
+ * Ingredients are referred to by name, ignoring case. A name that no recipe uses has an empty posting list.
+ */
+public class IngredientIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    /** Once one posting list is this many times longer than the other, intersection probes it by binary search. */
+    private static final int GALLOP_RATIO = 32;
+
+    private final RecipeDAO recipeDAO;
+
+    /** Posting lists: ingredient id to the sorted ids of the recipes that use it. */
+    private final ConcurrentHashMap<Integer, int[]> recipesByIngredient = new ConcurrentHashMap<>();
+    /** Forward lists: recipe id to the sorted ids of its ingredients, used to unindex a recipe. */
+    private final ConcurrentHashMap<Integer, int[]> ingredientsByRecipe = new ConcurrentHashMap<>();
+    /** Lower-cased ingredient name to ingredient id. */
+    private final ConcurrentHashMap<String, Integer> ingredientIds = new ConcurrentHashMap<>();
+    /** Ingredient id to lower-cased ingredient name, used to rename or unindex an ingredient. */
+    private final ConcurrentHashMap<Integer, String> ingredientNames = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    /**
+     * @param recipeDAO the DAO the index is loaded from
+     */
+    public IngredientIndex(RecipeDAO recipeDAO) {
+        this.recipeDAO = recipeDAO;
+    }
+
+    /**
+     * Finds the recipes that use every one of the required ingredients, at least one of the optional
+     * ingredients (if any are given) and none of the excluded ingredients. At least one required or optional
+     * ingredient must be given.
+     *
+     * @param all the names of ingredients every result must use
+     * @param any the names of ingredients each result must use at least one of, or an empty collection
+     * @param none the names of ingredients no result may use
+     * @return the sorted ids of the matching recipes
+     * @throws IllegalArgumentException if neither required nor optional ingredients are given
+     */
+    public int[] search(Collection<String> all, Collection<String> any, Collection<String> none) {
+        if (all.isEmpty() && any.isEmpty()) {
+            throw new IllegalArgumentException("At least one required or optional ingredient is needed");
+        }
+        ensureLoaded();
+
+        int[] result = null;
+        if (!all.isEmpty()) {
+            List<int[]> postings = new ArrayList<>();
+            for (String name : all) {
+                postings.add(postingFor(name));
+            }
+            // Intersect the shortest lists first so the intermediate results stay small.
+            postings.sort(Comparator.comparingInt(posting -> posting.length));
+            result = postings.get(0);
+            for (int i = 1; i < postings.size() && result.length > 0; i++) {
+                result = intersect(result, postings.get(i));
+            }
+        }
+        if (!any.isEmpty()) {
+            int[] union = recipesWithAny(any);
+            result = result == null ? union : intersect(result, union);
+        }
+        if (!none.isEmpty() && result.length > 0) {
+            result = difference(result, recipesWithAny(none));
+        }
+        return result;
+    }
+
+    /**
+     * @param names the names of ingredients
+     * @return the sorted ids of the recipes that use at least one of the ingredients
+     */
+    public int[] recipesWithAny(Collection<String> names) {
+        ensureLoaded();
+        int[] result = EMPTY;
+        for (String name : names) {
+            result = union(result, postingFor(name));
+        }
+        return result;
+    }
+
+    /**
+     * Removes a deleted recipe from every posting list it appears in.
+     *
+     * @param recipeId the id of the recipe
+     */
+    public synchronized void removeRecipe(int recipeId) {
+        int[] ids = ingredientsByRecipe.remove(recipeId);
+        if (ids == null) {
+            return;
+        }
+        for (int ingredientId : ids) {
+            int[] posting = remove(recipesByIngredient.getOrDefault(ingredientId, EMPTY), recipeId);
+            if (posting.length == 0) {
+                recipesByIngredient.remove(ingredientId);
+            } else {
+                recipesByIngredient.put(ingredientId, posting);
+            }
+        }
+    }
+
+    /**
+     * Updates the name an ingredient is looked up by.
+     *
+     * @param ingredient the ingredient with its new name
+     */
+    public synchronized void renameIngredient(Ingredient ingredient) {
+        String oldName = ingredientNames.get(ingredient.getId());
+        if (oldName == null) {
+            return;
+        }
+        String newName = normalize(ingredient.getName());
+        ingredientIds.remove(oldName, ingredient.getId());
+        ingredientIds.put(newName, ingredient.getId());
+        ingredientNames.put(ingredient.getId(), newName);
+    }
+
+    /**
+     * Removes a deleted ingredient and its posting list.
+     *
+     * @param ingredientId the id of the ingredient
+     */
+    public synchronized void removeIngredient(int ingredientId) {
+        String name = ingredientNames.remove(ingredientId);
+        if (name != null) {
+            ingredientIds.remove(name, ingredientId);
+        }
+        int[] posting = recipesByIngredient.remove(ingredientId);
+        if (posting == null) {
+            return;
+        }
+        for (int recipeId : posting) {
+            int[] ids = remove(ingredientsByRecipe.getOrDefault(recipeId, EMPTY), ingredientId);
+            if (ids.length == 0) {
+                ingredientsByRecipe.remove(recipeId);
+            } else {
+                ingredientsByRecipe.put(recipeId, ids);
+            }
+        }
+    }
+
+    /**
+     * Discards the index so that it is reloaded from the database on next use.
+     */
+    public synchronized void invalidate() {
+        loaded = false;
+    }
+
+    /** @return the number of ingredients with a non-empty posting list */
+    public int getIngredientCount() {
+        return recipesByIngredient.size();
+    }
+
+    /** @return the number of recipes with at least one indexed ingredient */
+    public int getRecipeCount() {
+        return ingredientsByRecipe.size();
+    }
+
+    private int[] postingFor(String name) {
+        Integer id = ingredientIds.get(normalize(name));
+        return id == null ? EMPTY : recipesByIngredient.getOrDefault(id, EMPTY);
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    load();
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuilds every map from RECIPE_INGREDIENT. If the query fails the index stays unloaded and is
+     * empty until the next attempt.
+     */
+    private void load() {
+        recipesByIngredient.clear();
+        ingredientsByRecipe.clear();
+        ingredientIds.clear();
+        ingredientNames.clear();
+
+        Map<Ingredient, List<Integer>> rows = recipeDAO.getRecipeIdsByIngredient();
+        if (rows == null) {
+            return;
+        }
+        Map<Integer, List<Integer>> forward = new HashMap<>();
+        for (Map.Entry<Ingredient, List<Integer>> entry : rows.entrySet()) {
+            Ingredient ingredient = entry.getKey();
+            String name = normalize(ingredient.getName());
+            ingredientIds.put(name, ingredient.getId());
+            ingredientNames.put(ingredient.getId(), name);
+            recipesByIngredient.put(ingredient.getId(),
+                    entry.getValue().stream().mapToInt(Integer::intValue).distinct().sorted().toArray());
+            for (Integer recipeId : entry.getValue()) {
+                forward.computeIfAbsent(recipeId, id -> new ArrayList<>()).add(ingredient.getId());
+            }
+        }
+        for (Map.Entry<Integer, List<Integer>> entry : forward.entrySet()) {
+            ingredientsByRecipe.put(entry.getKey(),
+                    entry.getValue().stream().mapToInt(Integer::intValue).distinct().sorted().toArray());
+        }
+        loaded = true;
+    }
+
+    private static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return the ids present in both sorted arrays
+     */
+    static int[] intersect(int[] a, int[] b) {
+        if (a.length > b.length) {
+            int[] swap = a;
+            a = b;
+            b = swap;
+        }
+        int[] out = new int[a.length];
+        int n = 0;
+        if ((long) a.length * GALLOP_RATIO < b.length) {
+            int from = 0;
+            for (int id : a) {
+                int found = Arrays.binarySearch(b, from, b.length, id);
+                if (found >= 0) {
+                    out[n++] = id;
+                    from = found + 1;
+                } else {
+                    from = -found - 1;
+                }
+                if (from == b.length) {
+                    break;
+                }
+            }
+        } else {
+            int i = 0;
+            int j = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    out[n++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /**
+     * @return the ids present in either sorted array
+     */
+    static int[] union(int[] a, int[] b) {
+        if (a.length == 0) {
+            return b;
+        }
+        if (b.length == 0) {
+            return a;
+        }
+        int[] out = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                out[n++] = a[i++];
+            } else if (a[i] > b[j]) {
+                out[n++] = b[j++];
+            } else {
+                out[n++] = a[i++];
+                j++;
+            }
+        }
+        while (i < a.length) {
+            out[n++] = a[i++];
+        }
+        while (j < b.length) {
+            out[n++] = b[j++];
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /**
+     * @return the ids present in the first sorted array but not the second
+     */
+    static int[] difference(int[] a, int[] b) {
+        if (b.length == 0) {
+            return a;
+        }
+        int[] out = new int[a.length];
+        int n = 0;
+        int j = 0;
+        for (int id : a) {
+            while (j < b.length && b[j] < id) {
+                j++;
+            }
+            if (j == b.length || b[j] != id) {
+                out[n++] = id;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static int[] remove(int[] posting, int id) {
+        int found = Arrays.binarySearch(posting, id);
+        if (found < 0) {
+            return posting;
+        }
+        int[] out = new int[posting.length - 1];
+        System.arraycopy(posting, 0, out, 0, found);
+        System.arraycopy(posting, found + 1, out, found, posting.length - found - 1);
+        return out;
+    }
+}
@@ -0,0 +1,244 @@
+package com.revature.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import com.revature.dao.IngredientDAO;
+import com.revature.model.Ingredient;
+
+/**
+ * The IngredientNameIndex class is an in-memory prefix index over ingredient names, used to suggest
+ * ingredients while a user types. It stores every ingredient under its lower-cased name and under each later
+ * word of the name, in one sorted array, so all keys starting with a prefix form a contiguous run. A lookup is
+ * one binary search followed by a scan of at most the run, stopping once enough ingredients are found.
+ *
+ * The arrays are replaced as a whole, never modified, so suggestions read a consistent snapshot without
+ * locking. The index is loaded from the database on first use and kept current by the ingredient service as
+ * ingredients are saved and deleted; {@link #invalidate()} forces a reload.
+ */
+public class IngredientNameIndex {
+
+    /** The sorted keys and, at the same positions, the ingredients they were taken from. */
+    private static final class Snapshot {
+        private final String[] keys;
+        private final Ingredient[] ingredients;
+
+        private Snapshot(String[] keys, Ingredient[] ingredients) {
+            this.keys = keys;
+            this.ingredients = ingredients;
+        }
+    }
+
+    private static final Snapshot EMPTY = new Snapshot(new String[0], new Ingredient[0]);
+
+    private final IngredientDAO ingredientDAO;
+
+    private volatile Snapshot snapshot = EMPTY;
+    private volatile boolean loaded;
+
+    /**
+     * @param ingredientDAO the DAO the index is loaded from
+     */
+    public IngredientNameIndex(IngredientDAO ingredientDAO) {
+        this.ingredientDAO = ingredientDAO;
+    }
+
+    /**
+     * Finds ingredients whose name, or a later word of whose name, starts with the prefix, ignoring case.
+     * Matches are ordered alphabetically by the matching part of the name.
+     *
+     * @param prefix the start of the name typed so far
+     * @param limit the largest number of ingredients to return
+     * @return up to limit matching ingredients, or an empty list if the prefix is blank
+     */
+    public List<Ingredient> suggest(String prefix, int limit) {
+        List<Ingredient> matches = new ArrayList<>();
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit < 1) {
+            return matches;
+        }
+        ensureLoaded();
+
+        Snapshot current = snapshot;
+        Set<Integer> seen = new HashSet<>();
+        for (int i = lowerBound(current.keys, key); i < current.keys.length && matches.size() < limit; i++) {
+            if (!current.keys[i].startsWith(key)) {
+                break;
+            }
+            Ingredient ingredient = current.ingredients[i];
+            if (seen.add(ingredient.getId())) {
+                matches.add(ingredient);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Adds an ingredient, replacing any entry for the same id.
+     *
+     * @param ingredient the created or renamed ingredient
+     */
+    public synchronized void putIngredient(Ingredient ingredient) {
+        if (!loaded) {
+            return;
+        }
+        Snapshot current = without(snapshot, ingredient.getId());
+        List<String> keys = keysFor(ingredient.getName());
+
+        String[] newKeys = Arrays.copyOf(current.keys, current.keys.length + keys.size());
+        Ingredient[] newIngredients = Arrays.copyOf(current.ingredients, newKeys.length);
+        int size = current.keys.length;
+        Ingredient copy = new Ingredient(ingredient.getId(), ingredient.getName());
+        for (String key : keys) {
+            // Insert each key after any equal keys, shifting the tail right by one.
+            int at = lowerBound(newKeys, 0, size, key);
+            while (at < size && newKeys[at].equals(key)) {
+                at++;
+            }
+            System.arraycopy(newKeys, at, newKeys, at + 1, size - at);
+            System.arraycopy(newIngredients, at, newIngredients, at + 1, size - at);
+            newKeys[at] = key;
+            newIngredients[at] = copy;
+            size++;
+        }
+        snapshot = new Snapshot(newKeys, newIngredients);
+    }
+
+    /**
+     * Removes a deleted ingredient.
+     *
+     * @param ingredientId the id of the ingredient
+     */
+    public synchronized void removeIngredient(int ingredientId) {
+        if (loaded) {
+            snapshot = without(snapshot, ingredientId);
+        }
+    }
+
+    /**
+     * Discards the index so that it is reloaded from the database on next use.
+     */
+    public synchronized void invalidate() {
+        loaded = false;
+    }
+
+    /** @return the number of keys in the index */
+    public int getKeyCount() {
+        return snapshot.keys.length;
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    load();
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the index from every ingredient. If the ingredients cannot be read the index stays unloaded
+     * and empty until the next attempt.
+     */
+    private void load() {
+        snapshot = EMPTY;
+        List<Ingredient> all = ingredientDAO.getAllIngredients();
+        if (all == null) {
+            return;
+        }
+        List<String> keys = new ArrayList<>();
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (Ingredient ingredient : all) {
+            Ingredient copy = new Ingredient(ingredient.getId(), ingredient.getName());
+            for (String key : keysFor(ingredient.getName())) {
+                keys.add(key);
+                ingredients.add(copy);
+            }
+        }
+        Integer[] order = new Integer[keys.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(keys::get));
+
+        String[] sortedKeys = new String[order.length];
+        Ingredient[] sortedIngredients = new Ingredient[order.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedKeys[i] = keys.get(order[i]);
+            sortedIngredients[i] = ingredients.get(order[i]);
+        }
+        snapshot = new Snapshot(sortedKeys, sortedIngredients);
+        loaded = true;
+    }
+
+    /**
+     * @return the keys an ingredient name is indexed under: the whole name and the rest of it from each later word
+     */
+    private static List<String> keysFor(String name) {
+        List<String> keys = new ArrayList<>();
+        String key = normalize(name);
+        if (key.isEmpty()) {
+            return keys;
+        }
+        keys.add(key);
+        for (int i = 1; i < key.length(); i++) {
+            if (key.charAt(i - 1) == ' ' && key.charAt(i) != ' ') {
+                keys.add(key.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    private static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Snapshot without(Snapshot current, int ingredientId) {
+        int count = 0;
+        for (Ingredient ingredient : current.ingredients) {
+            if (ingredient.getId() == ingredientId) {
+                count++;
+            }
+        }
+        if (count == 0) {
+            return current;
+        }
+        String[] keys = new String[current.keys.length - count];
+        Ingredient[] ingredients = new Ingredient[keys.length];
+        int n = 0;
+        for (int i = 0; i < current.keys.length; i++) {
+            if (current.ingredients[i].getId() != ingredientId) {
+                keys[n] = current.keys[i];
+                ingredients[n++] = current.ingredients[i];
+            }
+        }
+        return new Snapshot(keys, ingredients);
+    }
+
+    private static int lowerBound(String[] keys, String key) {
+        return lowerBound(keys, 0, keys.length, key);
+    }
+
+    /**
+     * @return the first position in keys[from, to) whose key is not less than the given key
+     */
+    private static int lowerBound(String[] keys, int from, int to, String key) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -1,11 +1,14 @@
 package com.revature.service;
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 
 import com.revature.dao.IngredientDAO;
 import com.revature.model.Chef;
 import com.revature.model.Ingredient;
+import com.revature.util.BatchConsumer;
 import com.revature.util.Page;
+import com.revature.util.PageCursor;
 import com.revature.util.PageOptions;
 
 
@@ -24,6 +27,12 @@ public class IngredientService
     @SuppressWarnings("unused")
     private IngredientDAO ingredientDAO;
 
+    /** The inverted index of recipes by ingredient, or null if there is none to keep current. */
+    private IngredientIndex ingredientIndex;
+
+    /** The prefix index of ingredient names used for suggestions. */
+    private IngredientNameIndex nameIndex;
+
     /**
      * Constructs an IngredientService with the specified IngredientDao.
      *
@@ -33,8 +42,36 @@ public class IngredientService
      */
 
     public IngredientService(IngredientDAO ingredientDAO) 
+    {
+       this(ingredientDAO, null);
+    }
+
+    /**
+     * Constructs an IngredientService that also keeps the given ingredient index current as ingredients are
+     * renamed or deleted.
+     *
+     * @param ingredientDAO the IngredientDao to be used by this service for data access
+     * @param ingredientIndex the index to update, or null if there is none
+     */
+
+    public IngredientService(IngredientDAO ingredientDAO, IngredientIndex ingredientIndex) 
+    {
+       this(ingredientDAO, ingredientIndex, new IngredientNameIndex(ingredientDAO));
+    }
+
+    /**
+     * Constructs an IngredientService with the specified IngredientDao, ingredient index and name index.
+     *
+     * @param ingredientDAO the IngredientDao to be used by this service for data access
+     * @param ingredientIndex the index to update, or null if there is none
+     * @param nameIndex the prefix index of ingredient names used for suggestions
+     */
+
+    public IngredientService(IngredientDAO ingredientDAO, IngredientIndex ingredientIndex, IngredientNameIndex nameIndex) 
     {
        this.ingredientDAO=ingredientDAO;
+       this.ingredientIndex=ingredientIndex;
+       this.nameIndex=nameIndex;
     }
 
     /**
@@ -75,6 +112,25 @@ public class IngredientService
         }
     }
 
+    /**
+     * Searches for Ingredients using keyset pagination, continuing after the position encoded in a cursor token.
+     *
+     * @param term the search term for filtering Ingredients by name, or null for all Ingredients
+     * @param after the nextCursor of the previous page, or null or blank for the first page
+     * @param pageSize the number of results per page
+     * @param sortBy the field to sort the results by, "id" or "name"
+     * @param sortDirection the direction of sorting (e.g., "asc" or "desc")
+     * @return a Page object containing the matching Ingredients and the cursor for the following page
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for a different sort field
+     */
+    public Page<Ingredient> searchIngredientsAfter(String term, String after, int pageSize, String sortBy, String sortDirection) 
+    {
+        PageOptions pageOptions = new PageOptions(0, pageSize, sortBy, sortDirection);
+        pageOptions.setCursor(PageCursor.decode(after, sortBy));
+
+        return ingredientDAO.searchIngredientsAfter(term, pageOptions);
+    }
+
     /**
      * TODO: Searches for Ingredients based on a search term.
      * If the term is null, retrieves all Ingredients.
@@ -94,6 +150,46 @@ public class IngredientService
         }
     }
 
+    /**
+     * Streams the Ingredients matching a search term, or all Ingredients if the term is null, to a consumer in
+     * batches rather than collecting them into one list.
+     *
+     * @param term the search term used to find ingredients, or null for all Ingredients
+     * @param consumer receives the Ingredients a batch at a time
+     * @return the number of Ingredients streamed, or -1 if they could not be read
+     * @throws IOException if the consumer fails to write a batch
+     */
+    public int streamIngredients(String term, BatchConsumer<Ingredient> consumer) throws IOException 
+    {
+        return ingredientDAO.streamIngredients(term, consumer);
+    }
+
+    /**
+     * Suggests ingredients for a partially typed name from the in-memory name index, without querying the
+     * database.
+     *
+     * @param prefix the start of the name typed so far
+     * @param limit the largest number of suggestions to return
+     * @return up to limit ingredients whose name, or a later word of it, starts with the prefix
+     */
+    public List<Ingredient> suggestIngredients(String prefix, int limit) 
+    {
+        return nameIndex.suggest(prefix, limit);
+    }
+
+    /**
+     * Discards the in-memory ingredient indexes so that they are rebuilt on next use, after ingredients have
+     * been written without going through this service.
+     */
+    public void invalidateIndexes() 
+    {
+        if (ingredientIndex != null)
+        {
+            ingredientIndex.invalidate();
+        }
+        nameIndex.invalidate();
+    }
+
     /**
      * TODO: Deletes an Ingredient by its unique identifier, if it exists.
      *
@@ -107,6 +203,11 @@ public class IngredientService
         if(ingd!=null)
         {
             ingredientDAO.deleteIngredient(ingd);
+            if (ingredientIndex != null)
+            {
+                ingredientIndex.removeIngredient(id);
+            }
+            nameIndex.removeIngredient(id);
         }
     }
 
@@ -125,10 +226,19 @@ public class IngredientService
         {
             int x=ingredientDAO.createIngredient(ingredient);
             ingredient.setId(x);
+            if (x != 0)
+            {
+                nameIndex.putIngredient(ingredient);
+            }
         }
         else
         {
             ingredientDAO.updateIngredient(ingredient);
+            if (ingredientIndex != null)
+            {
+                ingredientIndex.renameIngredient(ingredient);
+            }
+            nameIndex.putIngredient(ingredient);
         }
     }
 }
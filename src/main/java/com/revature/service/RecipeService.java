@@ -1,12 +1,19 @@
 package com.revature.service;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import com.revature.dao.RecipeDAO;
 import com.revature.model.Chef;
 import com.revature.model.Recipe;
+import com.revature.util.BatchConsumer;
 import com.revature.util.Page;
+import com.revature.util.PageCursor;
 import com.revature.util.PageOptions;
 
 /**
@@ -22,6 +29,12 @@ public class RecipeService
     /** The data access object used for performing operations on Recipe entities. */
     private RecipeDAO recipeDAO;
 
+    /** The inverted index used to find recipes by ingredient. */
+    private IngredientIndex ingredientIndex;
+
+    /** The full-text index used to search recipe names and instructions. */
+    private RecipeTextIndex textIndex;
+
     /**
      * Constructs a RecipeService with the specified RecipeDao.
      *
@@ -31,7 +44,33 @@ public class RecipeService
      */
     public RecipeService(RecipeDAO recipeDAO) 
     {
-        this.recipeDAO=recipeDAO;    
+        this(recipeDAO, new IngredientIndex(recipeDAO));
+    }
+
+    /**
+     * Constructs a RecipeService with the specified RecipeDao and ingredient index. The index should be
+     * shared with the IngredientService so that ingredient changes reach it.
+     *
+     * @param recipeDAO the RecipeDao to be used by this service for data access
+     * @param ingredientIndex the index used to find recipes by ingredient
+     */
+    public RecipeService(RecipeDAO recipeDAO, IngredientIndex ingredientIndex) 
+    {
+        this(recipeDAO, ingredientIndex, new RecipeTextIndex(recipeDAO));
+    }
+
+    /**
+     * Constructs a RecipeService with the specified RecipeDao, ingredient index and full-text index.
+     *
+     * @param recipeDAO the RecipeDao to be used by this service for data access
+     * @param ingredientIndex the index used to find recipes by ingredient
+     * @param textIndex the index used to search recipe names and instructions
+     */
+    public RecipeService(RecipeDAO recipeDAO, IngredientIndex ingredientIndex, RecipeTextIndex textIndex) 
+    {
+        this.recipeDAO=recipeDAO;
+        this.ingredientIndex=ingredientIndex;
+        this.textIndex=textIndex;
     }
 
     /**
@@ -57,15 +96,22 @@ public class RecipeService
     public void saveRecipe(Recipe recipe) 
     {
         int id=recipe.getId();
+        Recipe existing = id==0 ? null : recipeDAO.getRecipeById(id);
         
-        if(id==0  || recipeDAO.getRecipeById(recipe.getId()) == null)
+        if(existing == null)
         {
             int repid=recipeDAO.createRecipe(recipe);
             recipe.setId(repid);
+            if (repid != 0)
+            {
+                textIndex.indexRecipe(repid, recipe.getName(), recipe.getInstructions());
+            }
         }
         else
         {
             recipeDAO.updateRecipe(recipe);
+            // An update does not rename the recipe, so the stored name is the one to index.
+            textIndex.indexRecipe(id, existing.getName(), recipe.getInstructions());
         }
     }
 
@@ -93,6 +139,25 @@ public class RecipeService
         }
     }
 
+    /**
+     * Searches for recipes using keyset pagination, continuing after the position encoded in a cursor token.
+     *
+     * @param term          the search term used to find recipes, or null for all recipes
+     * @param after         the nextCursor of the previous page, or null or blank for the first page
+     * @param pageSize      the number of recipes per page
+     * @param sortBy        the field by which to sort the results, "id" or "name"
+     * @param sortDirection the direction of sorting (ascending or descending)
+     * @return a Page containing the results of the search and the cursor for the following page
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for a different sort field
+     */
+    public Page<Recipe> searchRecipesAfter(String term, String after, int pageSize, String sortBy, String sortDirection) 
+    {
+        PageOptions pageOptions = new PageOptions(0, pageSize, sortBy, sortDirection);
+        pageOptions.setCursor(PageCursor.decode(after, sortBy));
+
+        return recipeDAO.searchRecipesAfter(term, pageOptions);
+    }
+
     /**
      * TODO: Searches for recipes based on a search term.
      *
@@ -111,6 +176,174 @@ public class RecipeService
         }
     }
 
+    /**
+     * Streams the recipes matching a search term, or all recipes if the term is null, to a consumer in batches
+     * rather than collecting them into one list.
+     *
+     * @param term the search term used to find recipes, or null for all recipes
+     * @param withIngredients whether to load each batch's ingredients before handing it on
+     * @param consumer receives the recipes a batch at a time
+     * @return the number of recipes streamed, or -1 if they could not be read
+     * @throws IOException if the consumer fails to write a batch
+     */
+    public int streamRecipes(String term, boolean withIngredients, BatchConsumer<Recipe> consumer) throws IOException 
+    {
+        return recipeDAO.streamRecipes(term, withIngredients, consumer);
+    }
+
+    /**
+     * Streams every recipe, complete with its author and ingredients, to a consumer in batches for bulk export.
+     *
+     * @param consumer receives the recipes a batch at a time
+     * @return the number of recipes exported, or -1 if they could not be read
+     * @throws IOException if the consumer fails to write a batch
+     */
+    public int exportRecipes(BatchConsumer<Recipe> consumer) throws IOException 
+    {
+        return recipeDAO.exportRecipes(consumer);
+    }
+
+    /**
+     * Searches recipe names and instructions with the full-text index. Every word of the query must appear in
+     * a recipe, either exactly or as the start of a longer word.
+     *
+     * @param query the words to search for
+     * @return the matching recipes, most relevant first, or null if they could not be loaded
+     */
+    public List<Recipe> searchRecipesFullText(String query) 
+    {
+        return recipesInOrder(textIndex.search(query));
+    }
+
+    /**
+     * Searches recipe names and instructions with the full-text index and returns one page of the results,
+     * most relevant first. Only the recipes on the requested page are read from the database.
+     *
+     * @param query the words to search for
+     * @param page the page number to retrieve
+     * @param pageSize the number of recipes per page
+     * @return a Page containing the results of the search, or null if they could not be loaded
+     */
+    public Page<Recipe> searchRecipesFullText(String query, int page, int pageSize) 
+    {
+        int[] ids = textIndex.search(query);
+        int start = Math.min(Math.max(0, (page - 1) * pageSize), ids.length);
+        List<Recipe> items = recipesInOrder(Arrays.copyOfRange(ids, start, Math.min(start + pageSize, ids.length)));
+        return items == null ? null : new Page<>(page, pageSize, ids.length / pageSize, ids.length, items);
+    }
+
+    /**
+     * Loads recipes by id, keeping the order of the given ids.
+     */
+    private List<Recipe> recipesInOrder(int[] ids) 
+    {
+        List<Recipe> recipes = recipeDAO.getRecipesByIds(ids);
+        if (recipes == null)
+        {
+            return null;
+        }
+        Map<Integer, Recipe> byId = new HashMap<>();
+        for (Recipe recipe : recipes)
+        {
+            byId.put(recipe.getId(), recipe);
+        }
+        List<Recipe> ordered = new ArrayList<>(recipes.size());
+        for (int id : ids)
+        {
+            Recipe recipe = byId.get(id);
+            if (recipe != null)
+            {
+                ordered.add(recipe);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Searches for recipes by the ingredients they use, answered from the in-memory ingredient index.
+     * Ingredients are matched by name, ignoring case.
+     *
+     * @param term the search term the recipe names must contain, or null for any name
+     * @param all the ingredients every recipe must use
+     * @param any the ingredients each recipe must use at least one of, or an empty list
+     * @param none the ingredients no recipe may use
+     * @return the matching recipes ordered by id, or null if they could not be loaded
+     */
+    public List<Recipe> searchRecipesByIngredients(String term, List<String> all, List<String> any, List<String> none) 
+    {
+        if (all.isEmpty() && any.isEmpty())
+        {
+            List<Recipe> recipes = searchRecipes(term);
+            if (recipes != null && !none.isEmpty())
+            {
+                int[] excluded = ingredientIndex.recipesWithAny(none);
+                recipes.removeIf(recipe -> Arrays.binarySearch(excluded, recipe.getId()) >= 0);
+            }
+            return recipes;
+        }
+
+        List<Recipe> recipes = recipeDAO.getRecipesByIds(ingredientIndex.search(all, any, none));
+        if (recipes != null && term != null)
+        {
+            recipes.removeIf(recipe -> recipe.getName() == null || !recipe.getName().contains(term));
+        }
+        return recipes;
+    }
+
+    /**
+     * Searches for recipes by the ingredients they use and returns one page of them, ordered by id. Without a
+     * term only the recipes on the requested page are read from the database.
+     *
+     * @param term the search term the recipe names must contain, or null for any name
+     * @param all the ingredients every recipe must use
+     * @param any the ingredients each recipe must use at least one of, or an empty list
+     * @param none the ingredients no recipe may use
+     * @param page the page number to retrieve
+     * @param pageSize the number of recipes per page
+     * @return a Page containing the results of the search, or null if they could not be loaded
+     */
+    public Page<Recipe> searchRecipesByIngredients(String term, List<String> all, List<String> any, List<String> none, int page, int pageSize) 
+    {
+        int from = Math.max(0, (page - 1) * pageSize);
+
+        if (term == null && !(all.isEmpty() && any.isEmpty()))
+        {
+            int[] ids = ingredientIndex.search(all, any, none);
+            int start = Math.min(from, ids.length);
+            List<Recipe> items = recipeDAO.getRecipesByIds(Arrays.copyOfRange(ids, start, Math.min(start + pageSize, ids.length)));
+            return items == null ? null : new Page<>(page, pageSize, ids.length / pageSize, ids.length, items);
+        }
+
+        List<Recipe> recipes = searchRecipesByIngredients(term, all, any, none);
+        if (recipes == null)
+        {
+            return null;
+        }
+        int start = Math.min(from, recipes.size());
+        List<Recipe> items = recipes.subList(start, Math.min(start + pageSize, recipes.size()));
+        return new Page<>(page, pageSize, recipes.size() / pageSize, recipes.size(), items);
+    }
+
+    /**
+     * Discards the in-memory recipe indexes so that they are rebuilt on next use, after recipes have been
+     * written without going through this service.
+     */
+    public void invalidateIndexes() 
+    {
+        ingredientIndex.invalidate();
+        textIndex.invalidate();
+    }
+
+    /**
+     * Populates the ingredients of the given recipes with a single batched lookup.
+     *
+     * @param recipes the recipes whose ingredients should be loaded
+     */
+    public void loadIngredients(List<Recipe> recipes) 
+    {
+        recipeDAO.loadIngredients(recipes);
+    }
+
     /**
      * TODO: Deletes a Recipe by its unique identifier.
      *
@@ -121,7 +354,10 @@ public class RecipeService
         Recipe rep=recipeDAO.getRecipeById(id);
         
         if(rep!=null)
+        {
             recipeDAO.deleteRecipe(rep);
+            ingredientIndex.removeRecipe(id);
+            textIndex.removeRecipe(id);
+        }
     }
 }
-
@@ -0,0 +1,305 @@
+package com.revature.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+import com.revature.dao.RecipeDAO;
+import com.revature.model.Recipe;
+
+/**
+ * The RecipeTextIndex class is an in-memory full-text index over recipe names and instructions. It replaces
+ * "LIKE '%term%'" scans, which read every row on every keystroke, with lookups in a sorted term dictionary.
+ *
+ * Text is split into lower-cased words of letters and digits. Each word maps to its postings: the sorted ids
+ * of the recipes containing it and the word's weight in each, where a word in the name counts
+ * {@link #NAME_WEIGHT} times as much as one in the instructions. A query matches the recipes containing every
+ * query word, either exactly or as the prefix of a longer word, so a search box can query while the user types.
+ * Matches are ranked by the sum of weight times inverse document frequency over the query words; prefix matches
+ * count for less than exact ones.
+ *
+ * The index is loaded from the database on first use and kept current by the recipe service as recipes are
+ * created, updated and deleted; {@link #invalidate()} forces a full reload. Searches never block once the
+ * index is loaded, because changes replace a word's postings rather than modifying them.
+ */
+public class RecipeTextIndex {
+
+    /** How many times a word in a recipe's name outweighs the same word in its instructions. */
+    static final float NAME_WEIGHT = 3f;
+
+    /** The fraction of an exact match's score that a prefix match earns. */
+    private static final double PREFIX_WEIGHT = 0.5;
+
+    /** The most dictionary words a single query word is expanded to as a prefix. */
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    /** Everything that is not part of a word. */
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final int[] EMPTY = new int[0];
+
+    /** The recipes containing one word, and the word's weight in each. Never modified once published. */
+    private static final class Postings {
+        private final int[] ids;
+        private final float[] weights;
+
+        private Postings(int[] ids, float[] weights) {
+            this.ids = ids;
+            this.weights = weights;
+        }
+    }
+
+    private final RecipeDAO recipeDAO;
+
+    /** The term dictionary: each word to its postings, sorted so that a prefix is a contiguous range. */
+    private final ConcurrentSkipListMap<String, Postings> postingsByTerm = new ConcurrentSkipListMap<>();
+    /** Forward lists: recipe id to the words indexed for it, used to unindex the recipe. */
+    private final ConcurrentHashMap<Integer, String[]> termsByRecipe = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    /**
+     * @param recipeDAO the DAO the index is loaded from
+     */
+    public RecipeTextIndex(RecipeDAO recipeDAO) {
+        this.recipeDAO = recipeDAO;
+    }
+
+    /**
+     * Finds the recipes whose name or instructions contain every word of the query, exactly or as a prefix.
+     *
+     * @param query the words to search for
+     * @return the ids of the matching recipes, most relevant first, or an empty array if the query has no words
+     */
+    public int[] search(String query) {
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (words.isEmpty()) {
+            return EMPTY;
+        }
+        ensureLoaded();
+
+        double recipeCount = Math.max(1, termsByRecipe.size());
+        Map<Integer, Double> scores = null;
+        for (String word : words) {
+            Map<Integer, Double> wordScores = new HashMap<>();
+            int expansions = 0;
+            for (Map.Entry<String, Postings> entry : postingsByTerm.tailMap(word, true).entrySet()) {
+                String term = entry.getKey();
+                if (!term.startsWith(word) || expansions++ == MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                Postings postings = entry.getValue();
+                double idf = Math.log(1 + recipeCount / postings.ids.length);
+                double factor = term.length() == word.length() ? idf : idf * PREFIX_WEIGHT;
+                for (int i = 0; i < postings.ids.length; i++) {
+                    wordScores.merge(postings.ids[i], postings.weights[i] * factor, Double::sum);
+                }
+            }
+            if (scores == null) {
+                scores = wordScores;
+            } else {
+                scores.keySet().retainAll(wordScores.keySet());
+                for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+                    entry.setValue(entry.getValue() + wordScores.get(entry.getKey()));
+                }
+            }
+            if (scores.isEmpty()) {
+                return EMPTY;
+            }
+        }
+
+        Map<Integer, Double> ranked = scores;
+        return ranked.keySet().stream()
+                .sorted(Comparator.comparingDouble((Integer id) -> -ranked.get(id)).thenComparingInt(id -> id))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Indexes a recipe's name and instructions, replacing whatever was indexed for it before.
+     *
+     * @param recipeId the id of the recipe
+     * @param name the recipe's name
+     * @param instructions the recipe's instructions
+     */
+    public synchronized void indexRecipe(int recipeId, String name, String instructions) {
+        if (!loaded) {
+            return;
+        }
+        removeRecipe(recipeId);
+        Map<String, Float> weights = termWeights(name, instructions);
+        for (Map.Entry<String, Float> entry : weights.entrySet()) {
+            postingsByTerm.put(entry.getKey(), insert(postingsByTerm.get(entry.getKey()), recipeId, entry.getValue()));
+        }
+        termsByRecipe.put(recipeId, weights.keySet().toArray(new String[0]));
+    }
+
+    /**
+     * Removes a deleted recipe from the index.
+     *
+     * @param recipeId the id of the recipe
+     */
+    public synchronized void removeRecipe(int recipeId) {
+        String[] terms = termsByRecipe.remove(recipeId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Postings postings = remove(postingsByTerm.get(term), recipeId);
+            if (postings == null) {
+                postingsByTerm.remove(term);
+            } else {
+                postingsByTerm.put(term, postings);
+            }
+        }
+    }
+
+    /**
+     * Discards the index so that it is reloaded from the database on next use.
+     */
+    public synchronized void invalidate() {
+        loaded = false;
+    }
+
+    /** @return the number of distinct words in the index */
+    public int getTermCount() {
+        return postingsByTerm.size();
+    }
+
+    /** @return the number of recipes in the index */
+    public int getRecipeCount() {
+        return termsByRecipe.size();
+    }
+
+    /**
+     * Splits text into lower-cased words of letters and digits.
+     *
+     * @param text the text to split, may be null
+     * @return the words in order, with repeats
+     */
+    static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        for (String word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    load();
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the index from every recipe. If the recipes cannot be read the index stays unloaded and is
+     * empty until the next attempt.
+     */
+    private void load() {
+        postingsByTerm.clear();
+        termsByRecipe.clear();
+
+        List<Recipe> recipes = recipeDAO.getAllRecipes();
+        if (recipes == null) {
+            return;
+        }
+        recipes = new ArrayList<>(recipes);
+        recipes.sort(Comparator.comparingInt(Recipe::getId));
+
+        Map<String, List<Integer>> ids = new HashMap<>();
+        Map<String, List<Float>> weights = new HashMap<>();
+        for (Recipe recipe : recipes) {
+            Map<String, Float> recipeWeights = termWeights(recipe.getName(), recipe.getInstructions());
+            for (Map.Entry<String, Float> entry : recipeWeights.entrySet()) {
+                ids.computeIfAbsent(entry.getKey(), term -> new ArrayList<>()).add(recipe.getId());
+                weights.computeIfAbsent(entry.getKey(), term -> new ArrayList<>()).add(entry.getValue());
+            }
+            termsByRecipe.put(recipe.getId(), recipeWeights.keySet().toArray(new String[0]));
+        }
+        for (Map.Entry<String, List<Integer>> entry : ids.entrySet()) {
+            List<Float> termWeights = weights.get(entry.getKey());
+            float[] weightArray = new float[termWeights.size()];
+            for (int i = 0; i < weightArray.length; i++) {
+                weightArray[i] = termWeights.get(i);
+            }
+            postingsByTerm.put(entry.getKey(),
+                    new Postings(entry.getValue().stream().mapToInt(Integer::intValue).toArray(), weightArray));
+        }
+        loaded = true;
+    }
+
+    private static Map<String, Float> termWeights(String name, String instructions) {
+        Map<String, Float> weights = new HashMap<>();
+        for (String word : tokenize(name)) {
+            weights.merge(word, NAME_WEIGHT, Float::sum);
+        }
+        for (String word : tokenize(instructions)) {
+            weights.merge(word, 1f, Float::sum);
+        }
+        return weights;
+    }
+
+    private static Postings insert(Postings postings, int id, float weight) {
+        if (postings == null) {
+            return new Postings(new int[] { id }, new float[] { weight });
+        }
+        int found = Arrays.binarySearch(postings.ids, id);
+        if (found >= 0) {
+            float[] weights = postings.weights.clone();
+            weights[found] = weight;
+            return new Postings(postings.ids, weights);
+        }
+        int at = -found - 1;
+        int length = postings.ids.length;
+        int[] ids = new int[length + 1];
+        float[] weights = new float[length + 1];
+        System.arraycopy(postings.ids, 0, ids, 0, at);
+        System.arraycopy(postings.weights, 0, weights, 0, at);
+        ids[at] = id;
+        weights[at] = weight;
+        System.arraycopy(postings.ids, at, ids, at + 1, length - at);
+        System.arraycopy(postings.weights, at, weights, at + 1, length - at);
+        return new Postings(ids, weights);
+    }
+
+    /**
+     * @return the postings without the id, or null if none would remain
+     */
+    private static Postings remove(Postings postings, int id) {
+        if (postings == null) {
+            return null;
+        }
+        int found = Arrays.binarySearch(postings.ids, id);
+        if (found < 0) {
+            return postings;
+        }
+        int length = postings.ids.length;
+        if (length == 1) {
+            return null;
+        }
+        int[] ids = new int[length - 1];
+        float[] weights = new float[length - 1];
+        System.arraycopy(postings.ids, 0, ids, 0, found);
+        System.arraycopy(postings.weights, 0, weights, 0, found);
+        System.arraycopy(postings.ids, found + 1, ids, found, length - found - 1);
+        System.arraycopy(postings.weights, found + 1, weights, found, length - found - 1);
+        return new Postings(ids, weights);
+    }
+}
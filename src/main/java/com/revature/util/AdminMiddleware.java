@@ -1,153 +1,120 @@
-// package com.revature.util;
-
-// import java.util.stream.Collectors;
-
-// import com.revature.dao.ChefDAO;
-// import com.revature.model.Chef;
-// import com.revature.service.AuthenticationService;
-// import com.revature.service.ChefService;
-
-// import io.javalin.http.Context;
-// import io.javalin.http.Handler;
-// import io.javalin.http.UnauthorizedResponse;
-
-// /**
-//  * The AdminMiddleware class is responsible for enforcing access control
-//  * within the application by protecting specific routes from non-admin users.
-//  * 
-//  * This class utilizes a list of protected methods to determine which HTTP
-//  * methods require admin access and leverages the ChefService to validate
-//  * user permissions. The middleware intercepts requests and ensures that
-//  * only users with admin privileges can access protected resources.
-//  */
-
-// public class AdminMiddleware implements Handler {
-
-//     /**
-//      * An array of protected HTTP methods that require admin access.
-//      */
-
-//     private String[] protectedMethods;
-
-//     /**
-//      * The AuthenticationService instance used for handling authentication-related
-//      * operations and validation.
-//      */
-
-//     private AuthenticationService authService;
-
-//     /**
-//      * Constructs an AdminMiddleware instance with the specified
-//      * AuthenticationService and an array of protected methods.
-//      *
-//      * (FOR REFERENCE) This method is part of the backend logic.
-//      * No modifications or implementations are required.
-//      */
-
-//     public AdminMiddleware(String... protectedMethods) {
-//         this.protectedMethods = protectedMethods;
-//         this.authService = new AuthenticationService(new ChefService(new ChefDAO(new ConnectionUtil())));
-//     }
-
-//     /**
-//      * Handles the HTTP request, checking for admin access based on the HTTP method
-//      * being used and the current logged in user's authentication token.
-//      *
-//      * (FOR REFERENCE) This method is part of the backend logic.
-//      * No modifications or implementations are required.
-//      */
-//     @Override
-//     public void handle(Context ctx) {
-//         if (isProtectedMethod(ctx.method().name())) {
-//             // Get the token of the current logged in user
-//             String token = AuthenticationService.loggedInUsers.keySet().stream().collect(Collectors.joining());
-
-//             // Check the corresponding chef and check if they are admin
-//             boolean isAdmin = isAdmin(authService.getChefFromSessionToken(token));
-
-//             // If they are not admin, throw an exception
-//             if (!isAdmin) {
-//                 throw new UnauthorizedResponse("Access denied");
-//             }
-//         }
-//     }
-
-//     /**
-//      * Checks if the specified HTTP method is among the protected methods.
-//      *
-//      * (FOR REFERENCE) This method is part of the backend logic.
-//      * No modifications or implementations are required.
-//      */
-//     private boolean isProtectedMethod(String method) {
-//         for (String protectedMethod : protectedMethods) {
-//             if (protectedMethod.toString().equalsIgnoreCase(method)) {
-//                 return true;
-//             }
-//         }
-//         return false;
-//     }
-
-//     /**
-//      * Determines if the chef with the specified ID has admin privileges.
-//      *
-//      * (FOR REFERENCE) This method is part of the backend logic.
-//      * No modifications or implementations are required.
-//      */
-//     private boolean isAdmin(Chef chef) {
-//         if (chef != null) {
-//             return chef.isAdmin();
-//         }
-//         return false;
-//     }
-// }
-
-// Source code is decompiled from a .class file using FernFlower decompiler.
 package com.revature.util;
 
-import com.revature.dao.ChefDAO;
 import com.revature.model.Chef;
 import com.revature.service.AuthenticationService;
-import com.revature.service.ChefService;
+
 import io.javalin.http.Context;
 import io.javalin.http.Handler;
 import io.javalin.http.UnauthorizedResponse;
-import java.util.stream.Collectors;
+
+/**
+ * The AdminMiddleware class is responsible for enforcing access control
+ * within the application by protecting specific routes from non-admin users.
+ *
+ * This class utilizes a list of protected methods to determine which HTTP
+ * methods require admin access. For a protected request it resolves the
+ * session token from the request's own Authorization header and checks the
+ * logged in chef with a single session lookup, so the check costs the same
+ * however many users are logged in.
+ */
 
 public class AdminMiddleware implements Handler {
-   private String[] protectedMethods;
-   private AuthenticationService authService;
-
-   public AdminMiddleware(String... protectedMethods) {
-      this.protectedMethods = protectedMethods;
-      this.authService = new AuthenticationService(new ChefService(new ChefDAO(new ConnectionUtil())));
-   }
-
-   public void handle(Context ctx) {
-      if (this.isProtectedMethod(ctx.method().name())) {
-         String token = (String)AuthenticationService.loggedInUsers.keySet().stream().collect(Collectors.joining());
-         boolean isAdmin = this.isAdmin(this.authService.getChefFromSessionToken(token));
-         if (!isAdmin) {
-            throw new UnauthorizedResponse("Access denied");
-         }
-      }
-
-   }
-
-   private boolean isProtectedMethod(String method) {
-      String[] var5;
-      int var4 = (var5 = this.protectedMethods).length;
-
-      for(int var3 = 0; var3 < var4; ++var3) {
-         String protectedMethod = var5[var3];
-         if (protectedMethod.toString().equalsIgnoreCase(method)) {
-            return true;
-         }
-      }
-
-      return false;
-   }
-
-   private boolean isAdmin(Chef chef) {
-      return chef != null ? chef.isAdmin() : false;
-   }
+
+    /**
+     * The prefix of an Authorization header carrying a session token.
+     */
+
+    private static final String BEARER_PREFIX = "Bearer";
+
+    /**
+     * An array of protected HTTP methods that require admin access.
+     */
+
+    private String[] protectedMethods;
+
+    /**
+     * The store of logged in users used to resolve session tokens.
+     */
+
+    private SessionStore sessions;
+
+    /**
+     * Constructs an AdminMiddleware instance that checks tokens against
+     * AuthenticationService.loggedInUsers, protecting the specified methods.
+     *
+     * @param protectedMethods the HTTP methods that require admin access
+     */
+
+    public AdminMiddleware(String... protectedMethods) {
+        this(AuthenticationService.loggedInUsers, protectedMethods);
+    }
+
+    /**
+     * Constructs an AdminMiddleware instance that checks tokens against the
+     * specified session store, protecting the specified methods.
+     *
+     * @param sessions the store of logged in users
+     * @param protectedMethods the HTTP methods that require admin access
+     */
+
+    public AdminMiddleware(SessionStore sessions, String... protectedMethods) {
+        this.sessions = sessions;
+        this.protectedMethods = protectedMethods;
+    }
+
+    /**
+     * Handles the HTTP request, checking for admin access based on the HTTP method
+     * being used and the session token sent in the request's Authorization header.
+     *
+     * @throws UnauthorizedResponse if the method is protected and the caller is not a logged in admin
+     */
+    @Override
+    public void handle(Context ctx) {
+        if (isProtectedMethod(ctx.method().name())) {
+            String token = tokenFromHeader(ctx.header("Authorization"));
+
+            Chef chef = token == null ? null : sessions.get(token);
+
+            if (!isAdmin(chef)) {
+                throw new UnauthorizedResponse("Access denied");
+            }
+        }
+    }
+
+    /**
+     * Extracts the session token from an Authorization header, accepting the
+     * token on its own or after a "Bearer" prefix.
+     *
+     * @param header the value of the Authorization header, may be null
+     * @return the token, or null if the header is missing or blank
+     */
+    static String tokenFromHeader(String header) {
+        if (header == null) {
+            return null;
+        }
+        String token = header.trim();
+        if (token.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            token = token.substring(BEARER_PREFIX.length()).trim();
+        }
+        return token.isEmpty() ? null : token;
+    }
+
+    /**
+     * Checks if the specified HTTP method is among the protected methods.
+     */
+    private boolean isProtectedMethod(String method) {
+        for (String protectedMethod : protectedMethods) {
+            if (protectedMethod.equalsIgnoreCase(method)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determines if the specified chef has admin privileges.
+     */
+    private boolean isAdmin(Chef chef) {
+        return chef != null && chef.isAdmin();
+    }
 }
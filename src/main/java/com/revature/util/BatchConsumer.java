@@ -0,0 +1,20 @@
+package com.revature.util;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receives rows streamed from the database a batch at a time, for example to write them to a response
+ * while the query is still being read. Each batch is a new list that the consumer may keep.
+ *
+ * @param <T> the type of the rows
+ */
+@FunctionalInterface
+public interface BatchConsumer<T> {
+
+    /**
+     * @param batch the next rows, never empty
+     * @throws IOException if the rows cannot be written
+     */
+    void accept(List<T> batch) throws IOException;
+}
@@ -0,0 +1,80 @@
+package com.revature.util;
+
+import java.util.Locale;
+
+/**
+ * The ConfigUtil class resolves runtime settings for the application. Each setting is looked up
+ * first as a JVM system property and then as an environment variable, falling back to a default
+ * when neither is present.
+ *
+ * The environment variable name is derived from the property name by upper-casing it and replacing
+ * dots with underscores, so "recipe.db.pool.maxSize" may be supplied either as
+ * -Drecipe.db.pool.maxSize=20 or as RECIPE_DB_POOL_MAXSIZE=20.
+ */
+public class ConfigUtil {
+
+    private ConfigUtil() {
+    }
+
+    /**
+     * @param name the property name of the setting
+     * @param defaultValue the value to use when the setting is absent
+     * @return the configured value, or the default value if the setting is absent or blank
+     */
+    public static String getString(String name, String defaultValue) {
+        String value = System.getProperty(name);
+        if (value == null || value.isBlank()) {
+            value = System.getenv(toEnvironmentName(name));
+        }
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    /**
+     * @param name the property name of the setting
+     * @param defaultValue the value to use when the setting is absent
+     * @return the configured value as an int
+     * @throws IllegalArgumentException if the setting is present but not a number that fits in an int
+     */
+    public static int getInt(String name, int defaultValue) {
+        long value = getLong(name, defaultValue);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Setting " + name + " is out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * @param name the property name of the setting
+     * @param defaultValue the value to use when the setting is absent
+     * @return the configured value as a long
+     * @throws IllegalArgumentException if the setting is present but not a number
+     */
+    public static long getLong(String name, long defaultValue) {
+        String value = getString(name, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Setting " + name + " is not a number: '" + value + "'", e);
+        }
+    }
+
+    /**
+     * @param name the property name of the setting
+     * @param defaultValue the value to use when the setting is absent
+     * @return the configured value as a boolean
+     */
+    public static boolean getBoolean(String name, boolean defaultValue) {
+        String value = getString(name, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    /**
+     * Converts a property name such as "recipe.db.url" into its environment variable form, "RECIPE_DB_URL".
+     */
+    static String toEnvironmentName(String name) {
+        return name.toUpperCase(Locale.ROOT).replace('.', '_').replace('-', '_');
+    }
+}
@@ -0,0 +1,948 @@
+package com.revature.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+/**
+ * The ConnectionPool class keeps a bounded set of physical database connections open and lends
+ * them out to callers, so that a DAO method pays for a connection checkout instead of a brand-new
+ * database session.
+ *
+ * Connections handed out by {@link #borrow()} are proxies: calling close() on them returns the
+ * physical connection to the pool, closing any statements that were opened while it was borrowed.
+ * The pool holds at most maxSize connections, validates idle connections before lending them,
+ * makes callers wait at most borrowTimeoutMillis for a free connection, and closes connections
+ * that have been idle longer than idleTimeoutMillis while keeping at least minSize open.
+ *
+ * When the pool is given a {@link MetricsRegistry} or a {@link SlowQueryLog}, statements created through its
+ * connections are proxies too. They time each execute call, record it in the registry and hand statements
+ * slower than the log's threshold to the log, along with their bound parameters and, if enabled, their plan.
+ *
+ * With a statement cache size above zero, each physical connection also keeps an LRU cache of the prepared
+ * statements created through it, keyed by SQL and any extra prepareStatement arguments, which outlives the
+ * borrow. Preparing the same SQL again on a later borrow reuses the cached statement instead of having the
+ * database parse and plan it again. Closing a cached statement, or returning the connection, puts it back in
+ * the cache with its parameters, batch and result sets cleared. A statement whose SQL is already in use on the
+ * connection is prepared afresh and closed as usual.
+ *
+ * Only selects, inserts, updates, deletes and merges are cached. Anything else, such as DDL or a script, is
+ * prepared afresh every time, and executing it through any of the pool's connections counts as a schema
+ * change: every connection then closes its cached statements instead of reusing plans made against the old
+ * schema.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /** How long, in seconds, a connection may take to answer a validation check on borrow. */
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final DataSource dataSource;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutNanos;
+    private final long borrowTimeoutMillis;
+    private final MetricsRegistry metrics;
+    private final SlowQueryLog slowQueries;
+    private final int statementCacheSize;
+
+    /** Idle connections, most recently returned first so that hot connections are reused. */
+    private final LinkedBlockingDeque<IdleConnection> idle = new LinkedBlockingDeque<>();
+    /** One permit per connection that may be lent out at the same time. */
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder borrowNanos = new LongAdder();
+    private final AtomicLong maxBorrowNanos = new AtomicLong();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder evictedCount = new LongAdder();
+    private final LongAdder statementHitCount = new LongAdder();
+    private final LongAdder statementMissCount = new LongAdder();
+    private final LongAdder statementEvictedCount = new LongAdder();
+    /** Bumped whenever a statement that may change the schema is executed, invalidating cached statements. */
+    private final AtomicLong schemaVersion = new AtomicLong();
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a pool over the given data source and starts its background housekeeping thread.
+     * No connection is opened until the first borrow or housekeeping run.
+     *
+     * @param dataSource the source of physical connections
+     * @param minSize the number of idle connections to keep open once the pool is in use
+     * @param maxSize the maximum number of connections that may be open at once
+     * @param idleTimeoutMillis how long a connection may sit idle before it is closed
+     * @param borrowTimeoutMillis how long {@link #borrow()} waits for a free connection
+     */
+    public ConnectionPool(DataSource dataSource, int minSize, int maxSize, long idleTimeoutMillis, long borrowTimeoutMillis) {
+        this(dataSource, minSize, maxSize, idleTimeoutMillis, borrowTimeoutMillis, null);
+    }
+
+    /**
+     * Creates a pool as above that records the execution time of every statement run through its connections.
+     *
+     * @param dataSource the source of physical connections
+     * @param minSize the number of idle connections to keep open once the pool is in use
+     * @param maxSize the maximum number of connections that may be open at once
+     * @param idleTimeoutMillis how long a connection may sit idle before it is closed
+     * @param borrowTimeoutMillis how long {@link #borrow()} waits for a free connection
+     * @param metrics the registry statement timings are recorded in, or null to record nothing
+     */
+    public ConnectionPool(DataSource dataSource, int minSize, int maxSize, long idleTimeoutMillis, long borrowTimeoutMillis,
+            MetricsRegistry metrics) {
+        this(dataSource, minSize, maxSize, idleTimeoutMillis, borrowTimeoutMillis, metrics, null);
+    }
+
+    /**
+     * Creates a pool as above that also logs statements slower than the slow query log's threshold.
+     *
+     * @param dataSource the source of physical connections
+     * @param minSize the number of idle connections to keep open once the pool is in use
+     * @param maxSize the maximum number of connections that may be open at once
+     * @param idleTimeoutMillis how long a connection may sit idle before it is closed
+     * @param borrowTimeoutMillis how long {@link #borrow()} waits for a free connection
+     * @param metrics the registry statement timings are recorded in, or null to record nothing
+     * @param slowQueries the log slow statements are recorded in, or null to log nothing
+     */
+    public ConnectionPool(DataSource dataSource, int minSize, int maxSize, long idleTimeoutMillis, long borrowTimeoutMillis,
+            MetricsRegistry metrics, SlowQueryLog slowQueries) {
+        this(dataSource, minSize, maxSize, idleTimeoutMillis, borrowTimeoutMillis, metrics, slowQueries, 0);
+    }
+
+    /**
+     * Creates a pool as above that caches up to statementCacheSize prepared statements per connection.
+     *
+     * @param dataSource the source of physical connections
+     * @param minSize the number of idle connections to keep open once the pool is in use
+     * @param maxSize the maximum number of connections that may be open at once
+     * @param idleTimeoutMillis how long a connection may sit idle before it is closed
+     * @param borrowTimeoutMillis how long {@link #borrow()} waits for a free connection
+     * @param metrics the registry statement timings are recorded in, or null to record nothing
+     * @param slowQueries the log slow statements are recorded in, or null to log nothing
+     * @param statementCacheSize the most prepared statements each connection keeps, or 0 to cache none
+     */
+    public ConnectionPool(DataSource dataSource, int minSize, int maxSize, long idleTimeoutMillis, long borrowTimeoutMillis,
+            MetricsRegistry metrics, SlowQueryLog slowQueries, int statementCacheSize) {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Pool sizes must satisfy 0 <= minSize <= maxSize and maxSize >= 1");
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("statementCacheSize must not be negative");
+        }
+        this.dataSource = dataSource;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.metrics = metrics;
+        this.slowQueries = slowQueries;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        long interval = Math.max(1000, Math.min(idleTimeoutMillis / 2, 30_000));
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.housekeeper.scheduleWithFixedDelay(this::housekeep, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Lends out a connection, reusing a validated idle connection when one is available and
+     * opening a new one otherwise. The caller must close the returned connection to give it back.
+     *
+     * @return a pooled connection
+     * @throws SQLTimeoutException if no connection became free within the borrow timeout
+     * @throws SQLException if a new connection could not be opened
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool has been closed");
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        waiters.incrementAndGet();
+        try {
+            acquired = permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waiters.decrementAndGet();
+        }
+        if (!acquired) {
+            timeoutCount.increment();
+            throw new SQLTimeoutException("Timed out after " + borrowTimeoutMillis
+                    + " ms waiting for a database connection (pool size " + maxSize + ")");
+        }
+
+        try {
+            IdleConnection taken = takeIdleOrOpen();
+            active.incrementAndGet();
+            long elapsed = System.nanoTime() - start;
+            borrowCount.increment();
+            borrowNanos.add(elapsed);
+            maxBorrowNanos.accumulateAndGet(elapsed, Math::max);
+            return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, new PooledConnection(taken.physical, taken.statementCache));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Closes every idle connection and stops the housekeeping thread. Connections that are still
+     * borrowed are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        IdleConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            discard(connection.physical);
+        }
+    }
+
+    // pool statistics
+
+    /** @return the number of connections currently lent out */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    /** @return the number of open connections waiting in the pool */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /** @return the number of callers currently waiting for a connection */
+    public int getWaiterCount() {
+        return waiters.get();
+    }
+
+    /** @return the number of physical connections currently open */
+    public int getOpenCount() {
+        return open.get();
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /** @return the number of successful borrows since the pool was created */
+    public long getBorrowCount() {
+        return borrowCount.sum();
+    }
+
+    /** @return the number of borrows that gave up after the borrow timeout */
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    /** @return the number of physical connections opened since the pool was created */
+    public long getCreatedCount() {
+        return createdCount.sum();
+    }
+
+    /** @return the number of connections closed for being idle too long or failing validation */
+    public long getEvictedCount() {
+        return evictedCount.sum();
+    }
+
+    /** @return the number of prepareStatement calls answered from a connection's statement cache */
+    public long getStatementCacheHitCount() {
+        return statementHitCount.sum();
+    }
+
+    /** @return the number of prepareStatement calls for cacheable SQL that had to prepare a new statement */
+    public long getStatementCacheMissCount() {
+        return statementMissCount.sum();
+    }
+
+    /** @return the number of cached statements closed to make room for others */
+    public long getStatementCacheEvictionCount() {
+        return statementEvictedCount.sum();
+    }
+
+    /**
+     * @return the fraction of cacheable prepareStatement calls that were hits, or 0 if there have been none
+     */
+    public double getStatementCacheHitRate() {
+        long hits = statementHitCount.sum();
+        long total = hits + statementMissCount.sum();
+        return total == 0 ? 0 : hits / (double) total;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /** @return the mean time, in milliseconds, that a successful borrow took */
+    public double getAverageBorrowMillis() {
+        long count = borrowCount.sum();
+        return count == 0 ? 0 : borrowNanos.sum() / (double) count / 1_000_000;
+    }
+
+    /** @return the longest time, in milliseconds, that a successful borrow took */
+    public double getMaxBorrowMillis() {
+        return maxBorrowNanos.get() / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConnectionPool{active=%d, idle=%d, waiters=%d, open=%d, max=%d, borrows=%d, timeouts=%d, avgBorrowMs=%.3f, maxBorrowMs=%.3f, statementHitRate=%.3f}",
+                getActiveCount(), getIdleCount(), getWaiterCount(), getOpenCount(), maxSize, getBorrowCount(),
+                getTimeoutCount(), getAverageBorrowMillis(), getMaxBorrowMillis(), getStatementCacheHitRate());
+    }
+
+    // below are helper methods
+
+    /**
+     * Takes the most recently used idle connection that passes validation, or opens a new one.
+     * The caller must already hold a permit.
+     */
+    private IdleConnection takeIdleOrOpen() throws SQLException {
+        IdleConnection candidate;
+        while ((candidate = idle.pollFirst()) != null) {
+            if (isValid(candidate.physical)) {
+                return candidate;
+            }
+            evictedCount.increment();
+            discard(candidate.physical);
+        }
+        open.incrementAndGet();
+        return new IdleConnection(openPhysical(), newStatementCache(), System.nanoTime());
+    }
+
+    /**
+     * @return an empty statement cache for a newly opened connection, or null if statements are not cached
+     */
+    private StatementCache newStatementCache() {
+        return statementCacheSize > 0 ? new StatementCache() : null;
+    }
+
+    /**
+     * Opens a physical connection for a slot that has already been counted in {@code open}.
+     */
+    private Connection openPhysical() throws SQLException {
+        try {
+            Connection physical = dataSource.getConnection();
+            createdCount.increment();
+            return physical;
+        } catch (SQLException | RuntimeException e) {
+            open.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private boolean isValid(Connection physical) {
+        try {
+            return !physical.isClosed() && physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Puts a physical connection back in the pool once its borrower is done with it, rolling back
+     * any open transaction, or closes it if it is broken or the pool is over capacity. Its cached
+     * statements stay with it.
+     */
+    private void release(Connection physical, StatementCache statementCache) {
+        try {
+            if (closed || open.get() > maxSize || physical.isClosed()) {
+                discard(physical);
+                return;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            physical.clearWarnings();
+            idle.offerFirst(new IdleConnection(physical, statementCache, System.nanoTime()));
+        } catch (SQLException e) {
+            discard(physical);
+        } finally {
+            active.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    private void discard(Connection physical) {
+        open.decrementAndGet();
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Closes connections that have been idle longer than the idle timeout, oldest first, without
+     * going below minSize, then tops the pool back up to minSize idle connections.
+     */
+    private void housekeep() {
+        try {
+            long cutoff = System.nanoTime() - idleTimeoutNanos;
+            Iterator<IdleConnection> oldestFirst = idle.descendingIterator();
+            while (idle.size() > minSize && oldestFirst.hasNext()) {
+                IdleConnection connection = oldestFirst.next();
+                if (connection.idleSince - cutoff < 0 && idle.remove(connection)) {
+                    evictedCount.increment();
+                    discard(connection.physical);
+                }
+            }
+
+            while (!closed && idle.size() < minSize && reserveSlot()) {
+                idle.offerLast(new IdleConnection(openPhysical(), newStatementCache(), System.nanoTime()));
+            }
+        } catch (SQLException | RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Counts a new connection towards the open total if the pool still has room for it.
+     */
+    private boolean reserveSlot() {
+        int current;
+        do {
+            current = open.get();
+            if (current >= maxSize) {
+                return false;
+            }
+        } while (!open.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * An open physical connection waiting in the pool, along with its statement cache and when it was returned.
+     */
+    private static final class IdleConnection {
+        private final Connection physical;
+        private final StatementCache statementCache;
+        private final long idleSince;
+
+        private IdleConnection(Connection physical, StatementCache statementCache, long idleSince) {
+            this.physical = physical;
+            this.statementCache = statementCache;
+            this.idleSince = idleSince;
+        }
+    }
+
+    /**
+     * A prepared statement kept open on its connection, and whether a borrower is using it. The settings a
+     * borrower may change are remembered as they were when it was prepared, to be restored on release.
+     */
+    private static final class CachedStatement {
+        private final String key;
+        private final PreparedStatement statement;
+        private final int fetchSize;
+        private final int maxRows;
+        private final int queryTimeout;
+        /** The pool's schema version when the statement was prepared. */
+        private final long schemaVersion;
+        private boolean inUse;
+
+        private CachedStatement(String key, PreparedStatement statement, long schemaVersion) throws SQLException {
+            this.key = key;
+            this.statement = statement;
+            this.schemaVersion = schemaVersion;
+            this.fetchSize = statement.getFetchSize();
+            this.maxRows = statement.getMaxRows();
+            this.queryTimeout = statement.getQueryTimeout();
+        }
+    }
+
+    /**
+     * One connection's prepared statements, least recently used first. Only the connection's current
+     * borrower touches it, so it needs no locking.
+     */
+    private final class StatementCache {
+        private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+        /** The schema version the idle statements were last checked against. */
+        private long schemaVersion = ConnectionPool.this.schemaVersion.get();
+
+        /**
+         * @return the idle cached statement for the key, marked in use, or null if there is none
+         */
+        private CachedStatement take(String key) throws SQLException {
+            dropStale();
+            CachedStatement cached = statements.get(key);
+            if (cached == null || cached.inUse) {
+                return null;
+            }
+            if (cached.statement.isClosed()) {
+                statements.remove(key);
+                return null;
+            }
+            cached.inUse = true;
+            return cached;
+        }
+
+        /**
+         * Caches a newly prepared statement, marked in use, closing the least recently used idle statement if
+         * the cache is full.
+         *
+         * @return the cache entry, or null if the key is already cached or every cached statement is in use
+         */
+        private CachedStatement add(String key, PreparedStatement statement) throws SQLException {
+            dropStale();
+            if (statements.containsKey(key)) {
+                return null;
+            }
+            if (statements.size() >= statementCacheSize) {
+                Iterator<CachedStatement> leastRecentFirst = statements.values().iterator();
+                CachedStatement victim = null;
+                while (victim == null && leastRecentFirst.hasNext()) {
+                    CachedStatement candidate = leastRecentFirst.next();
+                    if (!candidate.inUse) {
+                        victim = candidate;
+                        leastRecentFirst.remove();
+                    }
+                }
+                if (victim == null) {
+                    return null;
+                }
+                statementEvictedCount.increment();
+                close(victim);
+            }
+            CachedStatement cached = new CachedStatement(key, statement, schemaVersion);
+            cached.inUse = true;
+            statements.put(key, cached);
+            return cached;
+        }
+
+        /**
+         * Makes a statement available to the next borrower, or drops it if it could not be reset or the
+         * schema has changed since it was prepared.
+         */
+        private void release(CachedStatement cached, boolean reset) {
+            if (reset && cached.schemaVersion == ConnectionPool.this.schemaVersion.get()) {
+                cached.inUse = false;
+            } else {
+                statements.remove(cached.key);
+                close(cached);
+            }
+        }
+
+        /**
+         * Closes the idle statements prepared before the last schema change. Statements in use are dropped when
+         * they are released.
+         */
+        private void dropStale() {
+            long current = ConnectionPool.this.schemaVersion.get();
+            if (schemaVersion == current) {
+                return;
+            }
+            schemaVersion = current;
+            Iterator<CachedStatement> all = statements.values().iterator();
+            while (all.hasNext()) {
+                CachedStatement cached = all.next();
+                if (!cached.inUse && cached.schemaVersion != current) {
+                    all.remove();
+                    close(cached);
+                }
+            }
+        }
+
+        private void close(CachedStatement cached) {
+            try {
+                cached.statement.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * The invocation handler behind each borrowed connection. It forwards calls to the physical
+     * connection, remembers the statements created through it, answers prepareStatement from the
+     * connection's statement cache when it has one, and turns close() into a return to the pool.
+     */
+    private final class PooledConnection implements InvocationHandler {
+        private final Connection physical;
+        private final StatementCache statementCache;
+        private final List<Statement> statements = new ArrayList<>();
+        /** The cached statements handed out during this borrow, released when the connection is returned. */
+        private final List<PooledStatement> cachedStatements = new ArrayList<>();
+        private boolean returned;
+
+        private PooledConnection(Connection physical, StatementCache statementCache) {
+            this.physical = physical;
+            this.statementCache = statementCache;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        closeStatements();
+                        release(physical, statementCache);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + physical;
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if (statementCache != null && "prepareStatement".equals(method.getName()) && isCacheable((String) args[0])) {
+                return prepareCached(method, args);
+            }
+
+            Object result = forward(physical, method, args);
+            if (result instanceof Statement) {
+                statements.add((Statement) result);
+                if ((metrics != null || slowQueries != null || statementCache != null)
+                        && method.getReturnType().isInterface()) {
+                    String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                    return proxyFor(method.getReturnType(), new PooledStatement(physical, (Statement) result, sql, null, null));
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Hands out the connection's cached statement for the SQL and arguments if it is idle, or prepares a
+         * new one and caches it if there is room.
+         */
+        private Object prepareCached(Method method, Object[] args) throws Throwable {
+            String sql = (String) args[0];
+            String key = cacheKey(args);
+            CachedStatement cached = statementCache.take(key);
+            if (cached != null) {
+                statementHitCount.increment();
+            } else {
+                statementMissCount.increment();
+                PreparedStatement statement = (PreparedStatement) forward(physical, method, args);
+                try {
+                    cached = statementCache.add(key, statement);
+                } catch (SQLException e) {
+                    statement.close();
+                    throw e;
+                }
+                if (cached == null) {
+                    statements.add(statement);
+                    return metrics != null || slowQueries != null
+                            ? proxyFor(PreparedStatement.class, new PooledStatement(physical, statement, sql, null, null))
+                            : statement;
+                }
+            }
+            PooledStatement handler = new PooledStatement(physical, cached.statement, sql, statementCache, cached);
+            cachedStatements.add(handler);
+            return proxyFor(PreparedStatement.class, handler);
+        }
+
+        /**
+         * Closes the statements opened during this borrow; the DAOs rely on closing the
+         * connection to release them, which no longer happens once connections are reused.
+         * Cached statements are reset and kept for the next borrower instead.
+         */
+        private void closeStatements() {
+            for (Statement statement : statements) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+            statements.clear();
+            for (PooledStatement statement : cachedStatements) {
+                statement.release();
+            }
+            cachedStatements.clear();
+        }
+    }
+
+    /**
+     * The invocation handler behind each statement that is cached or whose executions are recorded. It
+     * forwards calls to the physical statement, times the execute methods and, when statements are cached,
+     * bumps the pool's schema version after executing anything but a select, insert, update, delete or merge. A prepared statement's SQL is
+     * known when it is created, and its parameters are remembered as they are bound so that a slow execution
+     * can be logged with them; a plain statement's SQL is passed to each execute call.
+     *
+     * For a cached statement, close() releases it back to its connection's cache, closing the result sets it
+     * produced, clearing its parameters and batch and restoring any settings the borrower changed.
+     */
+    private final class PooledStatement implements InvocationHandler {
+        private final Connection connection;
+        private final Statement physical;
+        private final String sql;
+        /** The cache the statement belongs to and its entry there, or null if the statement is not cached. */
+        private final StatementCache statementCache;
+        private final CachedStatement cached;
+        /** The bound parameters by position, or null when slow statements are not logged or there is no SQL yet. */
+        private final Map<Integer, Object> parameters;
+        /** The result sets produced by the last execution of a cached statement, closed on release. */
+        private final List<ResultSet> resultSets;
+        private int batchSize;
+        private boolean settingsChanged;
+        private boolean released;
+
+        private PooledStatement(Connection connection, Statement physical, String sql, StatementCache statementCache,
+                CachedStatement cached) {
+            this.connection = connection;
+            this.physical = physical;
+            this.sql = sql;
+            this.statementCache = statementCache;
+            this.cached = cached;
+            this.parameters = slowQueries != null && sql != null ? new TreeMap<>() : null;
+            this.resultSets = cached != null ? new ArrayList<>(1) : null;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + physical;
+                case "close":
+                    if (cached == null) {
+                        return forward(physical, method, args);
+                    }
+                    release();
+                    return null;
+                case "isClosed":
+                    if (cached != null) {
+                        return released || physical.isClosed();
+                    }
+                    break;
+                default:
+                    break;
+            }
+            if (released) {
+                throw new SQLException("Statement has already been closed");
+            }
+
+            switch (name) {
+                case "clearParameters":
+                    if (parameters != null) {
+                        parameters.clear();
+                    }
+                    break;
+                case "addBatch":
+                    batchSize++;
+                    break;
+                case "clearBatch":
+                    batchSize = 0;
+                    break;
+                case "setFetchSize":
+                case "setMaxRows":
+                case "setLargeMaxRows":
+                case "setQueryTimeout":
+                    settingsChanged = true;
+                    break;
+                default:
+                    if (parameters != null && name.startsWith("set") && args != null && args.length >= 2
+                            && args[0] instanceof Integer) {
+                        parameters.put((Integer) args[0], "setNull".equals(name) ? null : args[1]);
+                    }
+                    break;
+            }
+
+            Object result;
+            if (name.startsWith("execute")) {
+                if (resultSets != null) {
+                    resultSets.clear();
+                }
+                try {
+                    result = metrics != null || slowQueries != null ? timedExecute(name, method, args) : forward(physical, method, args);
+                } finally {
+                    String executed = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+                    if (statementCacheSize > 0 && !isCacheable(executed)) {
+                        schemaVersion.incrementAndGet();
+                    }
+                }
+            } else {
+                result = forward(physical, method, args);
+            }
+            if (resultSets != null && result instanceof ResultSet) {
+                resultSets.add((ResultSet) result);
+            }
+            return result;
+        }
+
+        /**
+         * Runs an execute method, recording its time in the registry and, if it was slow, in the slow query log.
+         */
+        private Object timedExecute(String name, Method method, Object[] args) throws Throwable {
+            boolean batch = name.endsWith("Batch");
+            long start = System.nanoTime();
+            boolean succeeded = false;
+            try {
+                Object result = forward(physical, method, args);
+                succeeded = true;
+                return result;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                String executed = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+                if (metrics != null) {
+                    metrics.recordQuery(executed, elapsed);
+                }
+                if (slowQueries != null && slowQueries.isSlow(elapsed)) {
+                    String plan = succeeded && !batch && slowQueries.isExplainEnabled() ? explain(executed) : null;
+                    slowQueries.record(executed, parameters, batch ? batchSize : 1, elapsed, plan);
+                }
+                if (batch) {
+                    batchSize = 0;
+                }
+            }
+        }
+
+        /**
+         * Resets a cached statement and gives it back to the cache; a statement that cannot be reset is closed
+         * and dropped from the cache instead.
+         */
+        private void release() {
+            if (released) {
+                return;
+            }
+            released = true;
+            boolean reset = true;
+            try {
+                for (ResultSet resultSet : resultSets) {
+                    resultSet.close();
+                }
+                PreparedStatement statement = cached.statement;
+                statement.clearParameters();
+                if (batchSize > 0) {
+                    statement.clearBatch();
+                }
+                if (settingsChanged) {
+                    statement.setFetchSize(cached.fetchSize);
+                    statement.setMaxRows(cached.maxRows);
+                    statement.setQueryTimeout(cached.queryTimeout);
+                }
+                statement.clearWarnings();
+            } catch (SQLException e) {
+                reset = false;
+            }
+            statementCache.release(cached, reset);
+        }
+
+        /**
+         * Asks the database for the plan of a statement that was just executed, binding the same parameters.
+         * A select is run again under EXPLAIN ANALYZE to report actual row counts; anything else is only
+         * planned, never executed twice.
+         *
+         * @return the plan, or a description of why it could not be captured
+         */
+        private String explain(String executed) {
+            if (executed == null) {
+                return null;
+            }
+            String prefix = "select".equals(MetricsRegistry.operationOf(executed)) ? "EXPLAIN ANALYZE " : "EXPLAIN ";
+            try (PreparedStatement statement = connection.prepareStatement(prefix + executed)) {
+                if (parameters != null) {
+                    for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+                        statement.setObject(parameter.getKey(), parameter.getValue());
+                    }
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        if (plan.length() > 0) {
+                            plan.append('\n');
+                        }
+                        plan.append(resultSet.getString(1));
+                    }
+                }
+                return plan.toString();
+            } catch (SQLException e) {
+                return "Plan unavailable: " + e.getMessage();
+            }
+        }
+    }
+
+    /**
+     * @return whether statements with the SQL may be cached: only selects, inserts, updates, deletes and merges,
+     * which cannot change the schema the cached plans were made against
+     */
+    private static boolean isCacheable(String sql) {
+        return !"other".equals(MetricsRegistry.operationOf(sql));
+    }
+
+    private static Object proxyFor(Class<?> type, InvocationHandler handler) {
+        return Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+
+    private static Object forward(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * @return the statement cache key for prepareStatement's arguments: the SQL, followed by any
+     * generated-key, result set type or holdability arguments
+     */
+    private static String cacheKey(Object[] args) {
+        if (args.length == 1) {
+            return (String) args[0];
+        }
+        StringBuilder key = new StringBuilder((String) args[0]);
+        for (int i = 1; i < args.length; i++) {
+            key.append('\u0000');
+            if (args[i] instanceof int[]) {
+                key.append(Arrays.toString((int[]) args[i]));
+            } else if (args[i] instanceof Object[]) {
+                key.append(Arrays.toString((Object[]) args[i]));
+            } else {
+                key.append(args[i]);
+            }
+        }
+        return key.toString();
+    }
+}
@@ -5,38 +5,86 @@ import java.sql.SQLException;
 import org.h2.jdbcx.JdbcDataSource;
 
 /**
-This class provides autility methods and configuration for managing database connections for an H2 database. It uses a JdbcDataSource connection pool to manage connections efficiently.
+This class provides autility methods and configuration for managing database connections for an H2 database. It lends out connections from a bounded ConnectionPool so that each DAO call reuses an open H2 session instead of creating a new one.
 
-You do not need to edit this class.
+The database credentials and pool sizing can be overridden with system properties or environment variables (see ConfigUtil):
+recipe.db.url, recipe.db.user, recipe.db.password, recipe.db.pool.minSize, recipe.db.pool.maxSize,
+recipe.db.pool.idleTimeoutMillis, recipe.db.pool.borrowTimeoutMillis and recipe.db.pool.statementCacheSize, the number of
+prepared statements each pooled connection keeps open for reuse (default 32, 0 to disable).
+
+The time taken to get each connection, the execution time of every statement and the pool's statistics are
+recorded in the default MetricsRegistry. Statements slower than the recipe.db.slowQuery.thresholdMillis setting are
+kept, with their bound parameters less any sensitive ones, in a SlowQueryLog (see that class for its settings).
 
  */
 public class ConnectionUtil {
 
     // fields
-	private static String url = "jdbc:h2:./h2/db;";
-	private static String username = "sa";
-	private static String password = "";
-	private static JdbcDataSource pool = new JdbcDataSource();
+	private static String url = ConfigUtil.getString("recipe.db.url", "jdbc:h2:./h2/db;");
+	private static String username = ConfigUtil.getString("recipe.db.user", "sa");
+	private static String password = ConfigUtil.getString("recipe.db.password", "");
+	private static JdbcDataSource dataSource = new JdbcDataSource();
+	private static ConnectionPool pool;
+	private static SlowQueryLog slowQueryLog = new SlowQueryLog();
 
 	/**
-	 * static initialization block to establish credentials for DataSoure Pool
+	 * static initialization block to establish credentials for the DataSource and size the ConnectionPool in front of it
 	 */
 	static {
-		pool.setURL(url);
-		pool.setUser(username);
-		pool.setPassword(password);
+		dataSource.setURL(url);
+		dataSource.setUser(username);
+		dataSource.setPassword(password);
+		pool = new ConnectionPool(dataSource,
+				ConfigUtil.getInt("recipe.db.pool.minSize", 2),
+				ConfigUtil.getInt("recipe.db.pool.maxSize", 10),
+				ConfigUtil.getLong("recipe.db.pool.idleTimeoutMillis", 300_000),
+				ConfigUtil.getLong("recipe.db.pool.borrowTimeoutMillis", 5_000),
+				MetricsRegistry.getDefault(),
+				slowQueryLog,
+				ConfigUtil.getInt("recipe.db.pool.statementCacheSize", 32));
+		registerPoolMetrics(MetricsRegistry.getDefault());
+	}
+
+	/**
+	 * @return an active connection to the database, which is returned to the pool when closed
+	 * @throws SQLException if no connection became free within the borrow timeout or one could not be opened
+	 */
+	public Connection getConnection() throws SQLException {
+		long start = System.nanoTime();
+		Connection connection = pool.borrow();
+		MetricsRegistry.getDefault().recordConnectionAcquire(System.nanoTime() - start);
+		return connection;
+	}
+
+	/**
+	 * @return the pool shared by every ConnectionUtil, for reading its statistics
+	 */
+	public ConnectionPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * @return the log of slow statements run through the shared pool
+	 */
+	public SlowQueryLog getSlowQueryLog() {
+		return slowQueryLog;
 	}
 
 	/**
-	 * @return an active connection to the database
+	 * Exposes the pool's statistics as gauges and counters in the given registry
 	 */
-	public Connection getConnection() {
-		try {
-			return pool.getConnection();
-		} catch (SQLException e) {
-			e.printStackTrace();
-		}
-
-		return null;
+	private static void registerPoolMetrics(MetricsRegistry metrics) {
+		metrics.registerGauge("db_pool_active_connections", "Connections currently lent out.", pool::getActiveCount);
+		metrics.registerGauge("db_pool_idle_connections", "Open connections waiting in the pool.", pool::getIdleCount);
+		metrics.registerGauge("db_pool_waiting_threads", "Callers waiting for a connection.", pool::getWaiterCount);
+		metrics.registerGauge("db_pool_max_connections", "The most connections the pool may open.", pool::getMaxSize);
+		metrics.registerCounter("db_pool_timeouts_total", "Borrows that gave up waiting for a connection.", pool::getTimeoutCount);
+		metrics.registerCounter("db_pool_created_total", "Physical connections opened.", pool::getCreatedCount);
+		metrics.registerCounter("db_pool_evicted_total", "Connections closed for being idle or invalid.", pool::getEvictedCount);
+		metrics.registerCounter("db_statement_cache_hits_total", "Prepared statements reused from a connection's cache.", pool::getStatementCacheHitCount);
+		metrics.registerCounter("db_statement_cache_misses_total", "Cacheable prepared statements that had to be prepared.", pool::getStatementCacheMissCount);
+		metrics.registerCounter("db_statement_cache_evictions_total", "Cached statements closed to make room for others.", pool::getStatementCacheEvictionCount);
+		metrics.registerGauge("db_statement_cache_hit_ratio", "Fraction of cacheable prepared statements reused.", pool::getStatementCacheHitRate);
+		metrics.registerCounter("db_slow_queries_total", "Statements slower than the slow query threshold.", slowQueryLog::getSlowCount);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.revature.util;
+
+import java.io.IOException;
+
+/**
+ * The CsvFormatException class signals that CSV input is malformed, as opposed to unreadable, so that callers
+ * can report it as an input error with the line it was found on.
+ */
+public class CsvFormatException extends IOException {
+
+    private final int line;
+
+    /**
+     * @param message what is wrong with the input
+     * @param line the line of the input on which the malformed record starts
+     */
+    public CsvFormatException(String message, int line) {
+        super(message);
+        this.line = line;
+    }
+
+    /** @return the line of the input on which the malformed record starts */
+    public int getLine() {
+        return line;
+    }
+}
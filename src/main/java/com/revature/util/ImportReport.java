@@ -0,0 +1,165 @@
+package com.revature.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * The ImportReport class summarizes a bulk import: how many recipes and new ingredients were written, how
+ * long it took, and the throughput of every chunk, so that a slow or failing chunk stands out. Each chunk is
+ * committed in its own transaction; a failed chunk is rolled back and reported, and the import continues
+ * with the next one. An input error stops the import and is reported in {@link #getError()}; chunks
+ * committed before it remain.
+ */
+public class ImportReport {
+
+    /** The outcome of one chunk, committed or rolled back as a whole. */
+    public static class Chunk {
+
+        private final int number;
+        private final int recipes;
+        private final int ingredientRows;
+        private final long nanos;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private final String error;
+
+        /**
+         * @param number the position of the chunk in the import, starting at 1
+         * @param recipes the number of recipes in the chunk
+         * @param ingredientRows the number of recipe ingredient rows in the chunk
+         * @param nanos the time taken to write the chunk
+         * @param error why the chunk was rolled back, or null if it was committed
+         */
+        public Chunk(int number, int recipes, int ingredientRows, long nanos, String error) {
+            this.number = number;
+            this.recipes = recipes;
+            this.ingredientRows = ingredientRows;
+            this.nanos = nanos;
+            this.error = error;
+        }
+
+        /** @return the position of the chunk in the import, starting at 1 */
+        public int getNumber() {
+            return number;
+        }
+
+        /** @return the number of recipes in the chunk */
+        public int getRecipes() {
+            return recipes;
+        }
+
+        /** @return the number of recipe ingredient rows in the chunk */
+        public int getIngredientRows() {
+            return ingredientRows;
+        }
+
+        /** @return the time taken to resolve ingredients and write the chunk */
+        public long getMillis() {
+            return nanos / 1_000_000;
+        }
+
+        public double getRecipesPerSecond() {
+            return perSecond(recipes, nanos);
+        }
+
+        /** @return why the chunk was rolled back, or null if it was committed */
+        public String getError() {
+            return error;
+        }
+    }
+
+    private final String format;
+    private final int batchSize;
+    private final List<Chunk> chunks = new ArrayList<>();
+    private int recipesImported;
+    private int recipesFailed;
+    private int ingredientsCreated;
+    private long totalNanos;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+
+    /**
+     * @param format the input format, "ndjson" or "csv"
+     * @param batchSize the number of recipes per chunk
+     */
+    public ImportReport(String format, int batchSize) {
+        this.format = format;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Records a finished chunk.
+     *
+     * @param chunk the chunk's outcome
+     */
+    public void addChunk(Chunk chunk) {
+        chunks.add(chunk);
+        if (chunk.getError() == null) {
+            recipesImported += chunk.getRecipes();
+        } else {
+            recipesFailed += chunk.getRecipes();
+        }
+    }
+
+    public void addIngredientsCreated(int count) {
+        ingredientsCreated += count;
+    }
+
+    /**
+     * @param totalNanos the time taken by the whole import
+     */
+    public void setTotalNanos(long totalNanos) {
+        this.totalNanos = totalNanos;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /** @return the number of recipes committed */
+    public int getRecipesImported() {
+        return recipesImported;
+    }
+
+    /** @return the number of recipes in chunks that were rolled back */
+    public int getRecipesFailed() {
+        return recipesFailed;
+    }
+
+    /** @return the number of ingredients that did not exist yet and were created */
+    public int getIngredientsCreated() {
+        return ingredientsCreated;
+    }
+
+    public long getTotalMillis() {
+        return totalNanos / 1_000_000;
+    }
+
+    /** @return the committed recipes per second over the whole import */
+    public double getRecipesPerSecond() {
+        return perSecond(recipesImported, totalNanos);
+    }
+
+    /** @return the error that stopped the import early, or null if all input was read */
+    public String getError() {
+        return error;
+    }
+
+    public List<Chunk> getChunks() {
+        return chunks;
+    }
+
+    /** @return the rate rounded to one decimal place */
+    private static double perSecond(int count, long nanos) {
+        return nanos == 0 ? 0 : Math.round(count * 1e10 / nanos) / 10.0;
+    }
+}
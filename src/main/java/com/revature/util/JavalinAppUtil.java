@@ -2,8 +2,11 @@ package com.revature.util;
 import com.revature.controller.RecipeController;
 
 import io.javalin.Javalin;
+import io.javalin.http.Context;
 
+import com.revature.controller.AdminController;
 import com.revature.controller.AuthenticationController;
+import com.revature.controller.ImportController;
 import com.revature.controller.IngredientController;
 
 
@@ -15,10 +18,20 @@ import com.revature.controller.IngredientController;
  * to create and configure the Javalin app instance, including defining 
  * the routes for each controller and applying any necessary middleware, 
  * such as admin middleware.
+ *
+ * Unless the "recipe.metrics.enabled" setting is false, every request is also
+ * timed and counted by route in the default MetricsRegistry, which is served
+ * in the Prometheus text format at GET /metrics.
  */
 
 public class JavalinAppUtil {
 
+    /**
+     * The request attribute holding the time, from System.nanoTime(), a request started.
+     */
+
+    private static final String REQUEST_START = "metrics.requestStart";
+
     /**
      * The RecipeController for handling recipe-related routes.
      */
@@ -37,6 +50,18 @@ public class JavalinAppUtil {
 
     private IngredientController ingredientController;
 
+    /**
+     * The ImportController for the bulk import route, or null if the route is not served.
+     */
+
+    private ImportController importController;
+
+    /**
+     * The AdminController for the admin diagnostic routes, or null if they are not served.
+     */
+
+    private AdminController adminController;
+
     /**
      * Constructs a JavalinAppUtil with the specified controllers.
      *
@@ -51,15 +76,64 @@ public class JavalinAppUtil {
         this.ingredientController = ingredientController;
     }
 
+    /**
+     * Constructs a JavalinAppUtil that also serves the admin-only bulk import route.
+     *
+     * @param recipeController the controller for handling recipe operations
+     * @param authController the controller for handling authentication operations
+     * @param ingredientController the controller for handling ingredient operations
+     * @param importController the controller for handling bulk imports
+     */
+
+    public JavalinAppUtil(RecipeController recipeController, AuthenticationController authController, IngredientController ingredientController, ImportController importController) {
+        this(recipeController, authController, ingredientController);
+        this.importController = importController;
+    }
+
+    /**
+     * Constructs a JavalinAppUtil that also serves the admin-only bulk import and diagnostic routes.
+     *
+     * @param recipeController the controller for handling recipe operations
+     * @param authController the controller for handling authentication operations
+     * @param ingredientController the controller for handling ingredient operations
+     * @param importController the controller for handling bulk imports
+     * @param adminController the controller for handling admin diagnostics
+     */
+
+    public JavalinAppUtil(RecipeController recipeController, AuthenticationController authController, IngredientController ingredientController, ImportController importController, AdminController adminController) {
+        this(recipeController, authController, ingredientController, importController);
+        this.adminController = adminController;
+    }
+
     /**
      * Creates a Javalin instance, configures the routes for all controllers, 
      * and applies any necessary middleware, including admin middleware.
+     *
+     * Requests run on virtual threads when the "recipe.server.virtualThreads"
+     * setting is true; see {@link #getApp(boolean)}.
      *
 	 * (FOR REFERENCE) This method is part of the backend logic.
      * No modifications or implementations are required.
      */
     public Javalin getApp() {
+        return getApp(ConfigUtil.getBoolean("recipe.server.virtualThreads", false));
+    }
+
+    /**
+     * Creates a Javalin instance as {@link #getApp()} does, choosing how requests are executed.
+     *
+     * Every handler blocks on JDBC, so with platform threads the number of requests in
+     * flight is capped by the size of Jetty's thread pool. With virtual threads each
+     * request gets its own cheap thread, and a handler waiting on the database no
+     * longer holds a platform thread. Virtual threads need a JDK 21 runtime; on an
+     * older JDK Javalin keeps its platform thread pool.
+     *
+     * @param useVirtualThreads whether to run request handlers on virtual threads
+     * @return the configured Javalin instance
+     */
+    public Javalin getApp(boolean useVirtualThreads) {
         Javalin app = Javalin.create(config -> {
+            config.useVirtualThreads = useVirtualThreads;
             config.bundledPlugins.enableCors(cors -> {
                 cors.addRule(it -> {
                     it.anyHost();
@@ -67,20 +141,63 @@ public class JavalinAppUtil {
 
             });
 
-            
+            config.jsonMapper(JsonUtil.javalinMapper());
         });
 
+        if (ConfigUtil.getBoolean("recipe.metrics.enabled", true)) {
+            configureMetrics(app, MetricsRegistry.getDefault());
+        }
 
         // Configure routes for each controller
         recipeController.configureRoutes(app);
         authenticationController.configureRoutes(app);
         ingredientController.configureRoutes(app);
+        if (importController != null) {
+            importController.configureRoutes(app);
+        }
+        if (adminController != null) {
+            adminController.configureRoutes(app);
+        }
 
         app.before("/recipes/*", new AdminMiddleware("DELETE"));
         app.before("/ingredients/*", new AdminMiddleware("UPDATE", "CREATE", "DELETE"));
+        app.before("/import", new AdminMiddleware("POST"));
+        app.before("/admin/*", new AdminMiddleware("GET", "DELETE"));
 
         return app;
     }
 
+    /**
+     * Registers before and after handlers that record each request's route, status and
+     * latency, and the GET /metrics route that serves them. The before handler is
+     * registered ahead of any middleware, so requests it rejects are timed too.
+     *
+     * @param app the Javalin instance being configured
+     * @param metrics the registry requests are recorded in
+     */
+    private void configureMetrics(Javalin app, MetricsRegistry metrics) {
+        app.before(ctx -> ctx.attribute(REQUEST_START, System.nanoTime()));
+        app.after(ctx -> {
+            Long start = ctx.attribute(REQUEST_START);
+            if (start != null) {
+                metrics.recordRequest(ctx.method().name(), routeOf(ctx), ctx.statusCode(), System.nanoTime() - start);
+            }
+        });
+        app.get("/metrics", ctx -> ctx.contentType(MetricsRegistry.CONTENT_TYPE).result(metrics.scrape()));
+    }
+
+    /**
+     * @return the path pattern of the endpoint that handled the request, such as
+     * "/recipes/{id}", or MetricsRegistry.UNMATCHED_ROUTE if no endpoint matched
+     */
+    private static String routeOf(Context ctx) {
+        try {
+            String path = ctx.endpointHandlerPath();
+            return path == null || path.isEmpty() ? MetricsRegistry.UNMATCHED_ROUTE : path;
+        } catch (IllegalStateException e) {
+            return MetricsRegistry.UNMATCHED_ROUTE;
+        }
+    }
+
 
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.revature.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The JdbcExecutor class runs blocking database work off the web server's request threads, on a fixed
+ * number of threads with a bounded queue of waiting tasks. Heavy endpoints submit their work here and
+ * complete their response asynchronously, so however many of them arrive at once they hold at most
+ * the executor's threads and connections, leaving request threads and pooled connections free for
+ * lightweight endpoints.
+ *
+ * When every thread is busy and the queue is full, a submission is rejected immediately rather than
+ * queued without limit; callers should answer 503 Service Unavailable so that clients back off.
+ */
+public class JdbcExecutor implements AutoCloseable {
+
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Creates an executor sized from the "recipe.jdbc.executor.threads" (default 4) and
+     * "recipe.jdbc.executor.queueCapacity" (default 100) settings.
+     */
+    public JdbcExecutor() {
+        this(ConfigUtil.getInt("recipe.jdbc.executor.threads", 4),
+                ConfigUtil.getInt("recipe.jdbc.executor.queueCapacity", 100));
+    }
+
+    /**
+     * @param threads the number of threads running database work; keep this below the connection pool's maximum size
+     * @param queueCapacity the largest number of tasks that may wait for a thread
+     */
+    public JdbcExecutor(int threads, int queueCapacity) {
+        if (threads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("threads and queueCapacity must be at least 1");
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "jdbc-executor-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Queues a task.
+     *
+     * @param task the database work to run
+     * @return a future completed when the task finishes, exceptionally if it throws
+     * @throws RejectedExecutionException if the executor is saturated or closed
+     */
+    public CompletableFuture<Void> submit(Runnable task) {
+        try {
+            CompletableFuture<Void> future = CompletableFuture.runAsync(task, executor);
+            submitted.increment();
+            return future;
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Stops accepting tasks and lets queued tasks finish.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /** @return the number of threads currently running a task */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /** @return the number of tasks waiting for a thread */
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    public int getThreadCount() {
+        return executor.getMaximumPoolSize();
+    }
+
+    /** @return the number of tasks accepted */
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+
+    /** @return the number of tasks turned away because the executor was saturated */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("JdbcExecutor[active=%d/%d, queued=%d, submitted=%d, rejected=%d]",
+                getActiveCount(), getThreadCount(), getQueuedCount(), getSubmittedCount(), getRejectedCount());
+    }
+}
@@ -0,0 +1,93 @@
+package com.revature.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * The JsonArrayStream class writes a JSON array to an output stream incrementally, a batch of elements at a
+ * time, so that a response can be sent while its rows are still being read and memory use does not grow with
+ * the number of rows. Each batch is flushed once it is written.
+ *
+ * The output stream is only requested when the array is started, either explicitly or by the first batch, so
+ * a caller can still send a different response if there turns out to be nothing to stream. A caller whose rows
+ * stop arriving part way, such as on a database failure, should {@link #abort()} the array so that it is not
+ * closed off as a shorter but well-formed one.
+ */
+public class JsonArrayStream implements Closeable {
+
+    private final Supplier<OutputStream> output;
+    private JsonGenerator generator;
+    private long count;
+    private boolean aborted;
+
+    /**
+     * @param output supplies the stream to write to; called once, when the array is started
+     */
+    public JsonArrayStream(Supplier<OutputStream> output) {
+        this.output = output;
+    }
+
+    /**
+     * Opens the output stream and writes the start of the array, unless that has already happened.
+     *
+     * @throws IOException if the output cannot be written
+     */
+    public void start() throws IOException {
+        if (generator == null) {
+            generator = JsonUtil.MAPPER.getFactory().createGenerator(output.get());
+            generator.writeStartArray();
+        }
+    }
+
+    /**
+     * Writes a batch of elements and flushes them.
+     *
+     * @param batch the elements to write
+     * @throws IOException if the output cannot be written
+     */
+    public void write(List<?> batch) throws IOException {
+        start();
+        for (Object element : batch) {
+            JsonUtil.STREAM_WRITER.writeValue(generator, element);
+        }
+        count += batch.size();
+        generator.flush();
+    }
+
+    /**
+     * @return true if the array has been started and the output stream is in use
+     */
+    public boolean isStarted() {
+        return generator != null;
+    }
+
+    /** @return the number of elements written */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Marks the array as incomplete. close() then leaves it without its closing bracket and leaves the output
+     * stream open, so the server can fail the response and a reader cannot mistake what was sent for the whole
+     * array.
+     */
+    public void abort() {
+        aborted = true;
+    }
+
+    /**
+     * Writes the end of the array and closes the output stream, if the array was started and not aborted.
+     */
+    @Override
+    public void close() throws IOException {
+        if (generator != null && !aborted) {
+            generator.writeEndArray();
+            generator.close();
+        }
+    }
+}
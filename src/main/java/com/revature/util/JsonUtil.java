@@ -0,0 +1,52 @@
+package com.revature.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.revature.model.Chef;
+import com.revature.model.Ingredient;
+import com.revature.model.Recipe;
+
+import io.javalin.json.JavalinJackson;
+import io.javalin.json.JsonMapper;
+
+/**
+ * The JsonUtil class holds the application's single JSON codec. Building an ObjectMapper is expensive
+ * because it starts with empty serializer and deserializer caches. A shared, fully configured mapper
+ * pays that cost once, so every request reuses the same cached (de)serializers.
+ *
+ * Once configured, an ObjectMapper, along with the ObjectReaders and ObjectWriters derived from it, is
+ * thread-safe. The mapper is never reconfigured after this class is initialized. Javalin is given the
+ * same mapper through {@link #javalinMapper()}, so ctx.json and ctx.bodyAsClass share its caches.
+ */
+public class JsonUtil {
+
+    /** The shared mapper. It must not be reconfigured. */
+    public static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static final ObjectReader RECIPE_READER = MAPPER.readerFor(Recipe.class);
+    public static final ObjectReader INGREDIENT_READER = MAPPER.readerFor(Ingredient.class);
+    public static final ObjectReader CHEF_READER = MAPPER.readerFor(Chef.class);
+
+    public static final ObjectWriter RECIPE_WRITER = MAPPER.writerFor(Recipe.class);
+    public static final ObjectWriter INGREDIENT_WRITER = MAPPER.writerFor(Ingredient.class);
+    public static final ObjectWriter CHEF_WRITER = MAPPER.writerFor(Chef.class);
+    public static final ObjectWriter PAGE_WRITER = MAPPER.writerFor(Page.class);
+
+    /**
+     * Writes values one at a time into a streamed response without flushing after each one, leaving
+     * flushing to the caller (see JsonArrayStream).
+     */
+    public static final ObjectWriter STREAM_WRITER = MAPPER.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    private JsonUtil() {
+    }
+
+    /**
+     * @return a Javalin JsonMapper backed by the shared mapper
+     */
+    public static JsonMapper javalinMapper() {
+        return new JavalinJackson(MAPPER, false);
+    }
+}
@@ -0,0 +1,161 @@
+package com.revature.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LatencyHistogram class counts durations in log-linear buckets without locking, so that many request
+ * threads can record into one histogram and percentiles can be read while they do.
+ *
+ * Durations are bucketed in microseconds. Everything below {@link #MIN_MICROS} shares the first bucket; above
+ * it each power-of-two range is split into {@link #SUB_BUCKETS} equal buckets, so a percentile read from the
+ * histogram is within 25% of the true value. Durations beyond the last range, about 67 seconds, share an
+ * overflow bucket. Recording is one atomic increment for the bucket, one for the running sum and, rarely, a
+ * compare-and-set for the maximum.
+ */
+public class LatencyHistogram {
+
+    /** The upper bound of the first bucket, in microseconds. */
+    static final long MIN_MICROS = 16;
+
+    /** The number of buckets each power-of-two range is split into. */
+    static final int SUB_BUCKETS = 4;
+
+    /** The number of power-of-two ranges above {@link #MIN_MICROS}. */
+    static final int RANGES = 22;
+
+    private static final int MIN_SHIFT = Long.numberOfTrailingZeros(MIN_MICROS);
+    private static final int BUCKETS = 1 + RANGES * SUB_BUCKETS + 1;
+
+    /** The upper bound of each bucket in microseconds; the overflow bucket has none. */
+    private static final long[] UPPER_MICROS = new long[BUCKETS - 1];
+
+    static {
+        UPPER_MICROS[0] = MIN_MICROS;
+        for (int range = 0; range < RANGES; range++) {
+            long base = MIN_MICROS << range;
+            for (int sub = 0; sub < SUB_BUCKETS; sub++) {
+                UPPER_MICROS[1 + range * SUB_BUCKETS + sub] = base + (sub + 1) * base / SUB_BUCKETS;
+            }
+        }
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sumNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos the duration in nanoseconds; negative durations count as zero
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts.incrementAndGet(bucketOf(nanos / 1000));
+        sumNanos.add(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /** @return the number of durations recorded */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /** @return the sum of the durations recorded, in nanoseconds */
+    public long getSumNanos() {
+        return sumNanos.sum();
+    }
+
+    /** @return the longest duration recorded, in nanoseconds */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Estimates a percentile by interpolating within the bucket that holds it.
+     *
+     * @param quantile the percentile as a fraction, from 0 to 1
+     * @return the estimated duration in nanoseconds, at most the maximum recorded, or 0 if nothing was recorded
+     */
+    public long getValueAtQuantile(double quantile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long max = maxNanos.get();
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            if (seen + snapshot[i] >= rank) {
+                long lower = i == 0 ? 0 : UPPER_MICROS[i - 1];
+                double within = (rank - seen) / (double) snapshot[i];
+                long micros = lower + Math.round((UPPER_MICROS[i] - lower) * within);
+                return Math.min(micros * 1000, max);
+            }
+            seen += snapshot[i];
+        }
+        return max;
+    }
+
+    /**
+     * Counts the durations below each power-of-two bound from {@link #MIN_MICROS} upwards, taking every
+     * step-th bound; these are exact, unlike percentiles, and suit a Prometheus histogram.
+     *
+     * @param step how many power-of-two ranges apart the bounds are
+     * @param bounds receives each bound in microseconds; must hold {@link #boundCount(int)} values
+     * @return the cumulative count at each bound, followed by the count of every duration recorded
+     */
+    long[] cumulativeCounts(int step, long[] bounds) {
+        long[] cumulative = new long[bounds.length + 1];
+        long seen = counts.get(0);
+        int next = 0;
+        bounds[next] = MIN_MICROS;
+        cumulative[next++] = seen;
+        for (int range = 0; range < RANGES; range++) {
+            for (int sub = 0; sub < SUB_BUCKETS; sub++) {
+                seen += counts.get(1 + range * SUB_BUCKETS + sub);
+            }
+            if ((range + 1) % step == 0) {
+                bounds[next] = MIN_MICROS << (range + 1);
+                cumulative[next++] = seen;
+            }
+        }
+        cumulative[next] = seen + counts.get(BUCKETS - 1);
+        return cumulative;
+    }
+
+    /** @return the number of bounds {@link #cumulativeCounts(int, long[])} reports for the step */
+    static int boundCount(int step) {
+        return 1 + RANGES / step;
+    }
+
+    /**
+     * @return the bucket holding a duration of the given number of microseconds
+     */
+    static int bucketOf(long micros) {
+        if (micros < MIN_MICROS) {
+            return 0;
+        }
+        int range = 63 - Long.numberOfLeadingZeros(micros) - MIN_SHIFT;
+        if (range >= RANGES) {
+            return BUCKETS - 1;
+        }
+        long base = MIN_MICROS << range;
+        return 1 + range * SUB_BUCKETS + (int) ((micros - base) * SUB_BUCKETS / base);
+    }
+}
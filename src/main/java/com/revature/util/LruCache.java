@@ -0,0 +1,159 @@
+package com.revature.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * The LruCache class is a small, bounded in-process cache. Once it holds maxSize entries, adding another
+ * evicts the least recently used one, and entries older than the time-to-live are treated as absent
+ * and dropped when next read.
+ *
+ * Hits, misses and evictions are counted so the cache's effectiveness can be reported. Access is
+ * synchronized on the cache, which is cheap next to the database round trip that a hit saves.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached values
+ */
+public class LruCache<K, V> {
+
+    /** A cached value and the time, on the cache's clock, after which it is stale. */
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxSize the largest number of entries to hold
+     * @param ttlMillis how long an entry stays fresh after it is stored, or 0 for no expiry
+     */
+    public LruCache(int maxSize, long ttlMillis) {
+        this(maxSize, ttlMillis, System::nanoTime);
+    }
+
+    /**
+     * @param maxSize the largest number of entries to hold
+     * @param ttlMillis how long an entry stays fresh after it is stored, or 0 for no expiry
+     * @param clock the source of the current time in nanoseconds
+     */
+    public LruCache(int maxSize, long ttlMillis, LongSupplier clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = Math.max(0, ttlMillis) * 1_000_000L;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @param key the key to look up
+     * @return the cached value, or null if it is absent or has expired
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (ttlNanos > 0 && clock.getAsLong() - entry.expiresAt > 0) {
+            entries.remove(key);
+            evictions.increment();
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Stores a value, replacing any existing entry for the key. Null values are not cached.
+     *
+     * @param key the key to store under
+     * @param value the value to store
+     */
+    public synchronized void put(K key, V value) {
+        if (value == null) {
+            return;
+        }
+        entries.put(key, new Entry<>(value, clock.getAsLong() + ttlNanos));
+    }
+
+    /**
+     * Removes the entry for a key, if there is one.
+     *
+     * @param key the key to remove
+     */
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of entries dropped for exceeding maxSize or outliving the time-to-live
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the fraction of lookups that were hits, or 0 if there have been none
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LruCache[size=%d/%d, hits=%d, misses=%d, evictions=%d]",
+                size(), maxSize, getHitCount(), getMissCount(), getEvictionCount());
+    }
+}
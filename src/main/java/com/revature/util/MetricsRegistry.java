@@ -0,0 +1,297 @@
+package com.revature.util;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * The MetricsRegistry class collects the server's runtime metrics and renders them in the Prometheus text
+ * exposition format. It records, per route, the number of requests, their status classes and a latency
+ * histogram; a histogram of the time taken to get a database connection; a histogram per kind of SQL
+ * statement; and any gauges or counters registered over other components' statistics, such as the
+ * connection pool's.
+ *
+ * Recording never takes a lock: counters are LongAdders, histograms are {@link LatencyHistogram}s and a
+ * route's metrics are looked up in a ConcurrentHashMap. Routes are recorded by their path pattern, not the
+ * requested path, so the number of series stays bounded.
+ */
+public class MetricsRegistry {
+
+    /** The prefix of every metric name. */
+    public static final String PREFIX = "recipe_";
+
+    /** The content type of {@link #scrape()}'s output. */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /** The route recorded for requests that matched no endpoint. */
+    public static final String UNMATCHED_ROUTE = "unmatched";
+
+    /** The percentiles reported for each histogram. */
+    private static final double[] QUANTILES = { 0.5, 0.95, 0.99 };
+
+    /** How many power-of-two ranges apart the exported histogram buckets are. */
+    private static final int BUCKET_STEP = 2;
+
+    private static final String[] STATUS_CLASSES = { "1xx", "2xx", "3xx", "4xx", "5xx" };
+
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    /** The requests to one route, keyed by method and path pattern. */
+    private static final class RouteMetrics {
+        private final String method;
+        private final String route;
+        private final LongAdder[] statusCounts = new LongAdder[STATUS_CLASSES.length];
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private RouteMetrics(String method, String route) {
+            this.method = method;
+            this.route = route;
+            for (int i = 0; i < statusCounts.length; i++) {
+                statusCounts[i] = new LongAdder();
+            }
+        }
+    }
+
+    /** A value read from another component when the metrics are scraped. */
+    private static final class Sampled {
+        private final String type;
+        private final String help;
+        private final DoubleSupplier value;
+
+        private Sampled(String type, String help, DoubleSupplier value) {
+            this.type = type;
+            this.help = help;
+            this.value = value;
+        }
+    }
+
+    private final ConcurrentHashMap<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+    private volatile LatencyHistogram connectionLatency = new LatencyHistogram();
+    private final ConcurrentHashMap<String, LatencyHistogram> queryLatency = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Sampled> sampled = new ConcurrentSkipListMap<>();
+
+    /**
+     * @return the registry shared by the server, the connection pool and the DAOs
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Records a finished request.
+     *
+     * @param method the HTTP method
+     * @param route the path pattern of the endpoint that handled the request, or {@link #UNMATCHED_ROUTE}
+     * @param status the response status code
+     * @param nanos how long the request took
+     */
+    public void recordRequest(String method, String route, int status, long nanos) {
+        String key = method + ' ' + route;
+        RouteMetrics metrics = routes.get(key);
+        if (metrics == null) {
+            metrics = routes.computeIfAbsent(key, k -> new RouteMetrics(method, route));
+        }
+        int statusClass = status / 100 - 1;
+        if (statusClass >= 0 && statusClass < STATUS_CLASSES.length) {
+            metrics.statusCounts[statusClass].increment();
+        }
+        metrics.latency.record(nanos);
+    }
+
+    /**
+     * Records the time taken to get a connection from the pool.
+     *
+     * @param nanos how long the caller waited
+     */
+    public void recordConnectionAcquire(long nanos) {
+        connectionLatency.record(nanos);
+    }
+
+    /**
+     * Records the execution of a SQL statement.
+     *
+     * @param sql the statement's SQL, used only to tell selects, inserts, updates and deletes apart
+     * @param nanos how long the statement took to execute
+     */
+    public void recordQuery(String sql, long nanos) {
+        String operation = operationOf(sql);
+        LatencyHistogram histogram = queryLatency.get(operation);
+        if (histogram == null) {
+            histogram = queryLatency.computeIfAbsent(operation, k -> new LatencyHistogram());
+        }
+        histogram.record(nanos);
+    }
+
+    /**
+     * Registers a gauge read on every scrape, replacing any metric of the same name.
+     *
+     * @param name the metric name, without {@link #PREFIX}
+     * @param help a description of the metric
+     * @param value reads the current value
+     */
+    public void registerGauge(String name, String help, DoubleSupplier value) {
+        sampled.put(PREFIX + name, new Sampled("gauge", help, value));
+    }
+
+    /**
+     * Registers a counter read on every scrape, replacing any metric of the same name.
+     *
+     * @param name the metric name, without {@link #PREFIX}, ending in "_total"
+     * @param help a description of the metric
+     * @param value reads the current count, which must never decrease
+     */
+    public void registerCounter(String name, String help, DoubleSupplier value) {
+        sampled.put(PREFIX + name, new Sampled("counter", help, value));
+    }
+
+    /**
+     * Renders every metric in the Prometheus text exposition format.
+     *
+     * @return the metrics, one sample per line
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(8192);
+
+        header(out, "http_requests_total", "counter", "HTTP requests by route and status class.");
+        for (RouteMetrics metrics : routes.values()) {
+            for (int i = 0; i < STATUS_CLASSES.length; i++) {
+                long count = metrics.statusCounts[i].sum();
+                if (count > 0) {
+                    sample(out, "http_requests_total", routeLabels(metrics) + ",status=\"" + STATUS_CLASSES[i] + "\"", count);
+                }
+            }
+        }
+        Map<String, LatencyHistogram> byRoute = new TreeMap<>();
+        for (RouteMetrics metrics : routes.values()) {
+            byRoute.put(routeLabels(metrics), metrics.latency);
+        }
+        histograms(out, "http_request_duration_seconds", "HTTP request latency by route.", byRoute);
+
+        histograms(out, "db_connection_acquire_seconds", "Time taken to get a connection from the pool.",
+                Map.of("", connectionLatency));
+
+        Map<String, LatencyHistogram> byOperation = new TreeMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : queryLatency.entrySet()) {
+            byOperation.put("operation=\"" + entry.getKey() + "\"", entry.getValue());
+        }
+        histograms(out, "db_query_duration_seconds", "SQL statement execution time by kind of statement.", byOperation);
+
+        for (Map.Entry<String, Sampled> entry : sampled.entrySet()) {
+            Sampled metric = entry.getValue();
+            out.append("# HELP ").append(entry.getKey()).append(' ').append(metric.help).append('\n');
+            out.append("# TYPE ").append(entry.getKey()).append(' ').append(metric.type).append('\n');
+            out.append(entry.getKey()).append(' ').append(format(metric.value.getAsDouble())).append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Forgets every recorded request, connection and statement; registered gauges and counters are kept.
+     */
+    public void reset() {
+        routes.clear();
+        queryLatency.clear();
+        connectionLatency = new LatencyHistogram();
+    }
+
+    // below are helper methods
+
+    /**
+     * Writes a histogram family, then the maximum and estimated percentiles of each histogram as gauges.
+     */
+    private static void histograms(StringBuilder out, String name, String help, Map<String, LatencyHistogram> byLabels) {
+        header(out, name, "histogram", help);
+        long[] bounds = new long[LatencyHistogram.boundCount(BUCKET_STEP)];
+        for (Map.Entry<String, LatencyHistogram> entry : byLabels.entrySet()) {
+            String labels = entry.getKey();
+            String separator = labels.isEmpty() ? "" : ",";
+            LatencyHistogram histogram = entry.getValue();
+            long[] cumulative = histogram.cumulativeCounts(BUCKET_STEP, bounds);
+            for (int i = 0; i < bounds.length; i++) {
+                sample(out, name + "_bucket", labels + separator + "le=\"" + format(bounds[i] / 1e6) + "\"", cumulative[i]);
+            }
+            long count = cumulative[bounds.length];
+            sample(out, name + "_bucket", labels + separator + "le=\"+Inf\"", count);
+            sample(out, name + "_sum", labels, format(histogram.getSumNanos() / 1e9));
+            sample(out, name + "_count", labels, count);
+        }
+
+        header(out, name + "_max", "gauge", "Longest observation of " + name + ".");
+        for (Map.Entry<String, LatencyHistogram> entry : byLabels.entrySet()) {
+            sample(out, name + "_max", entry.getKey(), format(entry.getValue().getMaxNanos() / 1e9));
+        }
+
+        header(out, name + "_quantile", "gauge", "Estimated percentiles of " + name + ".");
+        for (Map.Entry<String, LatencyHistogram> entry : byLabels.entrySet()) {
+            String labels = entry.getKey();
+            String separator = labels.isEmpty() ? "" : ",";
+            for (double quantile : QUANTILES) {
+                sample(out, name + "_quantile", labels + separator + "quantile=\"" + quantile + "\"",
+                        format(entry.getValue().getValueAtQuantile(quantile) / 1e9));
+            }
+        }
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, Object value) {
+        out.append(PREFIX).append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static String routeLabels(RouteMetrics metrics) {
+        return "method=\"" + escape(metrics.method) + "\",route=\"" + escape(metrics.route) + "\"";
+    }
+
+    /**
+     * Escapes a label value as the exposition format requires.
+     */
+    static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    /**
+     * @return "select", "insert", "update", "delete" or "merge" for the statement's first keyword, or "other"
+     */
+    static String operationOf(String sql) {
+        if (sql == null) {
+            return "other";
+        }
+        int start = 0;
+        while (start < sql.length() && !Character.isLetter(sql.charAt(start))) {
+            start++;
+        }
+        int end = start;
+        while (end < sql.length() && Character.isLetter(sql.charAt(end))) {
+            end++;
+        }
+        String keyword = sql.substring(start, end).toLowerCase(Locale.ROOT);
+        switch (keyword) {
+            case "select":
+            case "insert":
+            case "update":
+            case "delete":
+            case "merge":
+                return keyword;
+            default:
+                return "other";
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.revature.util;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * The NdjsonStream class writes newline-delimited JSON - one complete JSON value per line - to an output
+ * stream, a batch of values at a time. Unlike a JSON array, the output can be consumed line by line and
+ * needs no closing bracket, so a reader can process an export of any size without parsing it as a whole.
+ *
+ * Output goes through a single large buffer, and optionally gzip, and is flushed once per batch rather than
+ * once per value.
+ *
+ * As with {@link JsonArrayStream}, the output stream is only requested when the stream is started, so a caller
+ * can still send a different response if the values cannot be read at all. Since the format has no closing
+ * marker, the only sign of a failure part way is how the output ends: a caller whose values stop arriving
+ * should {@link #abort()} the stream, so that it is neither flushed nor given its gzip trailer.
+ */
+public class NdjsonStream implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Supplier<OutputStream> output;
+    private final boolean gzip;
+    private JsonGenerator generator;
+    private long count;
+    private boolean aborted;
+
+    /**
+     * @param output supplies the stream to write to; called once, when the stream is started, and closed when
+     *        this stream is closed
+     * @param gzip whether to gzip the output
+     */
+    public NdjsonStream(Supplier<OutputStream> output, boolean gzip) {
+        this.output = output;
+        this.gzip = gzip;
+    }
+
+    /**
+     * Opens the output stream, unless that has already happened.
+     *
+     * @throws IOException if the output cannot be opened
+     */
+    public void start() throws IOException {
+        if (generator == null) {
+            OutputStream buffered = gzip
+                    ? new GZIPOutputStream(output.get(), BUFFER_SIZE)
+                    : new BufferedOutputStream(output.get(), BUFFER_SIZE);
+            generator = JsonUtil.MAPPER.getFactory().createGenerator(buffered);
+            // Values are separated by the newline written after each one, not by the default space.
+            generator.setRootValueSeparator(null);
+        }
+    }
+
+    /**
+     * Writes a batch of values, each on its own line, and flushes them.
+     *
+     * @param batch the values to write
+     * @throws IOException if the output cannot be written
+     */
+    public void write(List<?> batch) throws IOException {
+        start();
+        for (Object value : batch) {
+            JsonUtil.STREAM_WRITER.writeValue(generator, value);
+            generator.writeRaw('\n');
+        }
+        count += batch.size();
+        generator.flush();
+    }
+
+    /** @return the number of values written */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return true if the stream has been started and the output stream is in use
+     */
+    public boolean isStarted() {
+        return generator != null;
+    }
+
+    /**
+     * Marks the output as incomplete. close() then leaves it unflushed, without its gzip trailer, and leaves the
+     * output stream open, so the server can fail the response and a reader cannot mistake what was sent for the
+     * whole export.
+     */
+    public void abort() {
+        aborted = true;
+    }
+
+    /**
+     * Finishes the output, including the gzip trailer, and closes the underlying stream, unless the stream was
+     * aborted. A stream that was never started is started first, so an empty export is still a valid one.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!aborted) {
+            start();
+            generator.close();
+        }
+    }
+}
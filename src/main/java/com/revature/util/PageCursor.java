@@ -0,0 +1,138 @@
+package com.revature.util;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Base64;
+
+/**
+ * The PageCursor class represents the position reached by a keyset (cursor) paged query. It records
+ * the sort column, that column's value on the last row returned and the row's id, which breaks ties
+ * between rows sharing a sort value.
+ *
+ * Clients receive a cursor as an opaque URL-safe token in Page.nextCursor and pass it back to fetch
+ * the following page. The DAO then seeks past the recorded position with a WHERE predicate instead of
+ * skipping rows with OFFSET, so every page costs the same regardless of how deep it is.
+ *
+ * Only the "id" and "name" columns can be used as cursor sort keys.
+ */
+public class PageCursor {
+
+    /** The column the paged query is ordered by, either "id" or "name". */
+    private final String sortBy;
+    /** The value of the sort column on the last row of the previous page. */
+    private final String value;
+    /** The id of the last row of the previous page. */
+    private final int id;
+
+    public PageCursor(String sortBy, String value, int id) {
+        this.sortBy = sortColumn(sortBy);
+        this.value = value == null ? "" : value;
+        this.id = id;
+    }
+
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Maps a requested sort field onto one of the columns supported for keyset paging. Anything other
+     * than "name" (ignoring case) sorts by id, so the result is always safe to place in SQL.
+     *
+     * @param sortBy the requested sort field, may be null
+     * @return "name" or "id"
+     */
+    public static String sortColumn(String sortBy) {
+        return "name".equalsIgnoreCase(sortBy) ? "name" : "id";
+    }
+
+    /**
+     * Builds the WHERE predicate that selects rows after this cursor. Sorting by id seeks on id alone;
+     * sorting by name seeks on the (name, id) pair so that rows with equal names are neither repeated
+     * nor skipped.
+     *
+     * @param descending whether the query is ordered in descending order
+     * @return the predicate, with placeholders to be filled in by {@link #bind(PreparedStatement, int)}
+     */
+    public String seekPredicate(boolean descending) {
+        String op = descending ? "<" : ">";
+        if ("id".equals(sortBy)) {
+            return "id " + op + " ?";
+        }
+        return "(" + sortBy + " " + op + " ? OR (" + sortBy + " = ? AND id " + op + " ?))";
+    }
+
+    /**
+     * Binds the values of this cursor to the placeholders of its seek predicate.
+     *
+     * @param ps the statement containing the predicate
+     * @param index the index of the predicate's first placeholder
+     * @return the index of the next unbound placeholder
+     * @throws SQLException if a parameter cannot be bound
+     */
+    public int bind(PreparedStatement ps, int index) throws SQLException {
+        if ("id".equals(sortBy)) {
+            ps.setInt(index, id);
+            return index + 1;
+        }
+        ps.setString(index, value);
+        ps.setString(index + 1, value);
+        ps.setInt(index + 2, id);
+        return index + 3;
+    }
+
+    /**
+     * @return this cursor as an opaque, URL-safe token
+     */
+    public String encode() {
+        String raw = sortBy + ":" + id + ":" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a token produced by {@link #encode()}.
+     *
+     * @param token the token supplied by the client
+     * @return the decoded cursor
+     * @throws IllegalArgumentException if the token is not a valid cursor
+     */
+    public static PageCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+        String[] parts = raw.split(":", 3);
+        if (parts.length != 3 || !parts[0].equals(sortColumn(parts[0]))) {
+            throw new IllegalArgumentException("Malformed page cursor");
+        }
+        try {
+            return new PageCursor(parts[0], parts[2], Integer.parseInt(parts[1]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed page cursor", e);
+        }
+    }
+
+    /**
+     * Parses a token supplied by a client for a query sorted by the given field.
+     *
+     * @param token the token supplied by the client, or null or blank to start at the first page
+     * @param sortBy the sort field requested alongside the token
+     * @return the decoded cursor, or null if no token was given
+     * @throws IllegalArgumentException if the token is not a valid cursor or was issued for another sort field
+     */
+    public static PageCursor decode(String token, String sortBy) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        PageCursor cursor = decode(token);
+        if (!cursor.getSortBy().equals(sortColumn(sortBy))) {
+            throw new IllegalArgumentException("Page cursor was issued for a different sort field");
+        }
+        return cursor;
+    }
+}
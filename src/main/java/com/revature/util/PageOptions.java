@@ -18,6 +18,8 @@ public class PageOptions {
     private String sortBy;
     /** The direction of sorting (e.g., ascending or descending). */
     private String sortDirection;
+    /** The position to continue from when keyset paging, or null to start at the first page. */
+    private PageCursor cursor;
 
     // constructors
     public PageOptions() {
@@ -67,4 +69,12 @@ public class PageOptions {
     public void setSortDirection(String sortDirection) {
         this.sortDirection = sortDirection;
     }
+
+    public PageCursor getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(PageCursor cursor) {
+        this.cursor = cursor;
+    }
 }
\ No newline at end of file
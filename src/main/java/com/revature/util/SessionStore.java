@@ -0,0 +1,241 @@
+package com.revature.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import com.revature.model.Chef;
+
+/**
+ * The SessionStore class holds the chefs that are currently logged in, indexed by session token. It is
+ * safe to use from many request threads at once: lookups read a ConcurrentHashMap without taking a lock,
+ * and logins and logouts only contend with writes to the same internal bin.
+ *
+ * Each session expires once it has gone unused for the time-to-live; every successful lookup extends it.
+ * Expired sessions are treated as absent as soon as they expire and are removed by a background sweeper.
+ * The store holds at most maxSessions sessions: when it is full, a new login first sweeps expired
+ * sessions and then, if necessary, evicts the least recently used one.
+ */
+public class SessionStore implements AutoCloseable {
+
+    /** A logged in chef and the time, on the store's clock, the session was last used. */
+    private static final class Session {
+        private final Chef chef;
+        private volatile long lastAccess;
+
+        private Session(Chef chef, long lastAccess) {
+            this.chef = chef;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxSessions;
+    private final LongSupplier clock;
+    private final ScheduledExecutorService sweeper;
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder removed = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a store and starts its background sweeper thread.
+     *
+     * @param ttlMillis how long a session may go unused before it expires
+     * @param maxSessions the largest number of sessions to hold
+     * @param sweepIntervalMillis how often expired sessions are removed
+     */
+    public SessionStore(long ttlMillis, int maxSessions, long sweepIntervalMillis) {
+        this(ttlMillis, maxSessions, sweepIntervalMillis, System::nanoTime);
+    }
+
+    /**
+     * Creates a store and starts its background sweeper thread, or no sweeper if sweepIntervalMillis is 0.
+     *
+     * @param ttlMillis how long a session may go unused before it expires
+     * @param maxSessions the largest number of sessions to hold
+     * @param sweepIntervalMillis how often expired sessions are removed, or 0 to sweep only when full
+     * @param clock the source of the current time in nanoseconds
+     */
+    public SessionStore(long ttlMillis, int maxSessions, long sweepIntervalMillis, LongSupplier clock) {
+        if (ttlMillis <= 0 || maxSessions < 1) {
+            throw new IllegalArgumentException("Session TTL and maximum number of sessions must be positive");
+        }
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.maxSessions = maxSessions;
+        this.clock = clock;
+        if (sweepIntervalMillis > 0) {
+            this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "session-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMillis, sweepIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.sweeper = null;
+        }
+    }
+
+    /**
+     * Looks up the chef for a session token and extends the session. This never blocks.
+     *
+     * @param token the session token
+     * @return the logged in chef, or null if the token is unknown or its session has expired
+     */
+    public Chef get(String token) {
+        Session session = sessions.get(token);
+        long now = clock.getAsLong();
+        if (session == null || isExpired(session, now)) {
+            misses.increment();
+            return null;
+        }
+        session.lastAccess = now;
+        hits.increment();
+        return session.chef;
+    }
+
+    /**
+     * Starts a session, making room first if the store is full.
+     *
+     * @param token the new session token
+     * @param chef the chef who logged in
+     */
+    public void put(String token, Chef chef) {
+        if (sessions.size() >= maxSessions) {
+            sweep();
+            while (sessions.size() >= maxSessions && evictLeastRecentlyUsed()) {
+                // keep evicting until there is room
+            }
+        }
+        sessions.put(token, new Session(chef, clock.getAsLong()));
+        created.increment();
+    }
+
+    /**
+     * Ends a session.
+     *
+     * @param token the session token
+     * @return the chef whose session ended, or null if there was no such session
+     */
+    public Chef remove(String token) {
+        Session session = sessions.remove(token);
+        if (session == null) {
+            return null;
+        }
+        removed.increment();
+        return session.chef;
+    }
+
+    /**
+     * Ends every session.
+     */
+    public void clear() {
+        sessions.clear();
+    }
+
+    /**
+     * Removes every expired session.
+     *
+     * @return the number of sessions removed
+     */
+    public int sweep() {
+        long now = clock.getAsLong();
+        int count = 0;
+        for (Iterator<Map.Entry<String, Session>> it = sessions.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<String, Session> entry = it.next();
+            if (isExpired(entry.getValue(), now) && sessions.remove(entry.getKey(), entry.getValue())) {
+                count++;
+            }
+        }
+        expired.add(count);
+        return count;
+    }
+
+    /**
+     * Stops the sweeper thread. Sessions remain readable.
+     */
+    @Override
+    public void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    private boolean isExpired(Session session, long now) {
+        return now - session.lastAccess > ttlNanos;
+    }
+
+    /**
+     * Removes the session that has gone unused the longest. This scans every session, so it is only
+     * used when the store is full.
+     *
+     * @return true if a session was removed
+     */
+    private boolean evictLeastRecentlyUsed() {
+        Map.Entry<String, Session> oldest = null;
+        for (Map.Entry<String, Session> entry : sessions.entrySet()) {
+            if (oldest == null || entry.getValue().lastAccess - oldest.getValue().lastAccess < 0) {
+                oldest = entry;
+            }
+        }
+        if (oldest != null && sessions.remove(oldest.getKey(), oldest.getValue())) {
+            evicted.increment();
+            return true;
+        }
+        return oldest != null;
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    /** @return the number of sessions started */
+    public long getCreatedCount() {
+        return created.sum();
+    }
+
+    /** @return the number of sessions ended by logout */
+    public long getRemovedCount() {
+        return removed.sum();
+    }
+
+    /** @return the number of sessions removed by the sweeper after going unused for the time-to-live */
+    public long getExpiredCount() {
+        return expired.sum();
+    }
+
+    /** @return the number of sessions evicted to make room while the store was full */
+    public long getEvictedCount() {
+        return evicted.sum();
+    }
+
+    /** @return the number of lookups that found a live session */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /** @return the number of lookups for unknown or expired tokens */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SessionStore[size=%d/%d, created=%d, removed=%d, expired=%d, evicted=%d]",
+                size(), maxSessions, getCreatedCount(), getRemovedCount(), getExpiredCount(), getEvictedCount());
+    }
+}
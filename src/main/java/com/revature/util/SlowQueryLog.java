@@ -0,0 +1,447 @@
+package com.revature.util;
+
+import java.time.Instant;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * The SlowQueryLog class collects SQL statements that took longer than a threshold to execute. Each one is
+ * kept in memory with its bound parameters twice: in a ring buffer of the most recent slow statements and in a
+ * list of the slowest statements seen, both holding at most capacity entries, for an admin endpoint to serve.
+ * Each one can also be written to standard error as it is recorded.
+ *
+ * Values bound to sensitive columns, such as passwords, are replaced by {@link #REDACTED} before a statement
+ * is kept or written. A placeholder's column is read from the SQL: the column compared with it, as in
+ * "password = ?", or the column at its position in an INSERT's column list. A placeholder whose column cannot
+ * be told is redacted whenever the SQL names a sensitive column anywhere.
+ *
+ * Statements are timed by the connection pool's statement proxies, which check {@link #isSlow(long)} after
+ * every execution; only slow statements reach {@link #record}, so the lock it takes is off the fast path.
+ * When explain is enabled the proxy also captures the statement's plan: EXPLAIN ANALYZE for a select, which
+ * runs the query a second time, and EXPLAIN for anything else, which does not execute it.
+ *
+ * Settings: "recipe.db.slowQuery.thresholdMillis" (default 100, negative to disable),
+ * "recipe.db.slowQuery.capacity" (default 50), "recipe.db.slowQuery.explain" (default false),
+ * "recipe.db.slowQuery.print" (default false) and "recipe.db.slowQuery.redactColumns", a comma-separated list
+ * of names that mark a column as sensitive when its name contains one of them (default
+ * "password,passwd,secret,token").
+ */
+public class SlowQueryLog {
+
+    /** The longest bound parameter value kept, in characters. */
+    private static final int MAX_PARAMETER_LENGTH = 200;
+
+    /** What a redacted parameter value is replaced by. */
+    public static final String REDACTED = "<redacted>";
+
+    /** The names that mark a column as sensitive unless the "recipe.db.slowQuery.redactColumns" setting is given. */
+    public static final List<String> DEFAULT_REDACTED_COLUMNS = List.of("password", "passwd", "secret", "token");
+
+    /**
+     * One slow statement execution.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class SlowQuery {
+        private final String sql;
+        private final List<String> parameters;
+        private final int batchSize;
+        private final long nanos;
+        private final Instant executedAt;
+        private final String thread;
+        private final String plan;
+
+        public SlowQuery(String sql, List<String> parameters, int batchSize, long nanos, Instant executedAt,
+                String thread, String plan) {
+            this.sql = sql;
+            this.parameters = parameters;
+            this.batchSize = batchSize;
+            this.nanos = nanos;
+            this.executedAt = executedAt;
+            this.thread = thread;
+            this.plan = plan;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        /** @return the bound parameter values in order, rendered as text */
+        public List<String> getParameters() {
+            return parameters;
+        }
+
+        /** @return the number of parameter sets executed together, 1 unless the statement was a batch */
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public double getMillis() {
+            return nanos / 1_000_000.0;
+        }
+
+        /** @return when the statement finished, as an ISO-8601 timestamp */
+        public String getExecutedAt() {
+            return executedAt.toString();
+        }
+
+        public String getThread() {
+            return thread;
+        }
+
+        /** @return the statement's EXPLAIN output, or null if plans are not captured */
+        public String getPlan() {
+            return plan;
+        }
+
+        long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.3f ms%s: %s %s", getMillis(), batchSize > 1 ? " (batch of " + batchSize + ")" : "",
+                    sql, parameters);
+        }
+    }
+
+    private static final Comparator<SlowQuery> FASTEST_FIRST = Comparator.comparingLong(SlowQuery::getNanos);
+
+    private final long thresholdNanos;
+    private final int capacity;
+    private final boolean explain;
+    private final boolean print;
+    /** Lower-case names that mark a column as sensitive. */
+    private final List<String> redactedColumns;
+
+    /** The most recent slow statements; next is where the next one goes. */
+    private final SlowQuery[] recent;
+    private int next;
+    /** The slowest statements, with the fastest of them at the head so it can be replaced. */
+    private final PriorityQueue<SlowQuery> slowest;
+
+    private final LongAdder slowCount = new LongAdder();
+
+    /**
+     * Creates a log configured by the "recipe.db.slowQuery.*" settings.
+     */
+    public SlowQueryLog() {
+        this(ConfigUtil.getLong("recipe.db.slowQuery.thresholdMillis", 100),
+                ConfigUtil.getInt("recipe.db.slowQuery.capacity", 50),
+                ConfigUtil.getBoolean("recipe.db.slowQuery.explain", false),
+                ConfigUtil.getBoolean("recipe.db.slowQuery.print", false),
+                Arrays.asList(ConfigUtil.getString("recipe.db.slowQuery.redactColumns",
+                        String.join(",", DEFAULT_REDACTED_COLUMNS)).split(",")));
+    }
+
+    /**
+     * Creates a log that keeps slow statements without writing them out, redacting the
+     * {@link #DEFAULT_REDACTED_COLUMNS}.
+     *
+     * @param thresholdMillis how long a statement must take to be logged; negative to log nothing
+     * @param capacity how many statements to keep in the recent buffer and in the slowest list
+     * @param explain whether to capture the plan of each slow statement
+     */
+    public SlowQueryLog(long thresholdMillis, int capacity, boolean explain) {
+        this(thresholdMillis, capacity, explain, false, DEFAULT_REDACTED_COLUMNS);
+    }
+
+    /**
+     * @param thresholdMillis how long a statement must take to be logged; negative to log nothing
+     * @param capacity how many statements to keep in the recent buffer and in the slowest list
+     * @param explain whether to capture the plan of each slow statement
+     * @param print whether to write each slow statement to standard error
+     * @param redactedColumns names that mark a column as sensitive when its name contains one of them, in any case
+     */
+    public SlowQueryLog(long thresholdMillis, int capacity, boolean explain, boolean print,
+            List<String> redactedColumns) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.thresholdNanos = thresholdMillis < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.capacity = capacity;
+        this.explain = explain;
+        this.print = print;
+        this.redactedColumns = new ArrayList<>();
+        for (String column : redactedColumns) {
+            if (!column.isBlank()) {
+                this.redactedColumns.add(column.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        this.recent = new SlowQuery[capacity];
+        this.slowest = new PriorityQueue<>(capacity, FASTEST_FIRST);
+    }
+
+    /**
+     * @param nanos how long a statement took
+     * @return whether the statement should be recorded
+     */
+    public boolean isSlow(long nanos) {
+        return thresholdNanos >= 0 && nanos >= thresholdNanos;
+    }
+
+    /** @return whether slow statements' plans should be captured */
+    public boolean isExplainEnabled() {
+        return explain;
+    }
+
+    /**
+     * Keeps a slow statement for {@link #getRecent()} and {@link #getSlowest()}, with the values bound to
+     * sensitive columns redacted, and writes it to standard error if printing is enabled.
+     *
+     * @param sql the statement's SQL
+     * @param parameters the bound parameter values by position, or null if the statement had none
+     * @param batchSize the number of parameter sets executed together
+     * @param nanos how long the statement took
+     * @param plan the statement's plan, or null
+     */
+    public void record(String sql, Map<Integer, Object> parameters, int batchSize, long nanos, String plan) {
+        List<String> values = new ArrayList<>();
+        if (parameters != null && !parameters.isEmpty()) {
+            Set<Integer> redacted = sensitiveParameters(sql);
+            for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+                values.add(redacted.contains(parameter.getKey()) ? REDACTED : describe(parameter.getValue()));
+            }
+        }
+        SlowQuery query = new SlowQuery(sql, values, batchSize, nanos, Instant.now(),
+                Thread.currentThread().getName(), plan);
+        slowCount.increment();
+        if (print) {
+            System.err.println("Slow query " + query + (plan == null ? "" : "\n" + plan));
+        }
+
+        synchronized (this) {
+            recent[next] = query;
+            next = (next + 1) % capacity;
+            if (slowest.size() < capacity) {
+                slowest.add(query);
+            } else if (FASTEST_FIRST.compare(query, slowest.peek()) > 0) {
+                slowest.poll();
+                slowest.add(query);
+            }
+        }
+    }
+
+    /** @return the most recent slow statements, newest first */
+    public synchronized List<SlowQuery> getRecent() {
+        List<SlowQuery> queries = new ArrayList<>(capacity);
+        for (int i = 1; i <= capacity; i++) {
+            SlowQuery query = recent[(next - i + capacity) % capacity];
+            if (query == null) {
+                break;
+            }
+            queries.add(query);
+        }
+        return queries;
+    }
+
+    /** @return the slowest statements seen since the log was created or cleared, slowest first */
+    public synchronized List<SlowQuery> getSlowest() {
+        List<SlowQuery> queries = new ArrayList<>(slowest);
+        queries.sort(Collections.reverseOrder(FASTEST_FIRST));
+        return queries;
+    }
+
+    /** @return the number of slow statements recorded since the log was created */
+    public long getSlowCount() {
+        return slowCount.sum();
+    }
+
+    public long getThresholdMillis() {
+        return thresholdNanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    /**
+     * Forgets the recent and slowest statements.
+     */
+    public synchronized void clear() {
+        Arrays.fill(recent, null);
+        next = 0;
+        slowest.clear();
+    }
+
+    /**
+     * Finds the placeholders in a statement whose values must not be logged: those bound to a sensitive column,
+     * and, if the statement names a sensitive column anywhere, those whose column cannot be told.
+     *
+     * @return the positions of the placeholders to redact, counting from 1
+     */
+    Set<Integer> sensitiveParameters(String sql) {
+        Set<Integer> positions = new HashSet<>();
+        if (sql == null) {
+            return positions;
+        }
+        List<String> tokens = tokenize(sql);
+        List<String> insertColumns = insertColumns(tokens);
+        boolean namesSensitiveColumn = false;
+        for (String token : tokens) {
+            namesSensitiveColumn |= isSensitive(token);
+        }
+
+        int placeholder = 0;
+        int depth = 0;
+        int tuplePosition = 0;
+        boolean inValues = false;
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if ("values".equalsIgnoreCase(token)) {
+                inValues = insertColumns != null;
+            } else if ("(".equals(token)) {
+                depth++;
+                if (depth == 1) {
+                    tuplePosition = 0;
+                }
+            } else if (")".equals(token)) {
+                depth--;
+            } else if (",".equals(token) && depth == 1) {
+                tuplePosition++;
+            } else if ("?".equals(token)) {
+                placeholder++;
+                String column = null;
+                if (inValues && depth == 1) {
+                    column = tuplePosition < insertColumns.size() ? insertColumns.get(tuplePosition) : null;
+                } else if (i >= 2 && isComparison(tokens.get(i - 1)) && isIdentifier(tokens.get(i - 2))) {
+                    column = tokens.get(i - 2);
+                }
+                if (column == null ? namesSensitiveColumn : isSensitive(column)) {
+                    positions.add(placeholder);
+                }
+            }
+        }
+        return positions;
+    }
+
+    private boolean isSensitive(String token) {
+        if (!isIdentifier(token)) {
+            return false;
+        }
+        String column = token.substring(token.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        for (String name : redactedColumns) {
+            if (column.contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Splits SQL into identifiers, placeholders, parentheses, commas and operators, dropping literals,
+     * comments and whitespace. Quoted identifiers lose their quotes; string literals become a single "'".
+     */
+    private static List<String> tokenize(String sql) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '-' && sql.startsWith("--", i)) {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? sql.length() : end + 1;
+            } else if (c == '/' && sql.startsWith("/*", i)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? sql.length() : end + 2;
+            } else if (c == '\'' || c == '"') {
+                int end = i + 1;
+                while (end < sql.length() && (sql.charAt(end) != c || (end + 1 < sql.length() && sql.charAt(end + 1) == c))) {
+                    end += sql.charAt(end) == c ? 2 : 1;
+                }
+                tokens.add(c == '"' ? sql.substring(i + 1, Math.min(end, sql.length())) : "'");
+                i = end + 1;
+            } else if (Character.isLetter(c) || c == '_') {
+                int end = i + 1;
+                while (end < sql.length() && (Character.isLetterOrDigit(sql.charAt(end)) || sql.charAt(end) == '_'
+                        || sql.charAt(end) == '.')) {
+                    end++;
+                }
+                tokens.add(sql.substring(i, end));
+                i = end;
+            } else if (c == '<' || c == '>' || c == '=' || c == '!') {
+                int end = i + 1;
+                while (end < sql.length() && "<>=!".indexOf(sql.charAt(end)) >= 0) {
+                    end++;
+                }
+                tokens.add(sql.substring(i, end));
+                i = end;
+            } else {
+                tokens.add(String.valueOf(c));
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * @return the column list of an INSERT statement, or null if the statement is not an INSERT that names its columns
+     */
+    private static List<String> insertColumns(List<String> tokens) {
+        if (tokens.size() < 4 || !"insert".equalsIgnoreCase(tokens.get(0)) || !"into".equalsIgnoreCase(tokens.get(1))
+                || !"(".equals(tokens.get(3))) {
+            return null;
+        }
+        List<String> columns = new ArrayList<>();
+        for (int i = 4; i < tokens.size() && !")".equals(tokens.get(i)); i++) {
+            if (!",".equals(tokens.get(i))) {
+                columns.add(tokens.get(i));
+            }
+        }
+        return columns;
+    }
+
+    private static boolean isComparison(String token) {
+        switch (token.toLowerCase(Locale.ROOT)) {
+            case "=":
+            case "<>":
+            case "!=":
+            case "<":
+            case ">":
+            case "<=":
+            case ">=":
+            case "like":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isIdentifier(String token) {
+        return !token.isEmpty() && (Character.isLetter(token.charAt(0)) || token.charAt(0) == '_');
+    }
+
+    /**
+     * Renders a bound parameter value for the log, shortening long text and naming binary and stream values.
+     */
+    static String describe(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof byte[]) {
+            return "<" + ((byte[]) value).length + " bytes>";
+        }
+        if (value instanceof CharSequence) {
+            String text = value.toString();
+            if (text.length() > MAX_PARAMETER_LENGTH) {
+                text = text.substring(0, MAX_PARAMETER_LENGTH) + "...";
+            }
+            return "'" + text.replace("'", "''") + "'";
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Date
+                || value instanceof Temporal) {
+            return value.toString();
+        }
+        return "<" + value.getClass().getSimpleName() + ">";
+    }
+}
@@ -0,0 +1,72 @@
+package com.revature;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.revature.model.Chef;
+import com.revature.util.AdminMiddleware;
+import com.revature.util.SessionStore;
+
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+import io.javalin.http.UnauthorizedResponse;
+
+class AdminMiddlewareTest {
+
+    private SessionStore sessions;
+    private AdminMiddleware middleware;
+    private Context ctx;
+
+    @BeforeEach
+    void setUp() {
+        sessions = new SessionStore(60_000, 100, 0);
+        sessions.put("admin-token", new Chef(4, "ChefTrevin", "trevin@revature.com", "trevature", true));
+        sessions.put("chef-token", new Chef(1, "JoeCool", "snoopy@null.com", "redbarron", false));
+        middleware = new AdminMiddleware(sessions, "DELETE");
+        ctx = mock(Context.class);
+        when(ctx.method()).thenReturn(HandlerType.DELETE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessions.close();
+    }
+
+    @Test
+    void adminTokenIsAcceptedWhileOthersAreLoggedIn() {
+        when(ctx.header("Authorization")).thenReturn("Bearer admin-token");
+        assertDoesNotThrow(() -> middleware.handle(ctx));
+    }
+
+    @Test
+    void tokenWithoutSpaceAfterBearerIsAccepted() {
+        when(ctx.header("Authorization")).thenReturn("Beareradmin-token");
+        assertDoesNotThrow(() -> middleware.handle(ctx));
+    }
+
+    @Test
+    void nonAdminTokenIsRejected() {
+        when(ctx.header("Authorization")).thenReturn("Bearer chef-token");
+        assertThrows(UnauthorizedResponse.class, () -> middleware.handle(ctx));
+    }
+
+    @Test
+    void missingHeaderIsRejected() {
+        assertThrows(UnauthorizedResponse.class, () -> middleware.handle(ctx));
+    }
+
+    @Test
+    void unprotectedMethodIsNotChecked() throws Exception {
+        when(ctx.method()).thenReturn(HandlerType.GET);
+        middleware.handle(ctx);
+        verify(ctx, never()).header("Authorization");
+    }
+}
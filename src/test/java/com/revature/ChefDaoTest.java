@@ -2,8 +2,11 @@ package com.revature;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,6 +15,8 @@ import org.junit.jupiter.api.Test;
 import com.revature.model.Chef;
 import com.revature.dao.ChefDAO;
 import com.revature.util.ConnectionUtil;
+import com.revature.util.Page;
+import com.revature.util.PageOptions;
 
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -115,6 +120,43 @@ public class ChefDaoTest {
         verify(preparedStatement).setInt(1, 1);
     }
 
+    @Test
+    public void testGetChefByUsername() throws Exception {
+        // Arrange
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt("id")).thenReturn(1);
+        when(resultSet.getString("username")).thenReturn("testChef");
+        when(resultSet.getString("password")).thenReturn("password123");
+
+        // Act
+        Chef chef = chefDAO.getChefByUsername("testChef");
+
+        // Assert
+        assertNotNull(chef);
+        assertEquals("password123", chef.getPassword());
+        verify(connection).prepareStatement("select * from CHEF where username=?");
+        verify(preparedStatement).setString(1, "testChef");
+        verify(connection, never()).createStatement();
+    }
+
+    @Test
+    public void testGetChefByIdIsServedFromCache() throws Exception {
+        // Arrange
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt("id")).thenReturn(1);
+        when(resultSet.getString("username")).thenReturn("testChef");
+
+        // Act
+        Chef first = chefDAO.getChefById(1);
+        Chef second = chefDAO.getChefById(1);
+        chefDAO.evictChef(1);
+        chefDAO.getChefById(1);
+
+        // Assert
+        assertEquals(first, second);
+        verify(preparedStatement, times(2)).executeQuery();
+    }
+
     @Test
     public void testCreateChef() throws Exception {
         // Arrange
@@ -162,4 +204,72 @@ public class ChefDaoTest {
         verify(preparedStatement).setInt(1, testChef.getId());
         verify(preparedStatement).executeUpdate();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetChefsByIdsUsesSingleQuery() throws Exception {
+        // Arrange
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getInt("id")).thenReturn(1, 2);
+        when(resultSet.getString("username")).thenReturn("chef1", "chef2");
+        when(resultSet.getString("email")).thenReturn("chef1@test.com", "chef2@test.com");
+        when(resultSet.getString("password")).thenReturn("pass1", "pass2");
+        when(resultSet.getBoolean("is_admin")).thenReturn(false, true);
+
+        // Act
+        Map<Integer, Chef> chefs = chefDAO.getChefsByIds(Arrays.asList(1, 2, 1, 2));
+
+        // Assert
+        assertEquals(2, chefs.size());
+        assertEquals("chef2", chefs.get(2).getUsername());
+        verify(connection).prepareStatement("select * from CHEF where id in (?,?)");
+        verify(preparedStatement).setInt(1, 1);
+        verify(preparedStatement).setInt(2, 2);
+        verify(preparedStatement, times(1)).executeQuery();
+    }
+
+    @Test
+    public void testGetChefsByIdsWithNoIdsSkipsDatabase() throws Exception {
+        // Act
+        Map<Integer, Chef> chefs = chefDAO.getChefsByIds(List.of());
+
+        // Assert
+        assertTrue(chefs.isEmpty());
+        verify(connectionUtil, never()).getConnection();
+    }
+
+    @Test
+    public void testSearchChefsByTermMapsIds() throws Exception {
+        // Arrange
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getInt("id")).thenReturn(2);
+        when(resultSet.getString("username")).thenReturn("chef2");
+
+        // Act
+        List<Chef> chefs = chefDAO.searchChefsByTerm("ef");
+
+        // Assert
+        assertEquals(1, chefs.size());
+        assertEquals(2, chefs.get(0).getId());
+        verify(preparedStatement).setString(1, "%ef%");
+    }
+
+    @Test
+    public void testSearchChefsByPrefixUsesIndexablePatternAndPagesInSql() throws Exception {
+        // Arrange
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getInt("id")).thenReturn(3);
+        when(resultSet.getString("username")).thenReturn("chef_3");
+
+        // Act
+        Page<Chef> page = chefDAO.searchChefsByPrefix("chef_", new PageOptions(1, 10, "username", "asc"));
+
+        // Assert
+        assertEquals(1, page.getTotalElements());
+        assertEquals(3, page.getItems().get(0).getId());
+        verify(connection).prepareStatement(
+                "SELECT * FROM CHEF WHERE username LIKE ? ESCAPE '\\' ORDER BY username LIMIT ? OFFSET ?");
+        verify(preparedStatement).setString(1, "chef\\_%");
+        verify(preparedStatement).setInt(2, 10);
+        verify(preparedStatement).setInt(3, 0);
+    }
+}
@@ -7,6 +7,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -88,6 +89,22 @@ class ChefServiceTest {
         verify(chefDao).getChefById(1);
     }
 
+    @Test
+    void fetchChefByUsername() {
+        when(chefDao.getChefByUsername("JoeCool")).thenReturn(MOCKS.get(0));
+        Optional<Chef> chef = chefService.findChefByUsername("JoeCool");
+        assertEquals(MOCKS.get(0), chef.orElse(null), () -> "Chef should match");
+        assertTrue(chefService.findChefByUsername("Nobody").isEmpty(), () -> "Unknown username should not be present");
+    }
+
+    @Test
+    void updateAndDeleteEvictCachedChef() {
+        when(chefDao.getChefById(1)).thenReturn(MOCKS.get(0));
+        chefService.saveChef(MOCKS.get(0));
+        chefService.deleteChef(1);
+        verify(chefDao, times(2)).evictChef(1);
+    }
+
     @Test
     void searchForListOfAllChefs() {
         when(chefDao.getAllChefs()).thenReturn(MOCKS);
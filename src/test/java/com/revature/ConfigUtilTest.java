@@ -0,0 +1,46 @@
+package com.revature;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.revature.util.ConfigUtil;
+
+class ConfigUtilTest {
+
+    private static final String SETTING = "recipe.test.configUtil.value";
+
+    @AfterEach
+    void clearSetting() {
+        System.clearProperty(SETTING);
+    }
+
+    @Test
+    void numericSettingsFallBackToTheDefaultOnlyWhenAbsent() {
+        assertEquals(5, ConfigUtil.getInt(SETTING, 5));
+
+        System.setProperty(SETTING, " 42 ");
+        assertEquals(42, ConfigUtil.getInt(SETTING, 5));
+        assertEquals(42L, ConfigUtil.getLong(SETTING, 5));
+    }
+
+    @Test
+    void nonNumericSettingsAreRejected() {
+        System.setProperty(SETTING, "ten");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> ConfigUtil.getLong(SETTING, 5));
+        assertTrue(e.getMessage().contains(SETTING), e::getMessage);
+        assertThrows(IllegalArgumentException.class, () -> ConfigUtil.getInt(SETTING, 5));
+    }
+
+    @Test
+    void intSettingsOutOfRangeAreRejected() {
+        System.setProperty(SETTING, "3000000000");
+
+        assertEquals(3_000_000_000L, ConfigUtil.getLong(SETTING, 5));
+        assertThrows(IllegalArgumentException.class, () -> ConfigUtil.getInt(SETTING, 5));
+    }
+}
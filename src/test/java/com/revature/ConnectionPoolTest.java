@@ -0,0 +1,195 @@
+package com.revature;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.revature.util.ConnectionPool;
+import com.revature.util.SlowQueryLog;
+
+class ConnectionPoolTest {
+
+    private JdbcDataSource dataSource;
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:pooltest;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        dataSource.setPassword("");
+        pool = new ConnectionPool(dataSource, 0, 2, 60_000, 200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void closedConnectionIsReusedByNextBorrow() throws SQLException {
+        Connection first = pool.borrow();
+        Connection physical = first.unwrap(Connection.class);
+        first.close();
+
+        Connection second = pool.borrow();
+
+        assertSame(physical, second.unwrap(Connection.class), () -> "The idle connection should be reused");
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(1, pool.getActiveCount());
+        assertEquals(0, pool.getIdleCount());
+        second.close();
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    void borrowTimesOutWhenPoolIsExhausted() throws SQLException {
+        Connection first = pool.borrow();
+        Connection second = pool.borrow();
+
+        assertThrows(SQLTimeoutException.class, () -> pool.borrow());
+        assertEquals(1, pool.getTimeoutCount());
+        assertEquals(2, pool.getOpenCount());
+
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void returningConnectionClosesItsStatements() throws SQLException {
+        Connection connection = pool.borrow();
+        PreparedStatement statement = connection.prepareStatement("SELECT 1");
+        connection.close();
+
+        assertTrue(statement.isClosed(), () -> "Statements should not outlive the borrow");
+        assertTrue(connection.isClosed(), () -> "The borrowed handle should report itself closed");
+        assertThrows(SQLException.class, () -> connection.prepareStatement("SELECT 1"));
+    }
+
+    @Test
+    void returningConnectionRollsBackOpenTransaction() throws SQLException {
+        try (Connection connection = pool.borrow()) {
+            connection.createStatement().execute("CREATE TABLE IF NOT EXISTS POOL_TX (id INT)");
+            connection.setAutoCommit(false);
+            connection.createStatement().executeUpdate("INSERT INTO POOL_TX VALUES (1)");
+        }
+
+        try (Connection connection = pool.borrow()) {
+            assertTrue(connection.getAutoCommit(), () -> "Auto-commit should be restored on return");
+            ResultSet resultSet = connection.createStatement().executeQuery("SELECT COUNT(*) FROM POOL_TX");
+            resultSet.next();
+            assertEquals(0, resultSet.getInt(1));
+            connection.createStatement().execute("DROP TABLE POOL_TX");
+        }
+    }
+
+    @Test
+    void slowStatementsAreLoggedWithParametersAndPlan() throws SQLException {
+        SlowQueryLog slowQueries = new SlowQueryLog(0, 10, true);
+        try (ConnectionPool logged = new ConnectionPool(dataSource, 0, 1, 60_000, 200, null, slowQueries);
+                Connection connection = logged.borrow()) {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = ?");
+            statement.setString(1, "NO_SUCH_TABLE");
+            ResultSet resultSet = statement.executeQuery();
+            resultSet.next();
+            assertEquals(0, resultSet.getInt(1));
+        }
+
+        List<SlowQueryLog.SlowQuery> queries = slowQueries.getRecent();
+        assertEquals(1, queries.size());
+        assertEquals("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = ?", queries.get(0).getSql());
+        assertEquals(Arrays.asList("'NO_SUCH_TABLE'"), queries.get(0).getParameters());
+        assertNotNull(queries.get(0).getPlan());
+        assertTrue(queries.get(0).getPlan().contains("SELECT"), queries.get(0)::getPlan);
+    }
+
+    @Test
+    void preparedStatementsAreReusedAcrossBorrows() throws SQLException {
+        try (ConnectionPool caching = new ConnectionPool(dataSource, 0, 1, 60_000, 200, null, null, 4)) {
+            PreparedStatement first;
+            PreparedStatement physical;
+            try (Connection connection = caching.borrow()) {
+                first = connection.prepareStatement("SELECT CAST(? AS INT)");
+                physical = first.unwrap(PreparedStatement.class);
+                first.setInt(1, 7);
+                ResultSet resultSet = first.executeQuery();
+                resultSet.next();
+                assertEquals(7, resultSet.getInt(1));
+            }
+            assertTrue(first.isClosed(), () -> "The handle from an earlier borrow should report itself closed");
+            assertFalse(physical.isClosed(), () -> "The cached statement should stay open on the idle connection");
+
+            try (Connection connection = caching.borrow()) {
+                PreparedStatement second = connection.prepareStatement("SELECT CAST(? AS INT)");
+                assertSame(physical, second.unwrap(PreparedStatement.class), () -> "The cached statement should be reused");
+                second.setInt(1, 8);
+                ResultSet resultSet = second.executeQuery();
+                resultSet.next();
+                assertEquals(8, resultSet.getInt(1));
+
+                PreparedStatement concurrent = connection.prepareStatement("SELECT CAST(? AS INT)");
+                assertNotSame(physical, concurrent.unwrap(PreparedStatement.class),
+                        () -> "A statement in use should not be handed out twice");
+            }
+
+            assertEquals(1, caching.getStatementCacheHitCount());
+            assertEquals(2, caching.getStatementCacheMissCount());
+        }
+    }
+
+    @Test
+    void schemaChangesInvalidateCachedStatements() throws SQLException {
+        try (ConnectionPool caching = new ConnectionPool(dataSource, 0, 1, 60_000, 200, null, null, 4)) {
+            try (Connection connection = caching.borrow()) {
+                connection.prepareStatement("DROP TABLE IF EXISTS CACHE_TEST").executeUpdate();
+                connection.prepareStatement("CREATE TABLE CACHE_TEST(id INT)").executeUpdate();
+                connection.prepareStatement("INSERT INTO CACHE_TEST VALUES (1)").executeUpdate();
+            }
+
+            PreparedStatement physical;
+            try (Connection connection = caching.borrow()) {
+                PreparedStatement select = connection.prepareStatement("SELECT COUNT(*) FROM CACHE_TEST");
+                physical = select.unwrap(PreparedStatement.class);
+                ResultSet resultSet = select.executeQuery();
+                resultSet.next();
+                assertEquals(1, resultSet.getInt(1));
+            }
+
+            try (Connection connection = caching.borrow()) {
+                connection.prepareStatement("DROP TABLE CACHE_TEST").executeUpdate();
+                connection.prepareStatement("CREATE TABLE CACHE_TEST(id INT)").executeUpdate();
+            }
+
+            try (Connection connection = caching.borrow()) {
+                PreparedStatement select = connection.prepareStatement("SELECT COUNT(*) FROM CACHE_TEST");
+                assertNotSame(physical, select.unwrap(PreparedStatement.class),
+                        () -> "A statement prepared before a schema change should not be reused");
+                ResultSet resultSet = select.executeQuery();
+                resultSet.next();
+                assertEquals(0, resultSet.getInt(1));
+            }
+            assertTrue(physical.isClosed(), () -> "The stale statement should be closed");
+
+            assertEquals(0, caching.getStatementCacheHitCount());
+            assertEquals(3, caching.getStatementCacheMissCount(), () -> "DDL should bypass the cache");
+        }
+    }
+}
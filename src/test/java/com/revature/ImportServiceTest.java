@@ -0,0 +1,135 @@
+package com.revature;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.revature.dao.IngredientDAO;
+import com.revature.dao.RecipeDAO;
+import com.revature.model.Ingredient;
+import com.revature.model.Recipe;
+import com.revature.service.ImportService;
+import com.revature.service.IngredientService;
+import com.revature.service.RecipeService;
+import com.revature.util.ImportReport;
+
+public class ImportServiceTest {
+    private RecipeDAO recipeDao;
+    private IngredientDAO ingredientDao;
+    private ImportService importService;
+
+    @BeforeEach
+    void setUpMocks() {
+        recipeDao = mock(RecipeDAO.class);
+        ingredientDao = mock(IngredientDAO.class);
+        when(ingredientDao.getAllIngredients()).thenReturn(new ArrayList<>(Arrays.asList(
+                new Ingredient(1, "carrot"),
+                new Ingredient(2, "potato"))));
+        when(recipeDao.createRecipes(anyList())).thenAnswer(invocation -> invocation.<List<Recipe>>getArgument(0).size());
+        importService = new ImportService(recipeDao, ingredientDao, new RecipeService(recipeDao),
+                new IngredientService(ingredientDao), 2);
+    }
+
+    @Test
+    void ndjsonIsWrittenInChunksWithIngredientNamesResolvedOnce() throws Exception {
+        when(ingredientDao.createIngredients(Arrays.asList("leek"))).thenReturn(Map.of("leek", 7));
+        String input = "{\"name\":\"carrot soup\",\"instructions\":\"Boil.\",\"author\":{\"id\":1},"
+                + "\"ingredients\":[{\"name\":\"carrot\",\"volume\":2,\"unit\":\"cups\"},{\"name\":\"leek\",\"volume\":1,\"unit\":\"cups\"}]}\n"
+                + "\n"
+                + "{\"name\":\"leek soup\",\"instructions\":\"Boil.\",\"ingredients\":[{\"name\":\"leek\",\"volume\":3,\"unit\":\"cups\"}]}\n"
+                + "{\"name\":\"potato soup\",\"instructions\":\"Boil.\",\"ingredients\":[{\"name\":\"potato\",\"volume\":1,\"unit\":\"cups\"}]}\n";
+
+        ImportReport report = importService.importRecipes(new StringReader(input), "ndjson");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Recipe>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(recipeDao, times(2)).createRecipes(chunks.capture());
+        assertEquals(2, chunks.getAllValues().get(0).size());
+        assertEquals(1, chunks.getAllValues().get(1).size());
+        Recipe leekSoup = chunks.getAllValues().get(0).get(1);
+        assertEquals(7, leekSoup.getIngredients().get(0).getId());
+        assertEquals(2, chunks.getAllValues().get(1).get(0).getIngredients().get(0).getId());
+
+        verify(ingredientDao, times(1)).getAllIngredients();
+        verify(ingredientDao, times(1)).createIngredients(anyList());
+        assertEquals(3, report.getRecipesImported());
+        assertEquals(1, report.getIngredientsCreated());
+        assertEquals(2, report.getChunks().size());
+        assertNull(report.getError());
+    }
+
+    @Test
+    void csvHandlesQuotedFieldsAndIngredientLists() throws Exception {
+        String input = "name,instructions,chef_id,ingredients\r\n"
+                + "carrot pie,\"Mix, then\nbake at \"\"200\"\"\",2,carrot:1:cups;potato:200:g:metric\r\n";
+
+        ImportReport report = importService.importRecipes(new StringReader(input), "csv", 10);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Recipe>> chunk = ArgumentCaptor.forClass(List.class);
+        verify(recipeDao).createRecipes(chunk.capture());
+        Recipe recipe = chunk.getValue().get(0);
+        assertEquals("Mix, then\nbake at \"200\"", recipe.getInstructions());
+        assertEquals(2, recipe.getAuthor().getId());
+        assertEquals(200.0, recipe.getIngredients().get(1).getVolume());
+        assertTrue(recipe.getIngredients().get(1).isMetric());
+        verify(ingredientDao, never()).createIngredients(anyList());
+        assertEquals(1, report.getRecipesImported());
+    }
+
+    @Test
+    void malformedInputStopsTheImportAndFailedChunksAreReported() throws Exception {
+        when(recipeDao.createRecipes(anyList())).thenReturn(-1);
+        String input = "{\"name\":\"a\"}\n{\"name\":\"b\"}\n{\"name\":\"c\"}\n{nope\n";
+
+        ImportReport report = importService.importRecipes(new StringReader(input), "ndjson");
+
+        verify(recipeDao, times(1)).createRecipes(anyList());
+        assertEquals(0, report.getRecipesImported());
+        assertEquals(2, report.getRecipesFailed());
+        assertTrue(report.getError().startsWith("Line 4:"));
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importRecipes(new StringReader(""), "xml"));
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importRecipes(new StringReader(""), "csv", 0));
+    }
+
+    @Test
+    void csvWithAnUnclosedQuoteIsReportedAsAnInputError() throws Exception {
+        String input = "name,instructions\n"
+                + "a,one\n"
+                + "b,two\n"
+                + "c,\"three\nand more\n";
+
+        ImportReport report = importService.importRecipes(new StringReader(input), "csv");
+
+        verify(recipeDao, times(1)).createRecipes(anyList());
+        assertEquals(2, report.getRecipesImported());
+        assertEquals("Line 4: unclosed quoted field", report.getError());
+    }
+
+    @Test
+    void failingToReadExistingIngredientsImportsNothing() throws Exception {
+        when(ingredientDao.getAllIngredients()).thenReturn(null);
+
+        assertNull(importService.importRecipes(new StringReader("{\"name\":\"a\"}\n"), "ndjson"));
+        verify(recipeDao, never()).createRecipes(anyList());
+    }
+}
@@ -13,10 +13,13 @@ import com.revature.dao.IngredientDAO;
 import com.revature.util.ConnectionUtil;
 import com.revature.util.DBUtil;
 import com.revature.util.Page;
+import com.revature.util.PageCursor;
 import com.revature.util.PageOptions;
 import static com.revature.utils.TestingUtils.assertCountDifference;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 public class IngredientDaoTest {
         private List<Ingredient> ingredientList = new ArrayList<>();
@@ -137,4 +140,37 @@ public class IngredientDaoTest {
                                 "The returned ingredients don't match the expected ingredients.");
         }
 
-}
\ No newline at end of file
+        @Test
+        void pageIngredientsByCursorTest() {
+                PageOptions pageOptions = new PageOptions(0, 4, "name", "ASC");
+
+                Page<Ingredient> first = ingredientDao.searchIngredientsAfter(null, pageOptions);
+                assertIterableEquals(Arrays.asList(ingredientList.get(0), ingredientList.get(3),
+                                ingredientList.get(1), ingredientList.get(4)), first.getItems(),
+                                "The first page should hold the first four ingredients by name.");
+                assertNotNull(first.getNextCursor(), "A cursor should be returned while more ingredients remain.");
+
+                pageOptions.setCursor(PageCursor.decode(first.getNextCursor(), "name"));
+                Page<Ingredient> second = ingredientDao.searchIngredientsAfter(null, pageOptions);
+                assertIterableEquals(Arrays.asList(ingredientList.get(5), ingredientList.get(2)), second.getItems(),
+                                "The second page should continue after the cursor.");
+                assertNull(second.getNextCursor(), "No cursor should be returned on the last page.");
+        }
+
+        @Test
+        void readAfterSchemaResetTest() {
+                assertEquals(ingredientList.get(0), ingredientDao.getIngredientById(1));
+                assertIterableEquals(ingredientList, ingredientDao.getAllIngredients());
+
+                DBUtil.RUN_SQL();
+                assertEquals(ingredientList.get(0), ingredientDao.getIngredientById(1),
+                                "Cached statements should not outlive the schema they were prepared against.");
+                assertIterableEquals(ingredientList, ingredientDao.getAllIngredients());
+
+                DBUtil.RUN_SQL();
+                assertEquals(ingredientList.get(0), ingredientDao.getIngredientById(1),
+                                "Cached statements should not outlive the schema they were prepared against.");
+                assertIterableEquals(ingredientList, ingredientDao.getAllIngredients());
+        }
+
+}
@@ -0,0 +1,102 @@
+package com.revature;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.revature.dao.RecipeDAO;
+import com.revature.model.Ingredient;
+import com.revature.model.Recipe;
+import com.revature.service.IngredientIndex;
+import com.revature.service.RecipeService;
+import com.revature.util.Page;
+
+public class IngredientIndexTest {
+    private RecipeDAO recipeDao;
+    private IngredientIndex index;
+
+    @BeforeEach
+    void setUpMocks() {
+        recipeDao = mock(RecipeDAO.class);
+        Map<Ingredient, List<Integer>> rows = new LinkedHashMap<>();
+        rows.put(new Ingredient(1, "carrot"), Arrays.asList(1, 6));
+        rows.put(new Ingredient(2, "potato"), Arrays.asList(2, 6, 7));
+        rows.put(new Ingredient(3, "tomato"), Arrays.asList(3, 7));
+        rows.put(new Ingredient(4, "lemon"), Arrays.asList(4));
+        rows.put(new Ingredient(5, "rice"), Arrays.asList(4, 7));
+        when(recipeDao.getRecipeIdsByIngredient()).thenReturn(rows);
+        index = new IngredientIndex(recipeDao);
+    }
+
+    private static List<String> names(String... names) {
+        return Arrays.asList(names);
+    }
+
+    @Test
+    void searchIntersectsRequiredIngredients() {
+        assertArrayEquals(new int[] { 2, 6, 7 }, index.search(names("potato"), names(), names()));
+        assertArrayEquals(new int[] { 6 }, index.search(names("Carrot", "potato"), names(), names()));
+        assertArrayEquals(new int[] { 7 }, index.search(names("potato", "tomato", "rice"), names(), names()));
+        assertArrayEquals(new int[0], index.search(names("potato", "saffron"), names(), names()));
+        verify(recipeDao, times(1)).getRecipeIdsByIngredient();
+    }
+
+    @Test
+    void searchCombinesOptionalAndExcludedIngredients() {
+        assertArrayEquals(new int[] { 1, 3, 6, 7 }, index.search(names(), names("carrot", "tomato", "saffron"), names()));
+        assertArrayEquals(new int[] { 6, 7 }, index.search(names("potato"), names("carrot", "rice"), names()));
+        assertArrayEquals(new int[] { 2, 6 }, index.search(names("potato"), names(), names("tomato")));
+        assertThrows(IllegalArgumentException.class, () -> index.search(names(), names(), names("tomato")));
+    }
+
+    @Test
+    void writesKeepTheIndexCurrent() {
+        index.search(names("potato"), names(), names());
+
+        index.removeRecipe(6);
+        assertArrayEquals(new int[] { 2, 7 }, index.search(names("potato"), names(), names()));
+        assertArrayEquals(new int[] { 1 }, index.search(names("carrot"), names(), names()));
+
+        index.renameIngredient(new Ingredient(3, "roma tomato"));
+        assertArrayEquals(new int[0], index.search(names("tomato"), names(), names()));
+        assertArrayEquals(new int[] { 3, 7 }, index.search(names("roma tomato"), names(), names()));
+
+        index.removeIngredient(5);
+        assertArrayEquals(new int[0], index.search(names("rice"), names(), names()));
+        assertEquals(4, index.getIngredientCount());
+    }
+
+    @Test
+    void invalidateReloadsOnNextSearch() {
+        index.search(names("carrot"), names(), names());
+        index.invalidate();
+        when(recipeDao.getRecipeIdsByIngredient()).thenReturn(Collections.singletonMap(new Ingredient(1, "carrot"), Arrays.asList(9)));
+        assertArrayEquals(new int[] { 9 }, index.search(names("carrot"), names(), names()));
+        verify(recipeDao, times(2)).getRecipeIdsByIngredient();
+    }
+
+    @Test
+    void recipeServicePagesIngredientMatchesFromTheIndex() {
+        RecipeService recipeService = new RecipeService(recipeDao, index);
+        List<Recipe> pageItems = Arrays.asList(new Recipe(7, "stew", "Simmer.", null));
+        when(recipeDao.getRecipesByIds(new int[] { 7 })).thenReturn(pageItems);
+
+        Page<Recipe> page = recipeService.searchRecipesByIngredients(null, names("potato"), names(), names(), 2, 2);
+
+        assertEquals(new Page<>(2, 2, 1, 3, pageItems), page);
+        verify(recipeDao).getRecipesByIds(new int[] { 7 });
+    }
+}
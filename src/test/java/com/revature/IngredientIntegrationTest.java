@@ -77,6 +77,25 @@ public class IngredientIntegrationTest {
         });
     }
 
+    @Test
+    void testSuggestIngredients() {
+        JavalinTest.test(app, (server, client) -> {
+            assertEquals(200, client.get("/ingredients/suggest?prefix=TO").code());
+            assertEquals("[{\"id\":3,\"name\":\"tomato\"}]", client.get("/ingredients/suggest?prefix=TO").body().string());
+            assertEquals("[]", client.get("/ingredients/suggest?prefix=xyz").body().string());
+
+            assertEquals(201, client.post("/ingredients", "{\"name\": \"sweet potato\"}").code());
+            assertEquals("[{\"id\":2,\"name\":\"potato\"},{\"id\":7,\"name\":\"sweet potato\"}]",
+                    client.get("/ingredients/suggest?prefix=pot").body().string());
+            assertEquals("[{\"id\":2,\"name\":\"potato\"}]",
+                    client.get("/ingredients/suggest?prefix=pot&limit=1").body().string());
+
+            assertEquals(204, client.delete("/ingredients/2").code());
+            assertEquals("[{\"id\":7,\"name\":\"sweet potato\"}]",
+                    client.get("/ingredients/suggest?prefix=pot").body().string());
+        });
+    }
+
     @Test
     void testGetIngredients() {
         JavalinTest.test(app, (server, client) -> {
@@ -2,6 +2,7 @@ package com.revature;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
@@ -25,6 +26,7 @@ import com.revature.model.Recipe;
 import com.revature.dao.IngredientDAO;
 import com.revature.service.IngredientService;
 import com.revature.util.Page;
+import com.revature.util.PageCursor;
 import com.revature.util.PageOptions;
 
 public class IngredientServiceTest {
@@ -148,4 +150,41 @@ public class IngredientServiceTest {
         assertEquals(new Page<Recipe>(0, 0, 0, 0, Collections.emptyList()), ingredients,
                 () -> "Service shouldn't change the page returned from the dao");
     }
-}
\ No newline at end of file
+
+    @Test
+    void searchAfterPassesDecodedCursorToDao() {
+        when(ingredientDao.searchIngredientsAfter(any(), any(PageOptions.class)))
+                .thenReturn(new Page<Ingredient>(0, 2, -1, -1, Arrays.asList(MOCKS.get(4), MOCKS.get(5))));
+        String after = new PageCursor("name", "potato", 2).encode();
+        ingredientService.searchIngredientsAfter(null, after, 2, "name", "asc");
+        ArgumentCaptor<PageOptions> optionsCaptor = ArgumentCaptor.forClass(PageOptions.class);
+        verify(ingredientDao).searchIngredientsAfter(any(), optionsCaptor.capture());
+        PageCursor cursor = optionsCaptor.getValue().getCursor();
+        assertEquals("potato", cursor.getValue(), () -> "Cursor value should survive the round trip");
+        assertEquals(2, cursor.getId(), () -> "Cursor id should survive the round trip");
+    }
+
+    @Test
+    void searchAfterRejectsInvalidCursor() {
+        String idCursor = new PageCursor("id", "2", 2).encode();
+        assertThrows(IllegalArgumentException.class,
+                () -> ingredientService.searchIngredientsAfter(null, idCursor, 2, "name", "asc"));
+        assertThrows(IllegalArgumentException.class,
+                () -> ingredientService.searchIngredientsAfter(null, "not a cursor!", 2, "id", "asc"));
+    }
+
+    @Test
+    void suggestAnswersFromTheNameIndexAfterOneLoad() {
+        when(ingredientDao.getAllIngredients()).thenReturn(MOCKS);
+        assertIterableEquals(Arrays.asList(MOCKS.get(2)), ingredientService.suggestIngredients("TOM", 10));
+        assertIterableEquals(Arrays.asList(MOCKS.get(1)), ingredientService.suggestIngredients("p", 10));
+
+        Ingredient parsnip = new Ingredient(0, "parsnip");
+        when(ingredientDao.createIngredient(parsnip)).thenReturn(7);
+        ingredientService.saveIngredient(parsnip);
+        assertIterableEquals(Arrays.asList(new Ingredient(7, "parsnip"), MOCKS.get(1)),
+                ingredientService.suggestIngredients("p", 10));
+
+        verify(ingredientDao).getAllIngredients();
+    }
+}
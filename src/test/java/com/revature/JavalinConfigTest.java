@@ -36,6 +36,7 @@ class JavalinConfigTest {
 
 		chefDao = new ChefDAO(new ConnectionUtil());
 		chefService = new ChefService(chefDao);
+		AuthenticationService.loggedInUsers.clear();
 		authService = new AuthenticationService(chefService);
 		authController = new AuthenticationController(chefService, authService);
 
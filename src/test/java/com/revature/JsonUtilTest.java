@@ -0,0 +1,32 @@
+package com.revature;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.revature.model.Ingredient;
+import com.revature.util.JsonUtil;
+import com.revature.util.Page;
+
+class JsonUtilTest {
+
+    @Test
+    void readerParsesIngredient() throws JsonProcessingException {
+        Ingredient ingredient = JsonUtil.INGREDIENT_READER.readValue("{\"id\": 3, \"name\": \"tomato\"}");
+        assertEquals(new Ingredient(3, "tomato"), ingredient);
+    }
+
+    @Test
+    void pageWriterOmitsMissingCursor() throws JsonProcessingException {
+        Page<Ingredient> page = new Page<>(1, 1, 1, 1, List.of(new Ingredient(3, "tomato")));
+        assertFalse(JsonUtil.PAGE_WRITER.writeValueAsString(page).contains("nextCursor"));
+
+        page.setNextCursor("abc");
+        assertTrue(JsonUtil.PAGE_WRITER.writeValueAsString(page).contains("\"nextCursor\":\"abc\""));
+    }
+}
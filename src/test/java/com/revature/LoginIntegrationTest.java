@@ -62,6 +62,7 @@ class LoginIntegrationTest {
 		recipeService = new RecipeService(recipeDAO);
 		ingredientService = new IngredientService(ingredientDAO);
 		chefService = new ChefService(chefDAO);
+		AuthenticationService.loggedInUsers.clear();
 		authService = new AuthenticationService(chefService);
 		authController = new AuthenticationController(chefService, authService);
 		recipeController = new RecipeController(recipeService, authService);
@@ -208,4 +209,21 @@ class LoginIntegrationTest {
 
 	}
 
-}
\ No newline at end of file
+	@Test
+	void testRegisterDuplicateUsername() throws IOException {
+
+		Chef chef = new Chef(0, "twice chef", "twicechef@chefmail.com", "1234abc", false);
+		RequestBody chefBody = RequestBody.create(
+				"{\"username\": \"" + chef.getUsername() + "\", \"password\": \"" + chef.getPassword()
+						+ "\", \"email\": \"" + chef.getEmail() + "\"}",
+				MediaType.get("application/json; charset=utf-8"));
+		Request registerRequest = new Request.Builder().url(BASE_URL + "/register").post(chefBody).build();
+		Response firstResponse = client.newCall(registerRequest).execute();
+		Response secondResponse = client.newCall(registerRequest).execute();
+		assertEquals(201, firstResponse.code(), () -> "Should successfully register user");
+		assertEquals(409, secondResponse.code(), () -> "Should reject an existing username");
+		assertEquals("Username already exists", secondResponse.body().string());
+
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.revature;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.revature.util.LruCache;
+
+class LruCacheTest {
+
+    private AtomicLong clock;
+    private LruCache<Integer, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+        cache = new LruCache<>(2, 1_000, clock::get);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.get(1);
+        cache.put(3, "three");
+
+        assertEquals("one", cache.get(1), () -> "Recently read entry should be kept");
+        assertNull(cache.get(2), () -> "Least recently used entry should be evicted");
+        assertEquals("three", cache.get(3));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    void expiresEntriesAfterTimeToLive() {
+        cache.put(1, "one");
+        clock.addAndGet(999_000_000L);
+        assertEquals("one", cache.get(1), () -> "Entry should still be fresh");
+
+        clock.addAndGet(2_000_000L);
+        assertNull(cache.get(1), () -> "Entry should have expired");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        cache.put(1, "one");
+        cache.get(1);
+        cache.get(1);
+        cache.get(2);
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void invalidateRemovesEntry() {
+        cache.put(1, "one");
+        cache.invalidate(1);
+
+        assertNull(cache.get(1));
+    }
+}
@@ -0,0 +1,74 @@
+package com.revature;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.revature.util.LatencyHistogram;
+import com.revature.util.MetricsRegistry;
+
+class MetricsRegistryTest {
+
+    private MetricsRegistry metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new MetricsRegistry();
+    }
+
+    @Test
+    void histogramPercentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1_000_000L);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000_000L, histogram.getMaxNanos());
+        assertEquals(500, histogram.getValueAtQuantile(0.5) / 1e6, 500 * 0.25);
+        assertEquals(950, histogram.getValueAtQuantile(0.95) / 1e6, 950 * 0.25);
+        assertEquals(990, histogram.getValueAtQuantile(0.99) / 1e6, 990 * 0.25);
+        assertEquals(0, new LatencyHistogram().getValueAtQuantile(0.99));
+    }
+
+    @Test
+    void scrapeReportsRequestsByRouteAndStatusClass() {
+        metrics.recordRequest("GET", "/recipes/{id}", 200, 2_000_000);
+        metrics.recordRequest("GET", "/recipes/{id}", 200, 3_000_000);
+        metrics.recordRequest("GET", "/recipes/{id}", 404, 100_000);
+        metrics.recordQuery("SELECT * FROM RECIPE", 500_000);
+        metrics.recordQuery(" insert into RECIPE values (?)", 500_000);
+        metrics.registerGauge("db_pool_active_connections", "Connections lent out.", () -> 3);
+
+        String text = metrics.scrape();
+
+        assertTrue(text.contains("recipe_http_requests_total{method=\"GET\",route=\"/recipes/{id}\",status=\"2xx\"} 2\n"), text);
+        assertTrue(text.contains("recipe_http_requests_total{method=\"GET\",route=\"/recipes/{id}\",status=\"4xx\"} 1\n"), text);
+        assertTrue(text.contains("# TYPE recipe_http_request_duration_seconds histogram\n"), text);
+        assertTrue(text.contains("recipe_http_request_duration_seconds_bucket{method=\"GET\",route=\"/recipes/{id}\",le=\"+Inf\"} 3\n"), text);
+        assertTrue(text.contains("recipe_http_request_duration_seconds_count{method=\"GET\",route=\"/recipes/{id}\"} 3\n"), text);
+        assertTrue(text.contains("recipe_http_request_duration_seconds_max{method=\"GET\",route=\"/recipes/{id}\"} 0.003\n"), text);
+        assertTrue(text.contains("quantile=\"0.99\""), text);
+        assertTrue(text.contains("recipe_db_query_duration_seconds_count{operation=\"select\"} 1\n"), text);
+        assertTrue(text.contains("recipe_db_query_duration_seconds_count{operation=\"insert\"} 1\n"), text);
+        assertTrue(text.contains("recipe_db_pool_active_connections 3\n"), text);
+    }
+
+    @Test
+    void histogramBucketsAreCumulative() {
+        metrics.recordRequest("POST", "/recipes", 201, 10_000);
+        metrics.recordRequest("POST", "/recipes", 201, 5_000_000);
+
+        long previous = 0;
+        for (String line : metrics.scrape().split("\n")) {
+            if (line.startsWith("recipe_http_request_duration_seconds_bucket")) {
+                long count = Long.parseLong(line.substring(line.lastIndexOf(' ') + 1));
+                assertTrue(count >= previous, line);
+                previous = count;
+            }
+        }
+        assertEquals(2, previous);
+    }
+}
@@ -1,19 +1,39 @@
 package com.revature;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 import io.javalin.http.Context;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
 import io.javalin.http.Handler;
+import io.javalin.http.InternalServerErrorResponse;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import com.revature.controller.RecipeController;
 import com.revature.model.Recipe;
 import com.revature.service.AuthenticationService;
 import com.revature.service.RecipeService;
-
+import com.revature.util.BatchConsumer;
+import com.revature.util.JdbcExecutor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
 
 public class RecipeControllerTest {
 
@@ -68,4 +88,157 @@ public class RecipeControllerTest {
         verify(ctx).status(404);
         verify(ctx).result("No recipes found");
     }
-}
\ No newline at end of file
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGetRecipesAsyncRunsOnJdbcExecutor() throws Exception {
+        RecipeService recipeService = mock(RecipeService.class);
+        AuthenticationService authService = mock(AuthenticationService.class);
+        List<Recipe> allRecipes = Arrays.asList(new Recipe("Apple Pie"), new Recipe("Steak"));
+        List<String> threads = new ArrayList<>();
+        when(recipeService.searchRecipes(null)).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return allRecipes;
+        });
+
+        Context ctx = mock(Context.class);
+        try (JdbcExecutor executor = new JdbcExecutor(1, 1)) {
+            Handler getRecipes = new RecipeController(recipeService, authService, executor).fetchAllRecipes;
+            getRecipes.handle(ctx);
+
+            ArgumentCaptor<Supplier<? extends CompletableFuture<?>>> future = ArgumentCaptor.forClass(Supplier.class);
+            verify(ctx).future(future.capture());
+            future.getValue().get().get(5, TimeUnit.SECONDS);
+        }
+
+        verify(ctx).status(200);
+        verify(ctx).json(allRecipes);
+        assertEquals(Collections.singletonList("jdbc-executor-1"), threads);
+    }
+
+    @Test
+    public void testGetRecipesAsyncRejectsWhenSaturated() throws Exception {
+        RecipeService recipeService = mock(RecipeService.class);
+        AuthenticationService authService = mock(AuthenticationService.class);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Context ctx = mock(Context.class);
+        try (JdbcExecutor executor = new JdbcExecutor(1, 1)) {
+            // One task holds the only thread and one fills the queue.
+            executor.submit(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            executor.submit(() -> { });
+
+            Handler getRecipes = new RecipeController(recipeService, authService, executor).fetchAllRecipes;
+            getRecipes.handle(ctx);
+
+            assertEquals(1, executor.getRejectedCount());
+            release.countDown();
+        }
+
+        verify(ctx).status(503);
+        verify(ctx, never()).future(any());
+        verify(recipeService, never()).searchRecipes(any());
+    }
+
+    @Test
+    public void testStreamedRecipesFailingPartWayAreNotClosedOff() throws Exception {
+        RecipeService recipeService = mock(RecipeService.class);
+        AuthenticationService authService = mock(AuthenticationService.class);
+        when(recipeService.streamRecipes(isNull(), eq(false), any())).thenAnswer(invocation -> {
+            BatchConsumer<Recipe> consumer = invocation.getArgument(2);
+            consumer.accept(Arrays.asList(new Recipe("Apple Pie"), new Recipe("Steak")));
+            return -1;
+        });
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        Context ctx = mock(Context.class);
+        when(ctx.queryParam("stream")).thenReturn("true");
+        when(ctx.outputStream()).thenReturn(servletStream(body));
+
+        Handler getRecipes = new RecipeController(recipeService, authService).fetchAllRecipes;
+        assertThrows(InternalServerErrorResponse.class, () -> getRecipes.handle(ctx));
+
+        String json = body.toString(StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("[") && json.contains("Steak"), json);
+        assertFalse(json.endsWith("]"), () -> "A failed listing should not be sent as a complete array: " + json);
+    }
+
+    @Test
+    public void testStreamedRecipesFailingUpFrontAnswer500() throws Exception {
+        RecipeService recipeService = mock(RecipeService.class);
+        AuthenticationService authService = mock(AuthenticationService.class);
+        when(recipeService.streamRecipes(isNull(), eq(false), any())).thenReturn(-1);
+
+        Context ctx = mock(Context.class);
+        when(ctx.queryParam("stream")).thenReturn("true");
+
+        Handler getRecipes = new RecipeController(recipeService, authService).fetchAllRecipes;
+        getRecipes.handle(ctx);
+
+        verify(ctx).status(500);
+        verify(ctx, never()).outputStream();
+    }
+
+    @Test
+    public void testExportFailingPartWayIsNotFinishedOff() throws Exception {
+        RecipeService recipeService = mock(RecipeService.class);
+        AuthenticationService authService = mock(AuthenticationService.class);
+        when(recipeService.exportRecipes(any())).thenAnswer(invocation -> {
+            BatchConsumer<Recipe> consumer = invocation.getArgument(0);
+            consumer.accept(Arrays.asList(new Recipe("Apple Pie"), new Recipe("Steak")));
+            return -1;
+        });
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        Context ctx = mock(Context.class);
+        when(ctx.queryParam("gzip")).thenReturn("true");
+        when(ctx.outputStream()).thenReturn(servletStream(body));
+
+        Handler export = new RecipeController(recipeService, authService).exportRecipes;
+        assertThrows(InternalServerErrorResponse.class, () -> export.handle(ctx));
+
+        verify(ctx).status(200);
+        assertThrows(EOFException.class, () -> new GZIPInputStream(new ByteArrayInputStream(body.toByteArray())).readAllBytes(),
+                () -> "A failed export should not be sent as a complete gzip file");
+    }
+
+    @Test
+    public void testExportFailingUpFrontAnswers500() throws Exception {
+        RecipeService recipeService = mock(RecipeService.class);
+        AuthenticationService authService = mock(AuthenticationService.class);
+        when(recipeService.exportRecipes(any())).thenReturn(-1);
+
+        Context ctx = mock(Context.class);
+        when(ctx.queryParam("gzip")).thenReturn("true");
+
+        Handler export = new RecipeController(recipeService, authService).exportRecipes;
+        export.handle(ctx);
+
+        verify(ctx).status(500);
+        verify(ctx, never()).outputStream();
+    }
+
+    private static ServletOutputStream servletStream(ByteArrayOutputStream body) {
+        return new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+            }
+        };
+    }
+}
@@ -1,6 +1,7 @@
 
 package com.revature;
 
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -10,11 +11,17 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -81,13 +88,15 @@ class RecipeDaoTest {
         when(resultSet.getString("name")).thenReturn(expectedRecipe.getName());
         when(resultSet.getString("instructions")).thenReturn(expectedRecipe.getInstructions());
         when(resultSet.getInt("chef_id")).thenReturn(expectedRecipe.getAuthor().getId());
-        when(chefDao.getChefById(anyInt())).thenReturn(expectedRecipe.getAuthor());
+        when(chefDao.getChefById(any(Connection.class), anyInt())).thenReturn(expectedRecipe.getAuthor());
 
         // Act
         Recipe actualRecipe = recipeDao.getRecipeById(1);
 
         // Assert
         assertEquals(expectedRecipe, actualRecipe);
+        verify(chefDao).getChefById(connection, expectedRecipe.getAuthor().getId());
+        verify(connectionUtil, times(1)).getConnection();
 
         verify(preparedStatement).setInt(1, 1);
     }
@@ -112,14 +121,15 @@ class RecipeDaoTest {
                         "Put potato in water. Boil. Maybe salt.");
         when(resultSet.getInt("chef_id")).thenReturn(1, 2);
 
-        when(chefDao.getChefById(1)).thenReturn(chefList.get(0));
-        when(chefDao.getChefById(2)).thenReturn(chefList.get(1));
+        when(chefDao.getChefsByIds(any(Connection.class), anyCollection())).thenReturn(chefsById());
 
         // Act
         List<Recipe> actualRecipes = recipeDao.getAllRecipes();
 
         // Assert
         assertEquals(recipeList, actualRecipes);
+        assertEquals(chefList.get(0), actualRecipes.get(0).getAuthor());
+        assertEquals(chefList.get(1), actualRecipes.get(1).getAuthor());
         verify(connection).createStatement(); // Verify the statement creation
         verify(preparedStatement).executeQuery(expectedSQL); // Verify the query execution
         verify(resultSet, times(3)).next(); // Verify result set navigation
@@ -188,9 +198,8 @@ class RecipeDaoTest {
         when(resultSet.getString("instructions"))
                 .thenReturn("Put carrot in water. Boil. Maybe salt.",
                         "Put potato in water. Boil. Maybe salt.");
-        when(resultSet.getInt("author_id")).thenReturn(1, 2);
-        when(chefDao.getChefById(1)).thenReturn(chefList.get(0));
-        when(chefDao.getChefById(2)).thenReturn(chefList.get(1));
+        when(resultSet.getInt("chef_id")).thenReturn(1, 2);
+        when(chefDao.getChefsByIds(any(Connection.class), anyCollection())).thenReturn(chefsById());
 
         // Act
         List<Recipe> results = recipeDao.searchRecipesByTerm(searchTerm);
@@ -215,8 +224,7 @@ class RecipeDaoTest {
                 .thenReturn("Put carrot in water. Boil. Maybe salt.",
                         "Put potato in water. Boil. Maybe salt.");
         when(resultSet.getInt("chef_id")).thenReturn(1, 2);
-        when(chefDao.getChefById(1)).thenReturn(chefList.get(0));
-        when(chefDao.getChefById(2)).thenReturn(chefList.get(1));
+        when(chefDao.getChefsByIds(any(Connection.class), anyCollection())).thenReturn(chefsById());
 
         // Act
         Page<Recipe> recipePage = recipeDao.getAllRecipes(pageable);
@@ -225,4 +233,180 @@ class RecipeDaoTest {
         assertEquals(2, recipePage.getItems().size());
         assertEquals(2, recipePage.getPageSize());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllRecipesPaged_WindowsInSqlAndCountsTotal() throws SQLException {
+        PageOptions pageable = new PageOptions(2, 2);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next())
+                .thenReturn(true)
+                .thenReturn(true)
+                .thenReturn(false)
+                .thenReturn(true);
+        when(resultSet.getInt("id")).thenReturn(3, 4);
+        when(resultSet.getString("name")).thenReturn("carrot soup", "potato soup");
+        when(resultSet.getInt("chef_id")).thenReturn(1, 2);
+        when(resultSet.getInt(1)).thenReturn(5);
+        when(chefDao.getChefsByIds(any(Connection.class), anyCollection())).thenReturn(chefsById());
+
+        Page<Recipe> recipePage = recipeDao.getAllRecipes(pageable);
+
+        verify(connection).prepareStatement("SELECT * FROM RECIPE ORDER BY id LIMIT ? OFFSET ?");
+        verify(connection).prepareStatement("SELECT COUNT(*) FROM RECIPE");
+        verify(preparedStatement).setInt(1, 2);
+        verify(preparedStatement).setInt(2, 2);
+        assertEquals(2, recipePage.getItems().size());
+        assertEquals(5, recipePage.getTotalElements());
+        assertEquals(2, recipePage.getTotalPages());
+    }
+
+    @Test
+    void getAllRecipesPaged_ShortFirstPageSkipsCount() throws SQLException {
+        PageOptions pageable = new PageOptions(1, 5);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next())
+                .thenReturn(true)
+                .thenReturn(true)
+                .thenReturn(false);
+        when(resultSet.getInt("id")).thenReturn(1, 2);
+        when(resultSet.getInt("chef_id")).thenReturn(1, 2);
+        when(chefDao.getChefsByIds(any(Connection.class), anyCollection())).thenReturn(chefsById());
+
+        Page<Recipe> recipePage = recipeDao.getAllRecipes(pageable);
+
+        verify(connection, never()).prepareStatement("SELECT COUNT(*) FROM RECIPE");
+        assertEquals(2, recipePage.getTotalElements());
+    }
+
+    @Test
+    void loadIngredients_UsesOneQueryForAllRecipes() throws SQLException {
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, true, false);
+        when(resultSet.getInt("recipe_id")).thenReturn(1, 2, 2);
+        when(resultSet.getInt("id")).thenReturn(1, 2, 5);
+        when(resultSet.getString("name")).thenReturn("carrot", "potato", "rice");
+        when(resultSet.getDouble("vol")).thenReturn(1.0, 2.0, 0.5);
+        when(resultSet.getString("unit")).thenReturn("cups", "cups", "kg");
+        when(resultSet.getBoolean("is_metric")).thenReturn(false, false, true);
+        Recipe empty = new Recipe(3, "stone soup", "Put stone in water.", chefList.get(0));
+        List<Recipe> recipes = Arrays.asList(recipeList.get(0), recipeList.get(1), empty);
+
+        recipeDao.loadIngredients(recipes);
+
+        verify(preparedStatement, times(1)).executeQuery();
+        assertEquals(1, recipes.get(0).getIngredients().size());
+        assertEquals(2, recipes.get(1).getIngredients().size());
+        assertEquals("rice", recipes.get(1).getIngredients().get(1).getName());
+        assertTrue(recipes.get(1).getIngredients().get(1).isMetric());
+        assertTrue(empty.getIngredients().isEmpty(), () -> "Recipes without ingredients should get an empty list");
+    }
+
+    @Test
+    void getAllRecipes_LoadsAuthorsWithConstantQueryCount() throws SQLException {
+        // Arrange: a large listing spread over a handful of chefs
+        int rowCount = 10_000;
+        AtomicInteger row = new AtomicInteger();
+        when(connection.createStatement()).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenAnswer(invocation -> row.incrementAndGet() <= rowCount);
+        when(resultSet.getInt("id")).thenAnswer(invocation -> row.get());
+        when(resultSet.getString("name")).thenAnswer(invocation -> "recipe " + row.get());
+        when(resultSet.getInt("chef_id")).thenAnswer(invocation -> row.get() % 2 + 1);
+        when(chefDao.getChefsByIds(any(Connection.class), anyCollection())).thenReturn(chefsById());
+
+        // Act
+        List<Recipe> recipes = recipeDao.getAllRecipes();
+
+        // Assert: one recipe query and one batched author query, regardless of row count
+        assertEquals(rowCount, recipes.size());
+        verify(preparedStatement, times(1)).executeQuery(anyString());
+        verify(chefDao, times(1)).getChefsByIds(same(connection), anyCollection());
+        verify(chefDao, never()).getChefById(any(Connection.class), anyInt());
+        verify(connectionUtil, times(1)).getConnection();
+        recipes.forEach(recipe -> assertNotNull(recipe.getAuthor()));
+    }
+
+    @Test
+    void searchRecipesByTerm_ResolvesEachAuthorOnce() throws SQLException {
+        // Arrange
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, true, false);
+        when(resultSet.getInt("id")).thenReturn(1, 2, 3);
+        when(resultSet.getString("name")).thenReturn("carrot soup", "potato soup", "tomato soup");
+        when(resultSet.getInt("chef_id")).thenReturn(1, 2, 2);
+        when(chefDao.getChefsByIds(any(Connection.class), anyCollection())).thenReturn(chefsById());
+
+        // Act
+        List<Recipe> results = recipeDao.searchRecipesByTerm("soup");
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Integer>> idsCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(chefDao, times(1)).getChefsByIds(same(connection), idsCaptor.capture());
+        verify(chefDao, never()).getChefById(any(Connection.class), anyInt());
+        assertEquals(Arrays.asList(1, 2, 2), List.copyOf(idsCaptor.getValue()));
+        assertEquals(chefList.get(1), results.get(2).getAuthor());
+    }
+
+    @Test
+    void streamRecipes_HandsOnFixedSizeBatchesWithAuthors() throws Exception {
+        // Arrange
+        int rowCount = 250;
+        AtomicInteger row = new AtomicInteger();
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenAnswer(invocation -> row.incrementAndGet() <= rowCount);
+        when(resultSet.getInt("id")).thenAnswer(invocation -> row.get());
+        when(resultSet.getString("name")).thenAnswer(invocation -> "recipe " + row.get());
+        when(resultSet.getInt("chef_id")).thenAnswer(invocation -> row.get() % 2 + 1);
+        when(chefDao.getChefsByIds(any(Connection.class), anyCollection())).thenReturn(chefsById());
+        List<Integer> batchSizes = new ArrayList<>();
+        List<Recipe> streamed = new ArrayList<>();
+
+        // Act
+        int count = recipeDao.streamRecipes(null, batch -> {
+            batchSizes.add(batch.size());
+            streamed.addAll(batch);
+        });
+
+        // Assert: rows are fetched and handed on a batch at a time, with one author lookup per batch
+        assertEquals(rowCount, count);
+        assertEquals(Arrays.asList(100, 100, 50), batchSizes);
+        verify(preparedStatement).setFetchSize(100);
+        verify(chefDao, times(3)).getChefsByIds(same(connection), anyCollection());
+        assertEquals(250, streamed.get(249).getId());
+        streamed.forEach(recipe -> assertNotNull(recipe.getAuthor()));
+    }
+
+    @Test
+    void streamRecipes_LoadsAuthorsAndIngredientsOnTheStreamingConnection() throws Exception {
+        // Arrange
+        int rowCount = 150;
+        AtomicInteger row = new AtomicInteger();
+        PreparedStatement ingredientStatement = mock(PreparedStatement.class);
+        ResultSet noIngredients = mock(ResultSet.class);
+        when(connection.prepareStatement(startsWith("select ri.recipe_id"))).thenReturn(ingredientStatement);
+        when(ingredientStatement.executeQuery()).thenReturn(noIngredients);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenAnswer(invocation -> row.incrementAndGet() <= rowCount);
+        when(resultSet.getInt("id")).thenAnswer(invocation -> row.get());
+        when(resultSet.getInt("chef_id")).thenAnswer(invocation -> row.get() % 2 + 1);
+        when(chefDao.getChefsByIds(any(Connection.class), anyCollection())).thenReturn(chefsById());
+        List<Recipe> streamed = new ArrayList<>();
+
+        // Act
+        int count = recipeDao.streamRecipes(null, true, streamed::addAll);
+
+        // Assert: one connection for the whole stream, with each batch's lookups run on it
+        assertEquals(rowCount, count);
+        verify(connectionUtil, times(1)).getConnection();
+        verify(chefDao, times(2)).getChefsByIds(same(connection), anyCollection());
+        verify(ingredientStatement, times(2)).executeQuery();
+        streamed.forEach(recipe -> assertNotNull(recipe.getIngredients()));
+    }
+
+    private Map<Integer, Chef> chefsById() {
+        Map<Integer, Chef> chefs = new HashMap<>();
+        chefList.forEach(chef -> chefs.put(chef.getId(), chef));
+        return chefs;
+    }
+}
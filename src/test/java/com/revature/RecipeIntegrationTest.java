@@ -1,10 +1,21 @@
 package com.revature;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import org.h2.jdbcx.JdbcDataSource;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -23,9 +34,13 @@ import com.revature.service.AuthenticationService;
 import com.revature.service.ChefService;
 import com.revature.service.IngredientService;
 import com.revature.service.RecipeService;
+import com.revature.util.ConfigUtil;
+import com.revature.util.ConnectionPool;
 import com.revature.util.ConnectionUtil;
 import com.revature.util.DBUtil;
 import com.revature.util.JavalinAppUtil;
+import com.revature.util.JsonUtil;
+import com.revature.util.LruCache;
 import com.revature.util.Page;
 
 import io.javalin.Javalin;
@@ -83,6 +98,7 @@ class RecipeIntegrationTest {
 		recipeDao = new RecipeDAO(chefDao, ingredientDao, new ConnectionUtil());
 		recipeService = new RecipeService(recipeDao);
 		chefService = new ChefService(chefDao);
+		AuthenticationService.loggedInUsers.clear();
 		authService = new AuthenticationService(chefService);
 		recipeController = new RecipeController(recipeService, authService);
 		authController = new AuthenticationController(chefService, authService);
@@ -129,6 +145,59 @@ class RecipeIntegrationTest {
 		Assertions.assertEquals(200, response.code());
 	}
 
+	@Test
+	void testConcurrentListingsBeyondPoolSize() throws Exception {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL(ConfigUtil.getString("recipe.db.url", "jdbc:h2:./h2/db;"));
+		dataSource.setUser(ConfigUtil.getString("recipe.db.user", "sa"));
+		dataSource.setPassword(ConfigUtil.getString("recipe.db.password", ""));
+		try (ConnectionPool pool = new ConnectionPool(dataSource, 0, 2, 60_000, 2_000)) {
+			// Each borrow is held a little longer than a real query takes, so the listings overlap.
+			ConnectionUtil pooled = new ConnectionUtil() {
+				@Override
+				public Connection getConnection() throws SQLException {
+					Connection connection = pool.borrow();
+					try {
+						Thread.sleep(50);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					return connection;
+				}
+			};
+			// Chef entries expire as soon as they are stored, so every listing has to look its authors up.
+			AtomicLong clock = new AtomicLong();
+			ChefDAO uncachedChefs = new ChefDAO(pooled,
+					new LruCache<>(16, 1, () -> clock.addAndGet(TimeUnit.SECONDS.toNanos(1))));
+			RecipeDAO listingDao = new RecipeDAO(uncachedChefs, null, pooled);
+
+			int listings = pool.getMaxSize() * 3;
+			ExecutorService executor = Executors.newFixedThreadPool(listings);
+			CountDownLatch start = new CountDownLatch(1);
+			try {
+				List<Future<List<Recipe>>> results = new ArrayList<>();
+				for (int i = 0; i < listings; i++) {
+					results.add(executor.submit(() -> {
+						start.await();
+						return listingDao.getAllRecipes();
+					}));
+				}
+				start.countDown();
+				for (Future<List<Recipe>> result : results) {
+					List<Recipe> recipes = result.get(30, TimeUnit.SECONDS);
+					Assertions.assertEquals(recipeList, recipes);
+					for (int i = 0; i < recipes.size(); i++) {
+						Assertions.assertEquals(recipeList.get(i).getAuthor(), recipes.get(i).getAuthor());
+					}
+				}
+			} finally {
+				executor.shutdownNow();
+			}
+			Assertions.assertEquals(0, pool.getTimeoutCount(),
+					() -> "No listing should wait on the pool for a second connection");
+		}
+	}
+
 	@Test
 	void testPostRecipe() throws Exception {
 
@@ -192,4 +261,44 @@ class RecipeIntegrationTest {
 				"The single result should be returned");
 	}
 
+	@Test
+	void testExportRecipesAsNdjson() throws IOException {
+		Request request = new Request.Builder().url(BASE_URL + "/export/recipes").get().build();
+		Response response = client.newCall(request).execute();
+		Assertions.assertEquals(200, response.code());
+		Assertions.assertTrue(response.header("Content-Type").startsWith("application/x-ndjson"));
+		String body = response.body().string();
+
+		String[] lines = body.split("\n");
+		Assertions.assertEquals(recipeList.size(), lines.length, () -> "Each recipe should be on its own line");
+		for (int i = 0; i < lines.length; i++) {
+			Recipe recipe = JsonUtil.RECIPE_READER.readValue(lines[i]);
+			Assertions.assertEquals(recipeList.get(i).getId(), recipe.getId());
+			Assertions.assertEquals(recipeList.get(i).getAuthor().getUsername(), recipe.getAuthor().getUsername());
+			Assertions.assertNull(recipe.getAuthor().getPassword(), () -> "Passwords should not be exported");
+		}
+		Assertions.assertEquals(2, JsonUtil.RECIPE_READER.<Recipe>readValue(lines[3]).getIngredients().size());
+		Assertions.assertTrue(JsonUtil.RECIPE_READER.<Recipe>readValue(lines[4]).getIngredients().isEmpty());
+
+		Request gzipRequest = new Request.Builder().url(BASE_URL + "/export/recipes?gzip=true").get().build();
+		Response gzipResponse = client.newCall(gzipRequest).execute();
+		Assertions.assertEquals(200, gzipResponse.code());
+		try (GZIPInputStream unzipped = new GZIPInputStream(gzipResponse.body().byteStream())) {
+			Assertions.assertEquals(body, new String(unzipped.readAllBytes(), StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	void testMetricsCountRequestsByRoute() throws IOException {
+		client.newCall(new Request.Builder().url(BASE_URL + "/recipes/1").get().build()).execute().close();
+
+		Response response = client.newCall(new Request.Builder().url(BASE_URL + "/metrics").get().build()).execute();
+		Assertions.assertEquals(200, response.code());
+		Assertions.assertTrue(response.header("Content-Type").startsWith("text/plain"));
+		String body = response.body().string();
+		Assertions.assertTrue(body.contains("recipe_http_requests_total{method=\"GET\",route=\"/recipes/{id}\",status=\"2xx\"}"), body);
+		Assertions.assertTrue(body.contains("recipe_http_request_duration_seconds_count{method=\"GET\",route=\"/recipes/{id}\"}"), body);
+		Assertions.assertTrue(body.contains("recipe_db_query_duration_seconds_count{operation=\"select\"}"), body);
+	}
+
 }
\ No newline at end of file
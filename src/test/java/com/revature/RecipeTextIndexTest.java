@@ -0,0 +1,87 @@
+package com.revature;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.revature.dao.RecipeDAO;
+import com.revature.model.Recipe;
+import com.revature.service.IngredientIndex;
+import com.revature.service.RecipeService;
+import com.revature.service.RecipeTextIndex;
+import com.revature.util.Page;
+
+public class RecipeTextIndexTest {
+    private RecipeDAO recipeDao;
+    private RecipeTextIndex index;
+    List<Recipe> MOCKS;
+
+    @BeforeEach
+    void setUpMocks() {
+        recipeDao = mock(RecipeDAO.class);
+        MOCKS = Arrays.asList(
+                new Recipe(1, "carrot soup", "Put carrot in water.  Boil.  Maybe salt.", null),
+                new Recipe(2, "potato soup", "Put potato in water.  Boil.  Maybe salt.", null),
+                new Recipe(3, "tomato soup", "Put tomato in water.  Boil.  Maybe salt.", null),
+                new Recipe(4, "lemon rice", "Boil rice.  Slice lemon.  Combine.", null),
+                new Recipe(5, "stone soup", "Boil water.  Add stone.  Add carrot.", null));
+        when(recipeDao.getAllRecipes()).thenReturn(MOCKS);
+        index = new RecipeTextIndex(recipeDao);
+    }
+
+    @Test
+    void searchRequiresEveryWordAndRanksNameMatchesFirst() {
+        assertArrayEquals(new int[] { 1, 5 }, index.search("carrot"));
+        assertArrayEquals(new int[] { 1, 5 }, index.search("Carrot, water!"));
+        assertArrayEquals(new int[] { 3 }, index.search("tomato soup"));
+        assertArrayEquals(new int[0], index.search("carrot lemon"));
+        assertArrayEquals(new int[0], index.search("  "));
+        verify(recipeDao, times(1)).getAllRecipes();
+    }
+
+    @Test
+    void searchMatchesWordPrefixesBelowExactWords() {
+        assertArrayEquals(new int[] { 4 }, index.search("lem"));
+        assertArrayEquals(new int[] { 1, 5 }, index.search("carr"));
+        assertArrayEquals(new int[] { 4 }, index.search("sl"));
+        assertEquals(5, index.getRecipeCount());
+    }
+
+    @Test
+    void writesKeepTheIndexCurrent() {
+        index.search("soup");
+
+        index.indexRecipe(6, "carrot cake", "Grate carrot.  Bake.");
+        assertArrayEquals(new int[] { 6 }, index.search("cake"));
+        assertArrayEquals(new int[] { 6 }, index.search("carrot bake"));
+
+        index.indexRecipe(6, "carrot cake", "Grate carrot.  Steam.");
+        assertArrayEquals(new int[0], index.search("bake"));
+
+        index.removeRecipe(1);
+        assertArrayEquals(new int[] { 6, 5 }, index.search("carrot"));
+
+        index.invalidate();
+        assertArrayEquals(new int[] { 1, 5 }, index.search("carrot"));
+        verify(recipeDao, times(2)).getAllRecipes();
+    }
+
+    @Test
+    void recipeServicePagesFullTextMatchesInRankedOrder() {
+        RecipeService recipeService = new RecipeService(recipeDao, new IngredientIndex(recipeDao), index);
+        when(recipeDao.getRecipesByIds(new int[] { 5 })).thenReturn(Arrays.asList(MOCKS.get(4)));
+
+        Page<Recipe> page = recipeService.searchRecipesFullText("carrot", 2, 1);
+
+        assertEquals(new Page<>(2, 1, 2, 2, Arrays.asList(MOCKS.get(4))), page);
+    }
+}
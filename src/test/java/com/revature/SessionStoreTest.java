@@ -0,0 +1,98 @@
+package com.revature;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.revature.model.Chef;
+import com.revature.util.SessionStore;
+
+class SessionStoreTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    private AtomicLong clock;
+    private SessionStore store;
+    private Chef chef;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+        store = new SessionStore(1_000, 2, 0, clock::get);
+        chef = new Chef(1, "JoeCool", "snoopy@null.com", "redbarron", false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void lookupExtendsSession() {
+        store.put("token", chef);
+        clock.addAndGet(800 * MILLIS);
+        assertSame(chef, store.get("token"));
+        clock.addAndGet(800 * MILLIS);
+        assertSame(chef, store.get("token"), () -> "Each lookup should extend the session");
+        clock.addAndGet(1_001 * MILLIS);
+        assertNull(store.get("token"), () -> "An unused session should expire");
+    }
+
+    @Test
+    void sweepRemovesExpiredSessions() {
+        store.put("old", chef);
+        clock.addAndGet(1_500 * MILLIS);
+        store.put("new", chef);
+
+        assertEquals(1, store.sweep());
+        assertEquals(1, store.size());
+        assertEquals(1, store.getExpiredCount());
+    }
+
+    @Test
+    void fullStoreEvictsLeastRecentlyUsedSession() {
+        store.put("first", chef);
+        clock.addAndGet(MILLIS);
+        store.put("second", chef);
+        clock.addAndGet(MILLIS);
+        store.get("first");
+        store.put("third", chef);
+
+        assertEquals(2, store.size());
+        assertSame(chef, store.get("first"));
+        assertNull(store.get("second"), () -> "The least recently used session should be evicted");
+        assertEquals(1, store.getEvictedCount());
+    }
+
+    @Test
+    void concurrentLoginsAndLookupsKeepEverySession() throws InterruptedException {
+        SessionStore large = new SessionStore(60_000, 100_000, 0);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int offset = t * 1_000;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    large.put("token-" + (offset + i), chef);
+                    large.get("token-" + (offset + i / 2));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(8_000, large.size());
+        assertEquals(8_000, large.getHitCount());
+        large.close();
+    }
+}
@@ -0,0 +1,102 @@
+package com.revature;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.revature.util.SlowQueryLog;
+
+class SlowQueryLogTest {
+
+    @Test
+    void onlyStatementsAtOrOverTheThresholdAreSlow() {
+        SlowQueryLog log = new SlowQueryLog(100, 5, false);
+
+        assertFalse(log.isSlow(99_999_999L));
+        assertTrue(log.isSlow(100_000_000L));
+        assertFalse(new SlowQueryLog(-1, 5, false).isSlow(Long.MAX_VALUE), () -> "A negative threshold disables the log");
+    }
+
+    @Test
+    void keepsTheSlowestAndTheMostRecentStatements() {
+        SlowQueryLog log = new SlowQueryLog(0, 2, false);
+        log.record("SELECT 1", null, 1, 3_000_000, null);
+        log.record("SELECT 2", null, 1, 9_000_000, null);
+        log.record("SELECT 3", null, 1, 1_000_000, null);
+        log.record("SELECT 4", null, 1, 5_000_000, null);
+
+        assertEquals(List.of("SELECT 2", "SELECT 4"), sqlOf(log.getSlowest()));
+        assertEquals(List.of("SELECT 4", "SELECT 3"), sqlOf(log.getRecent()));
+        assertEquals(4, log.getSlowCount());
+
+        log.clear();
+        assertTrue(log.getSlowest().isEmpty());
+        assertTrue(log.getRecent().isEmpty());
+    }
+
+    @Test
+    void rendersBoundParametersInOrder() {
+        SlowQueryLog log = new SlowQueryLog(0, 2, false);
+        TreeMap<Integer, Object> parameters = new TreeMap<>();
+        parameters.put(2, null);
+        parameters.put(1, "chef's soup");
+        parameters.put(3, 7);
+        parameters.put(4, new byte[16]);
+
+        log.record("SELECT * FROM RECIPE WHERE name = ? AND chef_id = ? AND id = ? AND data = ?", parameters, 1, 1_000_000, null);
+
+        assertEquals(List.of("'chef''s soup'", "NULL", "7", "<16 bytes>"), log.getRecent().get(0).getParameters());
+    }
+
+    @Test
+    void redactsValuesBoundToSensitiveColumns() {
+        SlowQueryLog log = new SlowQueryLog(0, 5, false);
+
+        log.record("insert into CHEF(username, email, password, is_admin) values(?,?,?,?)",
+                parameters("alice", "alice@example.com", "hunter2", true), 1, 1_000_000, null);
+        log.record("update CHEF set username=?, email=?, password=?, is_admin=? where id=?",
+                parameters("alice", "alice@example.com", "hunter2", true, 3), 1, 1_000_000, null);
+        log.record("SELECT * FROM CHEF c WHERE c.username = ? AND c.PASSWORD = ?",
+                parameters("alice", "hunter2"), 1, 1_000_000, null);
+
+        List<SlowQueryLog.SlowQuery> recent = log.getRecent();
+        assertEquals(List.of("'alice'", SlowQueryLog.REDACTED), recent.get(0).getParameters());
+        assertEquals(List.of("'alice'", "'alice@example.com'", SlowQueryLog.REDACTED, "true", "3"),
+                recent.get(1).getParameters());
+        assertEquals(List.of("'alice'", "'alice@example.com'", SlowQueryLog.REDACTED, "true"),
+                recent.get(2).getParameters());
+        assertFalse(recent.toString().contains("hunter2"));
+    }
+
+    @Test
+    void redactsUnmappedParametersOfStatementsNamingASensitiveColumn() {
+        SlowQueryLog log = new SlowQueryLog(0, 5, false, false, List.of("secret"));
+
+        log.record("SELECT id FROM ACCOUNT WHERE api_secret IN (?, ?) AND id = ?",
+                parameters("a", "b", 1), 1, 1_000_000, null);
+        log.record("SELECT id FROM ACCOUNT WHERE password = ?", parameters("hunter2"), 1, 1_000_000, null);
+
+        List<SlowQueryLog.SlowQuery> recent = log.getRecent();
+        assertEquals(List.of("'hunter2'"), recent.get(0).getParameters(),
+                () -> "Only the configured column names are sensitive");
+        assertEquals(List.of(SlowQueryLog.REDACTED, SlowQueryLog.REDACTED, "1"), recent.get(1).getParameters());
+    }
+
+    private static TreeMap<Integer, Object> parameters(Object... values) {
+        TreeMap<Integer, Object> parameters = new TreeMap<>();
+        for (int i = 0; i < values.length; i++) {
+            parameters.put(i + 1, values[i]);
+        }
+        return parameters;
+    }
+
+    private static List<String> sqlOf(List<SlowQueryLog.SlowQuery> queries) {
+        return queries.stream().map(SlowQueryLog.SlowQuery::getSql).collect(Collectors.toList());
+    }
+}
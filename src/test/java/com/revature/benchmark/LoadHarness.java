@@ -0,0 +1,357 @@
+package com.revature.benchmark;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import com.revature.Main;
+import com.revature.util.JsonUtil;
+
+import io.javalin.Javalin;
+
+/**
+ * Drives the real application over HTTP at a fixed request rate and reports throughput, latency percentiles
+ * and error rates as JSON. The server is started in-process with {@link Main#startServer(int, boolean, boolean)}
+ * against a file-backed H2 database, which is reset and then seeded through POST /import.
+ *
+ * Load is open-loop: requests are started on a fixed schedule whether or not earlier ones have completed, and
+ * each latency is measured from the time its request was due rather than the time it was sent, so a stalled
+ * server shows up as latency instead of silently lowering the request rate. This is a manual tool, not a test:
+ *
+ * <pre>
+ * mvn -Pload test-compile exec:java -Dload.rps=1000 -Dload.mix=list=50,get=35,login=10,create=5
+ * </pre>
+ *
+ * Settings, as system properties:
+ * <ul>
+ * <li>load.rps (default 500): requests started per second.</li>
+ * <li>load.seconds (30) and load.warmupSeconds (5): measured and discarded run times.</li>
+ * <li>load.mix ("list=50,get=35,login=10,create=5"): relative weights of the operations. "list" is
+ * GET /recipes for a random page of 20, "get" is GET /recipes/{id} for a random recipe, "login" is
+ * POST /login and "create" is POST /recipes.</li>
+ * <li>load.seedRecipes (10000): recipes imported before the run.</li>
+ * <li>load.maxInFlight (2000): requests allowed in flight; requests due beyond it are counted as dropped.</li>
+ * <li>load.virtualThreads (false): whether the server runs requests on virtual threads.</li>
+ * <li>load.report ("target/load-report.json"): where the report is written.</li>
+ * </ul>
+ * Server settings such as recipe.db.pool.maxSize or recipe.recipes.async are passed the same way, so runs
+ * can compare server modes and pool sizes on one machine.
+ */
+public class LoadHarness {
+
+    private static final String ADMIN_CREDENTIALS = "{\"username\":\"ChefTrevin\",\"password\":\"trevature\"}";
+    private static final int PAGE_SIZE = 20;
+    private static final int IMPORT_CHUNK = 10_000;
+
+    /** One kind of request in the mix, with its own statistics. */
+    static final class Operation {
+        final String name;
+        final int weight;
+        final Histogram latencyMicros = new ConcurrentHistogram(3);
+        final LongAdder requests = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+
+        Operation(String name, int weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+
+        void reset() {
+            latencyMicros.reset();
+            requests.reset();
+            errors.reset();
+            dropped.reset();
+        }
+
+        Map<String, Object> report(double seconds) {
+            Map<String, Object> report = new LinkedHashMap<>();
+            long count = requests.sum();
+            report.put("requests", count);
+            report.put("errors", errors.sum());
+            report.put("dropped", dropped.sum());
+            report.put("errorRate", count == 0 ? 0 : round((double) errors.sum() / count));
+            report.put("throughput", round(count / seconds));
+            report.put("latencyMillis", latencies(latencyMicros));
+            return report;
+        }
+    }
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong created = new AtomicLong();
+    private final String baseUrl;
+    private final int recipeCount;
+    private final String token;
+
+    LoadHarness(String baseUrl, int recipeCount, String token) {
+        this.baseUrl = baseUrl;
+        this.recipeCount = recipeCount;
+        this.token = token;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rps = Integer.getInteger("load.rps", 500);
+        int seconds = Integer.getInteger("load.seconds", 30);
+        int warmupSeconds = Integer.getInteger("load.warmupSeconds", 5);
+        String mix = System.getProperty("load.mix", "list=50,get=35,login=10,create=5");
+        int seedRecipes = Integer.getInteger("load.seedRecipes", 10_000);
+        int maxInFlight = Integer.getInteger("load.maxInFlight", 2000);
+        boolean virtualThreads = Boolean.getBoolean("load.virtualThreads");
+        File reportFile = new File(System.getProperty("load.report", "target/load-report.json"));
+
+        // The database URL is read when ConnectionUtil is first loaded, so it must be set before Main is touched.
+        if (System.getProperty("recipe.db.url") == null) {
+            System.setProperty("recipe.db.url",
+                    "jdbc:h2:file:" + new File("target/load-data/db").getAbsolutePath());
+        }
+
+        List<Operation> operations = parseMix(mix);
+        Javalin app = Main.startServer(8095, true, virtualThreads);
+        try {
+            String baseUrl = "http://localhost:" + app.port();
+            String token = login(baseUrl);
+            int recipeCount = 5 + seed(baseUrl, token, seedRecipes);
+            LoadHarness harness = new LoadHarness(baseUrl, recipeCount, token);
+
+            harness.run(operations, rps, warmupSeconds, maxInFlight);
+            operations.forEach(Operation::reset);
+            long began = System.nanoTime();
+            harness.run(operations, rps, seconds, maxInFlight);
+            harness.awaitInFlight();
+            double elapsed = (System.nanoTime() - began) / 1e9;
+
+            Map<String, Object> config = new LinkedHashMap<>();
+            config.put("targetRps", rps);
+            config.put("seconds", seconds);
+            config.put("mix", mix);
+            config.put("seedRecipes", seedRecipes);
+            config.put("virtualThreads", virtualThreads);
+            config.put("poolMaxSize", System.getProperty("recipe.db.pool.maxSize", "10"));
+            config.put("asyncRecipes", System.getProperty("recipe.recipes.async", "false"));
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("config", config);
+            report.put("elapsedSeconds", round(elapsed));
+            report.put("total", total(operations, elapsed));
+            Map<String, Object> byOperation = new LinkedHashMap<>();
+            for (Operation operation : operations) {
+                byOperation.put(operation.name, operation.report(elapsed));
+            }
+            report.put("operations", byOperation);
+
+            String json = JsonUtil.MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(report);
+            reportFile.getAbsoluteFile().getParentFile().mkdirs();
+            Files.writeString(reportFile.toPath(), json);
+            System.out.println(json);
+        } finally {
+            app.stop();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Starts requests on a fixed schedule for the given time.
+     */
+    void run(List<Operation> operations, int rps, int seconds, int maxInFlight) {
+        int totalWeight = operations.stream().mapToInt(operation -> operation.weight).sum();
+        long interval = TimeUnit.SECONDS.toNanos(1) / rps;
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        for (long i = 0;; i++) {
+            long due = start + i * interval;
+            if (due >= end) {
+                return;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Operation operation = pick(operations, totalWeight);
+            if (inFlight.get() >= maxInFlight) {
+                operation.dropped.increment();
+                continue;
+            }
+            inFlight.incrementAndGet();
+            http.sendAsync(request(operation.name), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        operation.latencyMicros.recordValue(Math.max(0, (System.nanoTime() - due) / 1000));
+                        operation.requests.increment();
+                        if (failure != null || response.statusCode() >= 400) {
+                            operation.errors.increment();
+                        }
+                        inFlight.decrementAndGet();
+                    });
+        }
+    }
+
+    /**
+     * Waits up to 30 seconds for requests still in flight, so that the slowest ones are counted.
+     */
+    void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private HttpRequest request(String operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        HttpRequest.Builder builder;
+        switch (operation) {
+            case "list":
+                int page = random.nextInt(Math.max(1, recipeCount / PAGE_SIZE)) + 1;
+                builder = HttpRequest.newBuilder(URI.create(baseUrl + "/recipes?page=" + page + "&pageSize="
+                        + PAGE_SIZE + "&sortBy=id&sortDirection=asc")).GET();
+                break;
+            case "get":
+                builder = HttpRequest.newBuilder(URI.create(baseUrl + "/recipes/" + (random.nextInt(recipeCount) + 1)))
+                        .GET();
+                break;
+            case "login":
+                builder = HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                        .POST(HttpRequest.BodyPublishers.ofString(ADMIN_CREDENTIALS));
+                break;
+            case "create":
+                String body = "{\"name\":\"load test recipe " + created.incrementAndGet() + "-" + random.nextInt()
+                        + "\",\"instructions\":\"Boil.\",\"author\":{\"id\":4}}";
+                builder = HttpRequest.newBuilder(URI.create(baseUrl + "/recipes"))
+                        .header("Authorization", "Bearer " + token)
+                        .POST(HttpRequest.BodyPublishers.ofString(body));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+        return builder.timeout(Duration.ofSeconds(30)).build();
+    }
+
+    private static Operation pick(List<Operation> operations, int totalWeight) {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Operation operation : operations) {
+            roll -= operation.weight;
+            if (roll < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    static List<Operation> parseMix(String mix) {
+        List<Operation> operations = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                operations.add(new Operation(parts[0].trim(), weight));
+            }
+        }
+        if (operations.isEmpty()) {
+            throw new IllegalArgumentException("load.mix has no operation with a positive weight");
+        }
+        return operations;
+    }
+
+    private static String login(String baseUrl) throws Exception {
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                        .POST(HttpRequest.BodyPublishers.ofString(ADMIN_CREDENTIALS)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed: " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    /**
+     * Imports generated recipes through POST /import, in chunks of {@link #IMPORT_CHUNK}.
+     *
+     * @return the number of recipes imported
+     */
+    private static int seed(String baseUrl, String token, int recipes) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        String[] vegetables = { "carrot", "potato", "tomato", "lemon", "rice", "stone" };
+        int imported = 0;
+        long began = System.nanoTime();
+        for (int from = 0; from < recipes; from += IMPORT_CHUNK) {
+            StringBuilder body = new StringBuilder();
+            for (int i = from; i < Math.min(recipes, from + IMPORT_CHUNK); i++) {
+                String vegetable = vegetables[i % vegetables.length];
+                body.append("{\"name\":\"seeded ").append(vegetable).append(" soup ").append(i)
+                        .append("\",\"instructions\":\"Put ").append(vegetable).append(" in water.  Boil.\"")
+                        .append(",\"author\":{\"id\":").append(1 + i % 4).append("}")
+                        .append(",\"ingredients\":[{\"name\":\"").append(vegetable)
+                        .append("\",\"volume\":1,\"unit\":\"cups\"}]}\n");
+            }
+            HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder(URI.create(baseUrl + "/import"))
+                            .header("Authorization", "Bearer " + token)
+                            .header("Content-Type", "application/x-ndjson")
+                            .POST(HttpRequest.BodyPublishers.ofString(body.toString())).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed: " + response.statusCode() + " " + response.body());
+            }
+            imported += ((Number) JsonUtil.MAPPER.readValue(response.body(), Map.class).get("recipesImported")).intValue();
+        }
+        System.out.printf("Seeded %d recipes in %.1f s%n", imported, (System.nanoTime() - began) / 1e9);
+        return imported;
+    }
+
+    private static Map<String, Object> total(List<Operation> operations, double seconds) {
+        Histogram all = new Histogram(3);
+        long requests = 0;
+        long errors = 0;
+        long dropped = 0;
+        for (Operation operation : operations) {
+            all.add(operation.latencyMicros);
+            requests += operation.requests.sum();
+            errors += operation.errors.sum();
+            dropped += operation.dropped.sum();
+        }
+        Map<String, Object> total = new LinkedHashMap<>();
+        total.put("requests", requests);
+        total.put("errors", errors);
+        total.put("dropped", dropped);
+        total.put("errorRate", requests == 0 ? 0 : round((double) errors / requests));
+        total.put("throughput", round(requests / seconds));
+        total.put("latencyMillis", latencies(all));
+        return total;
+    }
+
+    /** @return the mean and a spread of percentiles, in milliseconds */
+    private static Map<String, Object> latencies(Histogram micros) {
+        Map<String, Object> latencies = new LinkedHashMap<>();
+        latencies.put("mean", round(micros.getMean() / 1000));
+        for (double percentile : new double[] { 50, 75, 90, 95, 99, 99.9, 99.99 }) {
+            latencies.put("p" + (percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+                    round(micros.getValueAtPercentile(percentile) / 1000.0));
+        }
+        latencies.put("max", round(micros.getMaxValue() / 1000.0));
+        return latencies;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
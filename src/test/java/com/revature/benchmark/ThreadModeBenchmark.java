@@ -0,0 +1,160 @@
+package com.revature.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.revature.Main;
+
+import io.javalin.Javalin;
+
+/**
+ * Compares request throughput and latency with handlers on Jetty's platform thread pool against handlers on
+ * virtual threads. The server is started once in each mode and driven by a fixed number of concurrent clients,
+ * each sending its next request as soon as the previous one completes. This is a manual benchmark, not a test:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.revature.benchmark.ThreadModeBenchmark
+ * </pre>
+ *
+ * Virtual threads need a JDK 21 runtime; on an older JDK both runs use the platform pool. Settings, as system
+ * properties: bench.clients (default 400), bench.warmupSeconds (3), bench.seconds (10),
+ * bench.path ("/recipes?expand=ingredients").
+ */
+public class ThreadModeBenchmark {
+
+    private static final int PORT = 8090;
+
+    /** The outcome of one run. */
+    static final class Result {
+        final String mode;
+        final long requests;
+        final long errors;
+        final double seconds;
+        final long[] latencyNanos;
+
+        Result(String mode, long requests, long errors, double seconds, long[] latencyNanos) {
+            this.mode = mode;
+            this.requests = requests;
+            this.errors = errors;
+            this.seconds = seconds;
+            this.latencyNanos = latencyNanos;
+        }
+
+        double percentileMillis(double percentile) {
+            if (latencyNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100 * latencyNanos.length) - 1;
+            return latencyNanos[Math.max(0, index)] / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-9s %10.1f req/s %8d errors   p50 %8.2f ms   p99 %8.2f ms   max %8.2f ms",
+                    mode, requests / seconds, errors, percentileMillis(50), percentileMillis(99),
+                    percentileMillis(100));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("bench.clients", 400);
+        int warmupSeconds = Integer.getInteger("bench.warmupSeconds", 3);
+        int seconds = Integer.getInteger("bench.seconds", 10);
+        String path = System.getProperty("bench.path", "/recipes?expand=ingredients");
+
+        List<Result> results = new ArrayList<>();
+        for (boolean virtual : new boolean[] { false, true }) {
+            Javalin app = Main.startServer(PORT, true, virtual);
+            try {
+                URI uri = URI.create("http://localhost:" + app.port() + path);
+                run(virtual ? "virtual" : "platform", uri, clients, warmupSeconds);
+                results.add(run(virtual ? "virtual" : "platform", uri, clients, seconds));
+            } finally {
+                app.stop();
+            }
+        }
+
+        System.out.printf("%n%d clients, %d s per run, GET %s%n", clients, seconds, path);
+        results.forEach(System.out::println);
+        System.exit(0);
+    }
+
+    /**
+     * Drives the server with the given number of clients for a fixed time.
+     */
+    static Result run(String mode, URI uri, int clients, int seconds) throws Exception {
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Math.max(4, clients / 8)))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+
+        ExecutorService workers = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        long[] deadline = new long[1];
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            futures.add(workers.submit(() -> {
+                long[] latencies = new long[1024];
+                int count = 0;
+                long errors = 0;
+                start.await();
+                while (System.nanoTime() < deadline[0]) {
+                    long begin = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 500) {
+                            errors++;
+                        }
+                    } catch (java.io.IOException e) {
+                        errors++;
+                    }
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = System.nanoTime() - begin;
+                }
+                long[] result = Arrays.copyOf(latencies, count + 1);
+                result[count] = errors;
+                return result;
+            }));
+        }
+
+        long began = System.nanoTime();
+        deadline[0] = began + seconds * 1_000_000_000L;
+        start.countDown();
+
+        // Each worker returns its latencies followed by its error count.
+        List<long[]> perClient = new ArrayList<>();
+        int total = 0;
+        long errors = 0;
+        for (Future<long[]> future : futures) {
+            long[] latencies = future.get();
+            perClient.add(latencies);
+            total += latencies.length - 1;
+            errors += latencies[latencies.length - 1];
+        }
+        double elapsed = (System.nanoTime() - began) / 1e9;
+        workers.shutdown();
+
+        long[] all = new long[total];
+        int offset = 0;
+        for (long[] latencies : perClient) {
+            System.arraycopy(latencies, 0, all, offset, latencies.length - 1);
+            offset += latencies.length - 1;
+        }
+
+        Arrays.sort(all);
+        return new Result(mode, all.length, errors, elapsed, all);
+    }
+}